@@ -1,25 +1,86 @@
 import syntax.Term;
 import syntax.TermPair;
+import syntax.TermPairReader;
+import syntax.TermPrinter;
+import unification.BatchUnifier;
 import unification.RobinsonUnificationStrategy;
 import unification.UnificationResult;
 import unification.UnificationStrategy;
 import unification.UnificationStrategyFactory;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Console application main class
  */
 public class Main {
+    /**
+     * A flag that makes the application only check
+     * if the terms are unifiable
+     */
+    private static final String CHECK_FLAG = "--check";
+
+    /**
+     * A flag that makes the application unify many pairs,
+     * one pair per line of a file or of the standard input
+     */
+    private static final String BATCH_FLAG = "--batch";
+
+    /**
+     * An option of the batch mode that sets the number of worker threads
+     */
+    private static final String THREADS_OPTION = "--threads";
+
+    /**
+     * A name of the file that stands for the standard input
+     */
+    private static final String STANDARD_INPUT = "-";
+
+    /**
+     * A line of the batch output that is being formatted
+     * on the current worker thread
+     */
+    private static final ThreadLocal<StringWriter> BATCH_LINE =
+            ThreadLocal.withInitial(StringWriter::new);
+
+    /**
+     * A printer of the line of the current worker thread. The unifiers
+     * may share their subterms, so they are printed as DAGs
+     */
+    private static final ThreadLocal<TermPrinter> BATCH_LINE_PRINTER =
+            ThreadLocal.withInitial(() -> new TermPrinter(BATCH_LINE.get(), true));
+
     /**
      * Main point of entry to the console application
      *
      * @param args command-line arguments
      */
     public static void main(String[] args) {
+        if (args.length == 4 && args[0].equals(CHECK_FLAG)) {
+            check(args[1], args[2], args[3]);
+        }
+        if (args.length >= 2 && args[0].equals(BATCH_FLAG)) {
+            batch(args);
+        }
         if (args.length != 3) {
             System.out.println(
                     "Provide the name of the unification" +
                     " algorithm and two terms enclosed" +
-                    " in the double quotes");
+                    " in the double quotes. Add " + CHECK_FLAG +
+                    " before the name to check if the terms" +
+                    " are unifiable without building the unifier." +
+                    " Use " + BATCH_FLAG + " [" + THREADS_OPTION + " n]" +
+                    " <algorithm> [file] to unify the pairs" +
+                    " term1" + TermPairReader.DELIMITER + "term2" +
+                    " read one per line from the file or from" +
+                    " the standard input");
             System.exit(1);
         }
         UnificationStrategy strategy =
@@ -32,13 +93,21 @@ public class Main {
             System.out.println("Found unifier for the terms:");
             System.out.println("- " + args[1]);
             System.out.println("- " + args[2]);
-            System.out.println("Resulting unifier is:");
-            System.out.println(
-                    unificationResult.unifier().domain());
-            System.out.println("Resulting term is:");
-            System.out.println(unificationResult
-                    .unifier()
-                    .instantiateVariables(termPair.term1()));
+            // The unifier and the resulting term may share their
+            // subterms, so they are printed as DAGs
+            TermPrinter printer = new TermPrinter(System.out, true);
+            try {
+                printer.print("Resulting unifier is:").println()
+                        .print(unificationResult.unifier().domain()).println()
+                        .print("Resulting term is:").println()
+                        .print(unificationResult
+                                .unifier()
+                                .instantiateVariables(termPair.term1()))
+                        .println()
+                        .flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         } else {
             System.out.println("Terms");
             System.out.println("- " + args[1]);
@@ -47,4 +116,107 @@ public class Main {
         }
         System.exit(0);
     }
+
+    /**
+     * Checks if the terms are unifiable, prints the answer
+     * and exits with status 0 if they are and 2 if they are not.
+     *
+     * @param algorithm name of the unification algorithm
+     * @param term1 string representation of the first term
+     * @param term2 string representation of the second term
+     */
+    private static void check(String algorithm, String term1, String term2) {
+        UnificationStrategy strategy =
+                UnificationStrategyFactory.createInstance(algorithm);
+        boolean isUnifiable = strategy.isUnifiable(TermPair.fromStrings(term1, term2));
+        System.out.println(isUnifiable ? "unifiable" : "not unifiable");
+        System.exit(isUnifiable ? 0 : 2);
+    }
+
+    /**
+     * Unifies the pairs of the input on the worker threads and prints
+     * one line per pair in the order of the input: the unifier or
+     * {@code not unifiable}. Exits with status 0 if the whole input is
+     * processed and 1 if the arguments or the input are invalid.
+     *
+     * @param args command-line arguments that start with {@link #BATCH_FLAG}
+     */
+    private static void batch(String[] args) {
+        int next = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args[next].equals(THREADS_OPTION)) {
+            try {
+                threads = args.length > next + 1 ? Integer.parseInt(args[next + 1]) : 0;
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            next += 2;
+        }
+        if (threads <= 0 || args.length <= next || args.length > next + 2) {
+            System.err.println("Usage: " + BATCH_FLAG + " [" + THREADS_OPTION
+                    + " n] <algorithm> [file]");
+            System.exit(1);
+        }
+        UnificationStrategy strategy =
+                UnificationStrategyFactory.createInstance(args[next]);
+        String file = args.length > next + 1 ? args[next + 1] : STANDARD_INPUT;
+        TermPairReader reader;
+        try {
+            reader = file.equals(STANDARD_INPUT)
+                    ? TermPairReader.of(System.in)
+                    : TermPairReader.open(Path.of(file));
+        } catch (IOException | InvalidPathException e) {
+            // A file system exception has only the path as its message
+            String reason = e instanceof FileSystemException ? e.getClass().getSimpleName() : e.getMessage();
+            System.err.println("Cannot open " + file + ": " + reason);
+            System.exit(1);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        TermPrinter printer = new TermPrinter(System.out, false);
+        try (reader) {
+            // The lines are formatted by the workers, this thread only writes them
+            Iterator<String> lines = new BatchUnifier(strategy, pool)
+                    .unifyInOrder(reader, indexedResult -> formatBatchLine(indexedResult.result()))
+                    .iterator();
+            while (lines.hasNext()) {
+                printer.print(lines.next()).println();
+            }
+            printer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            // The results that are already printed are written out before the error
+            try {
+                printer.flush();
+            } catch (IOException ignored) {
+            }
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            pool.shutdown();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Formats the line of the batch output for the result: the
+     * domain of the unifier or {@code not unifiable}.
+     *
+     * @param result result of unification of a pair
+     * @return the line without the line separator
+     */
+    private static String formatBatchLine(UnificationResult result) {
+        if (!result.isUnifiable()) {
+            return "not unifiable";
+        }
+        StringWriter line = BATCH_LINE.get();
+        line.getBuffer().setLength(0);
+        try {
+            BATCH_LINE_PRINTER.get().print(result.unifier().domain()).flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return line.toString();
+    }
 }
@@ -0,0 +1,764 @@
+package index;
+
+import org.jetbrains.annotations.NotNull;
+import syntax.Constant;
+import syntax.SymbolTable;
+import syntax.Term;
+import syntax.TermStore;
+import syntax.TermWithArgs;
+import syntax.Variable;
+import unification.Substitution;
+import unification.VariableRenaming;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A substitution tree of first-order terms.
+ * <p>
+ * A stored term {@code t} is represented by the substitution
+ * {@code {*0 -> t}}, where {@code *0} is an indicator variable.
+ * Every node of the tree keeps a {@link Substitution} of indicator
+ * variables, and the composition of the substitutions on the path
+ * from the root to a leaf binds {@code *0} to the terms of the leaf.
+ * A node is the most specific common generalization of its children:
+ * the parts the children share are kept once, and the parts where
+ * they differ are replaced with new indicator variables that the
+ * children bind.
+ * <p>
+ * Terms are inserted one by one. A term descends into a child whose
+ * substitution generalizes it; if there is none, a child that shares
+ * some structure with it is split into the common generalization and
+ * the two remainders; otherwise the term becomes a new leaf.
+ * <p>
+ * A query is bound to {@code *0}, and the substitutions of the nodes
+ * are unified with the current bindings on the way down. The bindings
+ * are kept in the triangular form with a trail, so leaving a node
+ * undoes only the bindings of that node, and the unification of a node
+ * is shared by all the terms below it. When a leaf is reached, the
+ * bindings are the unifier of the query and the terms of the leaf.
+ * <p>
+ * Variables of the stored terms are renamed to {@code _0, _1, ...}
+ * in the order of their first occurrence, so terms that differ only
+ * in the names of their variables share a leaf, and these names appear
+ * in the unifiers. Variables of the query are considered distinct from
+ * the variables of the stored terms even if they have equal names.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class SubstitutionTree {
+    /**
+     * A prefix of the indicator variables
+     */
+    private static final String INDICATOR_PREFIX = "*";
+
+    /**
+     * Names of the indicator variables {@code *0, *1, ...} by their
+     * numbers. The names are interned once for all the trees, and every
+     * tree numbers its indicators from zero, so building and discarding
+     * trees does not add symbols to the global table.
+     */
+    @NotNull
+    private static volatile String[] indicatorNames = new String[0];
+
+    /**
+     * A prefix of the renamed variables of the stored terms
+     */
+    private static final String STORED_PREFIX = "_";
+
+    /**
+     * A prefix of the renamed variables of the query
+     */
+    private static final String QUERY_PREFIX = "?";
+
+    /**
+     * A store of the indicator variables and the renamed variables
+     * of the stored terms. Other terms of the tree are not interned:
+     * they are compared structurally with their cached hash codes, and
+     * the stored terms without variables are kept in the tree as is.
+     */
+    @NotNull
+    private final TermStore termStore = new TermStore();
+
+    /**
+     * Pairs of terms that are being compared on insertion
+     */
+    @NotNull
+    private final Deque<Term> termStack = new ArrayDeque<>();
+
+    /**
+     * An indicator variable that is bound to the stored terms
+     */
+    @NotNull
+    private final Term rootIndicator = termStore.variable(indicatorName(0));
+
+    /**
+     * A root of the tree, its substitution is empty
+     */
+    @NotNull
+    private final Node root = new Node(Map.of());
+
+    /**
+     * A number of indicator variables
+     */
+    private int indicatorCount = 1;
+
+    /**
+     * A number of stored terms
+     */
+    private int size = 0;
+
+    /**
+     * Adds the term to the tree.
+     *
+     * @param term a term
+     * @return false if an equal term is already stored
+     */
+    public boolean insert(@NotNull final Term term) {
+        Map<Term, Term> remainder = new LinkedHashMap<>();
+        remainder.put(rootIndicator, normalize(Objects.requireNonNull(term)));
+        Node node = root;
+        while (!remainder.isEmpty()) {
+            List<Node> candidates = node.candidates(remainder);
+            Node child = generalizingChild(candidates, remainder);
+            if (child == null) {
+                insertBelow(node, candidates, remainder, term);
+                size++;
+                return true;
+            }
+            remainder = instantiateIndicators(child, remainder);
+            node = child;
+        }
+        if (node.terms.contains(term)) {
+            return false;
+        }
+        node.addTerm(term);
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds all the terms to the tree.
+     *
+     * @param terms terms
+     * @return the number of added terms
+     */
+    public int insertAll(@NotNull final Iterable<Term> terms) {
+        int added = 0;
+        for (Term term : terms) {
+            if (insert(term)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Returns the number of stored terms.
+     *
+     * @return the number of stored terms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the stored terms that are unifiable with the query
+     * together with their unifiers. A unifier binds the variables
+     * of the query; its terms may contain the renamed variables of
+     * the stored term, so the query instantiated by the unifier is
+     * the common instance of the query and the stored term.
+     *
+     * @param query a query term
+     * @return the stored terms that are unifiable with the query
+     *         and the unifiers
+     */
+    @NotNull
+    public List<Answer> unifiable(@NotNull final Term query) {
+        return new Retrieval(Objects.requireNonNull(query)).run();
+    }
+
+    /**
+     * A stored term that is unifiable with a query.
+     *
+     * @param term the stored term
+     * @param unifier a unifier of the variables of the query
+     */
+    public record Answer(
+            @NotNull Term term,
+            @NotNull Substitution unifier
+    ) {
+    }
+
+    /**
+     * Returns the term with the variables renamed
+     * to {@code _0, _1, ...} in the order of their
+     * first occurrence. Subterms without variables are
+     * shared with the original term.
+     */
+    private Term normalize(Term term) {
+        return VariableRenaming.canonicalize(term, STORED_PREFIX).value();
+    }
+
+    /**
+     * Returns a candidate whose substitution generalizes
+     * the remainder or {@code null} if there is none.
+     */
+    private Node generalizingChild(List<Node> candidates, Map<Term, Term> remainder) {
+        for (Node child : candidates) {
+            if (generalizes(child, remainder)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if every binding of the child is equal to the
+     * binding of the remainder up to the indicator variables
+     * of the child.
+     */
+    private boolean generalizes(Node child, Map<Term, Term> remainder) {
+        Deque<Term> stack = termStack;
+        stack.clear();
+        for (Map.Entry<Term, Term> binding : child.substitution.domain().entrySet()) {
+            stack.push(remainder.get(binding.getKey()));
+            stack.push(binding.getValue());
+            while (!stack.isEmpty()) {
+                Term general = stack.pop();
+                Term special = stack.pop();
+                if (isIndicator(general) || general.equals(special)) {
+                    continue;
+                }
+                if (!sameFunctor(general, special)) {
+                    return false;
+                }
+                pushArgs(general, special, stack);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the remainder without the bindings of the child and with
+     * the bindings of the indicator variables introduced by the child.
+     * The child must generalize the remainder.
+     */
+    private Map<Term, Term> instantiateIndicators(Node child, Map<Term, Term> remainder) {
+        Map<Term, Term> result = new LinkedHashMap<>(remainder);
+        Deque<Term> stack = termStack;
+        stack.clear();
+        for (Map.Entry<Term, Term> binding : child.substitution.domain().entrySet()) {
+            stack.push(result.remove(binding.getKey()));
+            stack.push(binding.getValue());
+            while (!stack.isEmpty()) {
+                Term general = stack.pop();
+                Term special = stack.pop();
+                if (isIndicator(general)) {
+                    result.put(general, special);
+                } else if (!general.equals(special)) {
+                    pushArgs(general, special, stack);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds a leaf with the remainder below the node. If a child
+     * shares some structure with the remainder, the child is
+     * replaced with their common generalization, and the leaf
+     * and the rest of the child become its children.
+     */
+    private void insertBelow(Node node, List<Node> candidates, Map<Term, Term> remainder, Term term) {
+        if (candidates.isEmpty()) {
+            node.addChild(new Node(remainder, term));
+            return;
+        }
+        Node child = candidates.get(0);
+        node.removeChild(child);
+        node.addChild(split(child, remainder, term));
+    }
+
+    /**
+     * Splits the child into the common generalization of the
+     * child and the remainder, the rest of the child and
+     * a new leaf with the rest of the remainder.
+     *
+     * @return the node of the common generalization
+     */
+    private Node split(Node child, Map<Term, Term> remainder, Term term) {
+        Map<Term, Term> generalization = new LinkedHashMap<>();
+        Map<Term, Term> childRest = new LinkedHashMap<>();
+        Map<Term, Term> leafRest = new LinkedHashMap<>(remainder);
+        for (Map.Entry<Term, Term> binding : child.substitution.domain().entrySet()) {
+            Term indicator = binding.getKey();
+            Term special = remainder.get(indicator);
+            if (sameFunctor(binding.getValue(), special)) {
+                leafRest.remove(indicator);
+                generalization.put(indicator,
+                        generalize(binding.getValue(), special, childRest, leafRest));
+            } else {
+                childRest.put(indicator, binding.getValue());
+            }
+        }
+        child.substitution = Substitution.of(Map.copyOf(childRest));
+        Node node = new Node(generalization);
+        node.addChild(child);
+        node.addChild(new Node(leafRest, term));
+        return node;
+    }
+
+    /**
+     * Computes the most specific common generalization of a term
+     * of the child and a term of the remainder. Where they differ,
+     * a new indicator variable is introduced and bound in both rests;
+     * indicator variables of the child are kept and bound in the rest
+     * of the remainder.
+     */
+    private Term generalize(
+            Term general, Term special,
+            Map<Term, Term> childRest, Map<Term, Term> leafRest) {
+        Deque<Frame> frames = new ArrayDeque<>();
+        Term result = null;
+        frames.push(new Frame(general, special));
+        while (!frames.isEmpty()) {
+            Frame frame = frames.peek();
+            if (frame.args == null) {
+                frames.pop();
+                if (frame.general.equals(frame.special)) {
+                    result = frame.general;
+                } else if (isIndicator(frame.general)) {
+                    leafRest.put(frame.general, frame.special);
+                    result = frame.general;
+                } else if (!sameFunctor(frame.general, frame.special)) {
+                    Term indicator = termStore.variable(indicatorName(indicatorCount++));
+                    childRest.put(indicator, frame.general);
+                    leafRest.put(indicator, frame.special);
+                    result = indicator;
+                } else if (frame.general instanceof TermWithArgs) {
+                    frame.args = new ArrayList<>();
+                    frames.push(frame);
+                    continue;
+                } else {
+                    result = frame.general;
+                }
+            } else {
+                if (result != null) {
+                    frame.args.add(result);
+                    result = null;
+                }
+                List<Term> generalArgs = ((TermWithArgs) frame.general).getArgs();
+                int index = frame.args.size();
+                if (index < generalArgs.size()) {
+                    frames.push(new Frame(generalArgs.get(index),
+                            ((TermWithArgs) frame.special).getArgs().get(index)));
+                    continue;
+                }
+                frames.pop();
+                result = new TermWithArgs(frame.general.getName(), frame.args);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A pair of terms whose generalization is being built
+     */
+    private static final class Frame {
+        private final Term general;
+        private final Term special;
+        /**
+         * Generalizations of the arguments or {@code null}
+         * if the arguments are not visited yet
+         */
+        private List<Term> args = null;
+
+        private Frame(final Term general, final Term special) {
+            this.general = general;
+            this.special = special;
+        }
+    }
+
+    /**
+     * Returns the name of the indicator variable with the number,
+     * interning the names of the indicators up to it if they are new.
+     */
+    private static String indicatorName(int number) {
+        String[] names = indicatorNames;
+        if (number < names.length) {
+            return names[number];
+        }
+        synchronized (SubstitutionTree.class) {
+            names = indicatorNames;
+            if (number >= names.length) {
+                String[] newNames = Arrays.copyOf(names, Math.max(number + 1, Math.max(16, 2 * names.length)));
+                for (int i = names.length; i < newNames.length; i++) {
+                    newNames[i] = SymbolTable.global().name(SymbolTable.global().intern(INDICATOR_PREFIX + i));
+                }
+                indicatorNames = newNames;
+                names = newNames;
+            }
+            return names[number];
+        }
+    }
+
+    private static boolean isIndicator(Term term) {
+        return term instanceof Variable && term.getName().startsWith(INDICATOR_PREFIX);
+    }
+
+    /**
+     * Checks if the terms are equal at the top: both are the same
+     * leaf or both have the same functional symbol and arity.
+     */
+    private static boolean sameFunctor(Term term1, Term term2) {
+        if (term1.isLeafNode()) {
+            return term1.equals(term2);
+        }
+        return term1 instanceof TermWithArgs withArgs1
+                && term2 instanceof TermWithArgs withArgs2
+                && term1.nameEquals(term2)
+                && withArgs1.getArgs().size() == withArgs2.getArgs().size();
+    }
+
+    private static void pushArgs(Term term1, Term term2, Deque<Term> stack) {
+        List<Term> args1 = ((TermWithArgs) term1).getArgs();
+        List<Term> args2 = ((TermWithArgs) term2).getArgs();
+        for (int i = args1.size() - 1; i >= 0; i--) {
+            stack.push(args2.get(i));
+            stack.push(args1.get(i));
+        }
+    }
+
+    /**
+     * A key of a child: an indicator variable bound by the child
+     * and the functional symbol and arity of its binding. Leaves
+     * have arity 0 if they are constants and -1 if they are variables.
+     */
+    private record ChildKey(Term indicator, int symbol, int arity) {
+        private static ChildKey of(Term indicator, Term value) {
+            int arity = value instanceof TermWithArgs withArgs
+                    ? withArgs.getArgs().size()
+                    : value instanceof Variable ? -1 : 0;
+            return new ChildKey(indicator, value.getSymbol(), arity);
+        }
+    }
+
+    /**
+     * A node of the tree. Most of the nodes are leaves with one
+     * stored term, so the lists are allocated on demand.
+     */
+    private static final class Node {
+        /**
+         * Bindings of the indicator variables of the parent
+         */
+        private Substitution substitution;
+        /**
+         * Children of the node
+         */
+        private List<Node> children = List.of();
+        /**
+         * Stored terms of a leaf
+         */
+        private List<Term> terms = List.of();
+        /**
+         * Children by the keys of all their bindings, so the children
+         * that share structure with a remainder are found without
+         * a scan of the children
+         */
+        private Map<ChildKey, List<Node>> childIndex = null;
+
+        private Node(final Map<Term, Term> bindings) {
+            this.substitution = Substitution.of(Map.copyOf(bindings));
+        }
+
+        private Node(final Map<Term, Term> bindings, final Term term) {
+            this(bindings);
+            this.terms = List.of(term);
+        }
+
+        private void addChild(Node child) {
+            if (children.isEmpty()) {
+                children = new ArrayList<>(2);
+                childIndex = new HashMap<>();
+            }
+            children.add(child);
+            for (Map.Entry<Term, Term> binding : child.substitution.domain().entrySet()) {
+                childIndex.computeIfAbsent(
+                        ChildKey.of(binding.getKey(), binding.getValue()),
+                        key -> new ArrayList<>(1)).add(child);
+            }
+        }
+
+        /**
+         * Removes the child. The bindings of the child
+         * must not be changed since it was added.
+         */
+        private void removeChild(Node child) {
+            children.remove(child);
+            for (Map.Entry<Term, Term> binding : child.substitution.domain().entrySet()) {
+                ChildKey key = ChildKey.of(binding.getKey(), binding.getValue());
+                List<Node> keyChildren = childIndex.get(key);
+                keyChildren.remove(child);
+                if (keyChildren.isEmpty()) {
+                    childIndex.remove(key);
+                }
+            }
+        }
+
+        /**
+         * Returns the children that share some structure
+         * with the remainder.
+         */
+        private List<Node> candidates(Map<Term, Term> remainder) {
+            if (childIndex == null) {
+                return List.of();
+            }
+            List<Node> candidates = new ArrayList<>();
+            for (Map.Entry<Term, Term> binding : remainder.entrySet()) {
+                List<Node> keyChildren = childIndex.get(ChildKey.of(binding.getKey(), binding.getValue()));
+                if (keyChildren != null) {
+                    candidates.addAll(keyChildren);
+                }
+            }
+            return candidates;
+        }
+
+        private void addTerm(Term term) {
+            if (terms.size() == 1) {
+                terms = new ArrayList<>(terms);
+            }
+            terms.add(term);
+        }
+    }
+
+    /**
+     * State of one query
+     */
+    private final class Retrieval {
+        /**
+         * Bindings of the variables in the triangular form
+         */
+        private final Map<Term, Term> bindings = new HashMap<>();
+        /**
+         * Variables in the order they are bound
+         */
+        private final List<Term> trail = new ArrayList<>();
+        /**
+         * Pairs of terms to be unified
+         */
+        private final Deque<Term> termStack = new ArrayDeque<>();
+        /**
+         * Nodes visited by the occurs check
+         */
+        private final Set<Term> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        /**
+         * Renamed variables of the query and the original ones
+         */
+        private final Map<Term, Term> originalVariables = new LinkedHashMap<>();
+        /**
+         * The query with the renamed variables
+         */
+        private final Term query;
+        /**
+         * Found answers
+         */
+        private final List<Answer> answers = new ArrayList<>();
+
+        private Retrieval(final Term query) {
+            VariableRenaming.Renamed<Term> renamed = VariableRenaming.canonicalize(query, QUERY_PREFIX);
+            this.originalVariables.putAll(renamed.inverse());
+            this.query = renamed.value();
+        }
+
+        /**
+         * Visits the tree depth first. A node is entered if its
+         * substitution is unifiable with the current bindings;
+         * its bindings are undone after its subtree is visited.
+         */
+        private List<Answer> run() {
+            if (root.children.isEmpty()) {
+                return answers;
+            }
+            bind(rootIndicator, query);
+            Deque<Visit> visits = new ArrayDeque<>();
+            visits.push(new Visit(root, trail.size()));
+            while (!visits.isEmpty()) {
+                Visit visit = visits.peek();
+                if (visit.next == visit.node.children.size()) {
+                    visits.pop();
+                    undo(visit.mark);
+                    continue;
+                }
+                Node child = visit.node.children.get(visit.next++);
+                int mark = trail.size();
+                if (!unify(child.substitution)) {
+                    undo(mark);
+                    continue;
+                }
+                if (!child.terms.isEmpty()) {
+                    Substitution unifier = answer();
+                    for (Term term : child.terms) {
+                        answers.add(new Answer(term, unifier));
+                    }
+                }
+                visits.push(new Visit(child, mark));
+            }
+            return answers;
+        }
+
+        /**
+         * Builds the unifier of the variables of the
+         * query from the current bindings.
+         */
+        private Substitution answer() {
+            if (originalVariables.isEmpty()) {
+                return Substitution.identity();
+            }
+            Substitution resolved = Substitution.fromTriangularForm(bindings);
+            Substitution restore = Substitution.of(originalVariables);
+            Map<Term, Term> domain = new LinkedHashMap<>();
+            for (Map.Entry<Term, Term> variable : originalVariables.entrySet()) {
+                Term value = restore.instantiateVariables(resolved.getBinding(variable.getKey()));
+                if (!value.equals(variable.getValue())) {
+                    domain.put(variable.getValue(), value);
+                }
+            }
+            return Substitution.of(domain);
+        }
+
+        private boolean unify(Substitution substitution) {
+            for (Map.Entry<Term, Term> binding : substitution.domain().entrySet()) {
+                if (!unify(binding.getKey(), binding.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Unifies the terms under the current bindings,
+         * adding new bindings to the trail.
+         *
+         * @return false if the terms are not unifiable
+         */
+        private boolean unify(Term term1, Term term2) {
+            termStack.clear();
+            termStack.push(term1);
+            termStack.push(term2);
+            while (!termStack.isEmpty()) {
+                Term current2 = dereference(termStack.pop());
+                Term current1 = dereference(termStack.pop());
+                if (current1 == current2) {
+                    continue;
+                }
+                if (!(current1 instanceof Variable) && current2 instanceof Variable) {
+                    Term swap = current1;
+                    current1 = current2;
+                    current2 = swap;
+                }
+                if (current1 instanceof Variable) {
+                    if (current1.equals(current2)) {
+                        continue;
+                    }
+                    if (occurs(current1, current2)) {
+                        return false;
+                    }
+                    bind(current1, current2);
+                } else if (current1 instanceof TermWithArgs withArgs1
+                        && current2 instanceof TermWithArgs withArgs2) {
+                    if (!sameFunctor(current1, current2)) {
+                        return false;
+                    }
+                    List<Term> args1 = withArgs1.getArgs();
+                    List<Term> args2 = withArgs2.getArgs();
+                    for (int i = args1.size() - 1; i >= 0; i--) {
+                        termStack.push(args1.get(i));
+                        termStack.push(args2.get(i));
+                    }
+                } else if (!(current1 instanceof Constant)
+                        || !(current2 instanceof Constant)
+                        || !current1.nameEquals(current2)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean occurs(Term variable, Term term) {
+            if (!(term instanceof TermWithArgs)) {
+                return false;
+            }
+            visited.clear();
+            Deque<Term> stack = new ArrayDeque<>();
+            stack.push(term);
+            while (!stack.isEmpty()) {
+                Term current = dereference(stack.pop());
+                if (current.equals(variable)) {
+                    return true;
+                }
+                if (current instanceof TermWithArgs withArgs && visited.add(current)) {
+                    for (Term arg : withArgs.getArgs()) {
+                        stack.push(arg);
+                    }
+                }
+            }
+            return false;
+        }
+
+        private Term dereference(Term term) {
+            while (term instanceof Variable) {
+                Term binding = bindings.get(term);
+                if (binding == null) {
+                    return term;
+                }
+                term = binding;
+            }
+            return term;
+        }
+
+        private void bind(Term variable, Term term) {
+            bindings.put(variable, term);
+            trail.add(variable);
+        }
+
+        /**
+         * Removes the bindings that are added after the mark.
+         */
+        private void undo(int mark) {
+            for (int i = trail.size() - 1; i >= mark; i--) {
+                bindings.remove(trail.remove(i));
+            }
+        }
+    }
+
+    /**
+     * A node whose children are being visited
+     */
+    private static final class Visit {
+        private final Node node;
+        /**
+         * A size of the trail before the node was entered
+         */
+        private final int mark;
+        /**
+         * Index of the next child
+         */
+        private int next = 0;
+
+        private Visit(final Node node, final int mark) {
+            this.node = node;
+            this.mark = mark;
+        }
+    }
+}
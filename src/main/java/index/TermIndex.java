@@ -0,0 +1,391 @@
+package index;
+
+import org.jetbrains.annotations.NotNull;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermStore;
+import syntax.TermWithArgs;
+import syntax.Traversal;
+import syntax.Variable;
+import unification.HuetUnificationStrategy;
+import unification.MatchingStrategy;
+import unification.SyntacticMatchingStrategy;
+import unification.UnificationContext;
+import unification.UnificationStrategy;
+import unification.VariableRenaming;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A discrimination tree of first-order terms.
+ * <p>
+ * Every stored term is turned into the sequence of its nodes in the
+ * pre-order of {@link Term#iterator()}. A node is keyed by its symbol
+ * and arity, and all the variables share one key, so the sequence is
+ * a path in a trie whose leaves hold the stored terms. Terms that
+ * differ only in the names of their variables end in the same leaf.
+ * <p>
+ * A query walks the trie along its own pre-order sequence. Where the
+ * query has a variable, a whole subterm of the stored terms is skipped
+ * with the arities of the keys; where the stored terms have a variable,
+ * a whole subterm of the query is skipped. Repeated variables are not
+ * taken into account by the walk, so every candidate is confirmed: a
+ * unifiable candidate by the unification strategy of the index, an
+ * instance or a generalization by syntactic matching.
+ * <p>
+ * Stored terms are interned in a store of their own, so repeated
+ * subterms and variables of one term are shared. Variables of the query
+ * are renamed apart from the variables of the stored terms before the
+ * query is unified with a candidate.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class TermIndex {
+    /**
+     * A kind of the query
+     */
+    private enum Query {
+        /**
+         * Stored terms that are unifiable with the query
+         */
+        UNIFIABLE,
+        /**
+         * Stored terms that are instances of the query
+         */
+        INSTANCES,
+        /**
+         * Stored terms that are generalizations of the query
+         */
+        GENERALIZATIONS
+    }
+
+    /**
+     * A strategy that confirms unifiable candidates
+     */
+    @NotNull
+    private final UnificationStrategy strategy;
+
+    /**
+     * A strategy that confirms instances and generalizations
+     */
+    @NotNull
+    private final MatchingStrategy matchingStrategy = new SyntacticMatchingStrategy();
+
+    /**
+     * A root of the trie
+     */
+    @NotNull
+    private final Node root = new Node();
+
+    /**
+     * Numbers of occurrences of the variables in the stored terms.
+     * Variables of the query are renamed apart from these.
+     */
+    @NotNull
+    private final Map<Term, int[]> variableCounts = new HashMap<>();
+
+    /**
+     * A number of stored terms
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty index that confirms unifiable
+     * candidates with Huet's algorithm.
+     */
+    public TermIndex() {
+        this(new HuetUnificationStrategy());
+    }
+
+    /**
+     * Creates an empty index that confirms unifiable
+     * candidates with the provided strategy.
+     *
+     * @param strategy a unification strategy
+     */
+    public TermIndex(@NotNull final UnificationStrategy strategy) {
+        this.strategy = Objects.requireNonNull(strategy);
+    }
+
+    /**
+     * Adds the term to the index.
+     *
+     * @param term a term
+     * @return false if an equal term is already stored
+     */
+    public boolean insert(@NotNull final Term term) {
+        Node node = root;
+        for (Term current : Objects.requireNonNull(term)) {
+            node = node.child(current);
+        }
+        if (node.values.contains(term)) {
+            return false;
+        }
+        Term stored = new TermStore().intern(term);
+        node.values.add(stored);
+        for (Term variable : variablesOf(stored)) {
+            variableCounts.computeIfAbsent(variable, key -> new int[1])[0]++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the term from the index. Nodes of the trie
+     * that are left empty are removed as well.
+     *
+     * @param term a term
+     * @return false if no equal term is stored
+     */
+    public boolean remove(@NotNull final Term term) {
+        List<Node> path = new ArrayList<>();
+        List<Long> keys = new ArrayList<>();
+        Node node = root;
+        for (Term current : Objects.requireNonNull(term)) {
+            path.add(node);
+            keys.add(key(current));
+            node = current instanceof Variable ? node.star : node.children.get(key(current));
+            if (node == null) {
+                return false;
+            }
+        }
+        int index = node.values.indexOf(term);
+        if (index < 0) {
+            return false;
+        }
+        Term stored = node.values.remove(index);
+        for (Term variable : variablesOf(stored)) {
+            int[] count = variableCounts.get(variable);
+            if (--count[0] == 0) {
+                variableCounts.remove(variable);
+            }
+        }
+        for (int i = path.size() - 1; i >= 0 && node.isEmpty(); i--) {
+            Node parent = path.get(i);
+            if (parent.star == node) {
+                parent.star = null;
+            } else {
+                parent.children.remove(keys.get(i));
+            }
+            node = parent;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of stored terms.
+     *
+     * @return the number of stored terms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the stored terms that are unifiable with the query.
+     * Variables of the query and of the stored terms are considered
+     * distinct even if they have equal names.
+     *
+     * @param query a query term
+     * @return the stored terms that are unifiable with the query
+     */
+    @NotNull
+    public List<Term> unifiable(@NotNull final Term query) {
+        List<Term> candidates = candidates(query, Query.UNIFIABLE);
+        List<Term> result = new ArrayList<>();
+        if (candidates.isEmpty()) {
+            return result;
+        }
+        // Renamed, so the variables of the query differ from the stored ones
+        Term renamed = VariableRenaming.renameApart(query, variableCounts::containsKey).value();
+        try (UnificationContext context = UnificationContext.acquire()) {
+            for (Term candidate : candidates) {
+                if (strategy.isUnifiable(new TermPair(renamed, candidate), context)) {
+                    result.add(candidate);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the stored terms that are instances of the query,
+     * i.e. the terms the query matches.
+     *
+     * @param query a query term
+     * @return the stored terms that are instances of the query
+     */
+    @NotNull
+    public List<Term> instances(@NotNull final Term query) {
+        List<Term> result = new ArrayList<>();
+        try (UnificationContext context = UnificationContext.acquire()) {
+            for (Term candidate : candidates(query, Query.INSTANCES)) {
+                if (matchingStrategy.match(query, candidate, context) != null) {
+                    result.add(candidate);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the stored terms that are generalizations of the
+     * query, i.e. the terms that match the query.
+     *
+     * @param query a query term
+     * @return the stored terms that are generalizations of the query
+     */
+    @NotNull
+    public List<Term> generalizations(@NotNull final Term query) {
+        List<Term> result = new ArrayList<>();
+        try (UnificationContext context = UnificationContext.acquire()) {
+            for (Term candidate : candidates(query, Query.GENERALIZATIONS)) {
+                if (matchingStrategy.match(candidate, query, context) != null) {
+                    result.add(candidate);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walks the trie along the query and collects the terms
+     * of the reached leaves.
+     */
+    private List<Term> candidates(Term query, Query kind) {
+        List<Term> nodes = new ArrayList<>();
+        for (Term current : Objects.requireNonNull(query)) {
+            nodes.add(current);
+        }
+        // skipEnd[i] is the position that follows the subterm at position i
+        int[] skipEnd = new int[nodes.size()];
+        for (int i = 0; i < skipEnd.length; i++) {
+            skipEnd[i] = i + (int) nodes.get(i).size();
+        }
+        List<Term> result = new ArrayList<>();
+        Deque<State> states = new ArrayDeque<>();
+        states.push(new State(root, 0, 0));
+        while (!states.isEmpty()) {
+            State state = states.pop();
+            Node node = state.node;
+            int position = state.position;
+            if (state.skip > 0) {
+                if (node.star != null) {
+                    states.push(new State(node.star, position, state.skip - 1));
+                }
+                for (Map.Entry<Long, Node> entry : node.children.entrySet()) {
+                    states.push(new State(
+                            entry.getValue(), position, state.skip - 1 + arity(entry.getKey())));
+                }
+                continue;
+            }
+            if (position == skipEnd.length) {
+                result.addAll(node.values);
+                continue;
+            }
+            Term current = nodes.get(position);
+            if (current instanceof Variable) {
+                if (kind == Query.GENERALIZATIONS) {
+                    if (node.star != null) {
+                        states.push(new State(node.star, position + 1, 0));
+                    }
+                } else {
+                    states.push(new State(node, position + 1, 1));
+                }
+                continue;
+            }
+            Node child = node.children.get(key(current));
+            if (child != null) {
+                states.push(new State(child, position + 1, 0));
+            }
+            if (kind != Query.INSTANCES && node.star != null) {
+                states.push(new State(node.star, skipEnd[position], 0));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the distinct variables of the term.
+     */
+    private static Set<Term> variablesOf(Term term) {
+        Set<Term> variables = new HashSet<>();
+        Iterator<Term> iterator = term.iterator(Traversal.DAG);
+        while (iterator.hasNext()) {
+            Term current = iterator.next();
+            if (current instanceof Variable) {
+                variables.add(current);
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Returns the key of a non-variable node:
+     * its arity in the high half and its symbol
+     * in the low half.
+     */
+    private static long key(Term term) {
+        int arity = term instanceof TermWithArgs termWithArgs ? termWithArgs.getArgs().size() : 0;
+        return (long) arity << 32 | term.getSymbol() & 0xFFFFFFFFL;
+    }
+
+    private static int arity(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * A node of the trie
+     */
+    private static final class Node {
+        /**
+         * Children keyed by the symbols and arities
+         * of the non-variable nodes
+         */
+        private final Map<Long, Node> children = new HashMap<>(2);
+        /**
+         * A child of the variable nodes or {@code null}
+         */
+        private Node star = null;
+        /**
+         * Terms whose sequences end in this node
+         */
+        private final List<Term> values = new ArrayList<>(1);
+
+        /**
+         * Returns the child of the node of a term,
+         * creating it if there is none.
+         */
+        private Node child(Term term) {
+            if (term instanceof Variable) {
+                if (star == null) {
+                    star = new Node();
+                }
+                return star;
+            }
+            return children.computeIfAbsent(key(term), key -> new Node());
+        }
+
+        private boolean isEmpty() {
+            return star == null && children.isEmpty() && values.isEmpty();
+        }
+    }
+
+    /**
+     * A state of the walk: a node of the trie, a position in
+     * the pre-order sequence of the query, and a number of
+     * stored subterms that are still to be skipped
+     */
+    private record State(Node node, int position, int skip) {
+    }
+}
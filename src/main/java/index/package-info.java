@@ -0,0 +1,6 @@
+/**
+ * This package contains indexes that retrieve terms
+ * of a large set which are unifiable with a query term,
+ * are its instances or its generalizations
+ */
+package index;
@@ -2,8 +2,6 @@ package syntax;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Objects;
-
 /**
  * A representation of a constant term
  */
@@ -16,6 +14,14 @@ public final class Constant extends Term {
         super(name);
     }
 
+    /**
+     * Creates a constant term node with provided symbol.
+     * @param symbol id of the name of the constant
+     */
+    Constant(final int symbol) {
+        super(symbol);
+    }
+
     @Override
     protected @NotNull StringBuilder constructTermString(@NotNull StringBuilder sb) {
         return sb.append(getName());
@@ -26,9 +32,24 @@ public final class Constant extends Term {
         return true;
     }
 
+    @Override
+    public long size() {
+        return 1;
+    }
+
+    @Override
+    public int depth() {
+        return 1;
+    }
+
+    @Override
+    public long variableMask() {
+        return 0;
+    }
+
     @Override
     public int hashCode() {
-        return getName().hashCode();
+        return getSymbol();
     }
 
     @Override
@@ -36,7 +57,7 @@ public final class Constant extends Term {
         if (this == obj)
             return true;
         if (obj instanceof Constant constant) {
-            return Objects.equals(this.getName(), constant.getName());
+            return getSymbol() == constant.getSymbol();
         }
         return false;
     }
@@ -3,10 +3,13 @@ package syntax;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
 
 /**
  * This class provides an ability to iterate over nodes
@@ -23,6 +26,12 @@ public class FunctionalSymbolFirstTermIterator implements Iterator<Term> {
 
     private final Queue<Term> varQueue = new ArrayDeque<>();
 
+    /**
+     * Already queued nodes or {@code null} if
+     * shared nodes are visited at every occurrence
+     */
+    private final Set<Term> queued;
+
     /**
      * Creates a new term iterator with provided root of the
      * syntax tree.
@@ -31,13 +40,60 @@ public class FunctionalSymbolFirstTermIterator implements Iterator<Term> {
      */
     public FunctionalSymbolFirstTermIterator(
             final @NotNull Term root) {
-        nodeQueue.add(Objects.requireNonNull(root));
+        this(root, Traversal.TREE);
+    }
+
+    /**
+     * Creates a new term iterator with provided root
+     * and a way to visit the shared nodes.
+     *
+     * @param root root node of the term
+     * @param traversal a way to visit the shared nodes
+     */
+    public FunctionalSymbolFirstTermIterator(
+            final @NotNull Term root,
+            final @NotNull Traversal traversal) {
+        queued = newQueuedSet(traversal);
+        enqueue(Objects.requireNonNull(root));
     }
 
     public FunctionalSymbolFirstTermIterator(
             final @NotNull TermPair termPair) {
-        nodeQueue.add(Objects.requireNonNull(termPair.term1()));
-        nodeQueue.add(Objects.requireNonNull(termPair.term2()));
+        this(termPair, Traversal.TREE);
+    }
+
+    /**
+     * Creates a new iterator over the nodes of both terms of the
+     * pair with provided way to visit the shared nodes. With
+     * {@link Traversal#DAG}, a node shared by the terms is visited once.
+     *
+     * @param termPair a pair of terms
+     * @param traversal a way to visit the shared nodes
+     */
+    public FunctionalSymbolFirstTermIterator(
+            final @NotNull TermPair termPair,
+            final @NotNull Traversal traversal) {
+        queued = newQueuedSet(traversal);
+        enqueue(Objects.requireNonNull(termPair.term1()));
+        enqueue(Objects.requireNonNull(termPair.term2()));
+    }
+
+    private static Set<Term> newQueuedSet(Traversal traversal) {
+        return traversal == Traversal.DAG
+                ? Collections.newSetFromMap(new IdentityHashMap<>())
+                : null;
+    }
+
+    /**
+     * Adds the node to the queue unless it is already
+     * queued and shared nodes are visited once. The queue
+     * is breadth-first, so the first occurrence of a node
+     * is the one that is queued first.
+     */
+    private void enqueue(Term term) {
+        if (queued == null || queued.add(term)) {
+            nodeQueue.add(term);
+        }
     }
 
     @Override
@@ -48,7 +104,9 @@ public class FunctionalSymbolFirstTermIterator implements Iterator<Term> {
     private Term nextInternal() {
         Term currentTerm = nodeQueue.remove();
         if (currentTerm instanceof TermWithArgs currentTermWithArgs) {
-            nodeQueue.addAll(currentTermWithArgs.getArgs());
+            for (Term arg : currentTermWithArgs.getArgs()) {
+                enqueue(arg);
+            }
         }
         return currentTerm;
     }
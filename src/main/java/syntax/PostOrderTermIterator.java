@@ -0,0 +1,116 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+import util.IntStack;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class provides an ability to iterate over nodes of
+ * a term DAG in post-order: every node is visited after all
+ * its children. A node that is shared by several parents is
+ * visited once, so the traversal takes time linear in the
+ * size of the DAG. Nodes are compared by identity.
+ */
+public final class PostOrderTermIterator implements Iterator<Term> {
+    /**
+     * Roots that are not entered yet
+     */
+    private final Deque<Term> roots = new ArrayDeque<>();
+    /**
+     * Nodes on the path from the current root
+     */
+    private final Deque<Term> nodeStack = new ArrayDeque<>();
+    /**
+     * Indices of the next children of the nodes on the path
+     */
+    private final IntStack argIndices = new IntStack();
+    /**
+     * Already entered nodes
+     */
+    private final Set<Term> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * The next node or {@code null} if it is not found yet
+     */
+    private Term nextTerm;
+
+    /**
+     * Creates a new iterator over the nodes of the term.
+     *
+     * @param root root node of the term
+     */
+    public PostOrderTermIterator(final @NotNull Term root) {
+        roots.add(Objects.requireNonNull(root));
+    }
+
+    /**
+     * Creates a new iterator over the nodes of both terms of the
+     * pair. The nodes of the first term are visited first, and
+     * a node shared by the terms is visited once.
+     *
+     * @param termPair a pair of terms
+     */
+    public PostOrderTermIterator(final @NotNull TermPair termPair) {
+        roots.add(Objects.requireNonNull(termPair.term1()));
+        roots.add(Objects.requireNonNull(termPair.term2()));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextTerm == null) {
+            nextTerm = advance();
+        }
+        return nextTerm != null;
+    }
+
+    @Override
+    public Term next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Term result = nextTerm;
+        nextTerm = null;
+        return result;
+    }
+
+    /**
+     * Descends to the first child that is not entered yet
+     * and returns the node whose children are all visited.
+     *
+     * @return the next node or {@code null} if all nodes are visited
+     */
+    private Term advance() {
+        while (true) {
+            if (nodeStack.isEmpty()) {
+                if (roots.isEmpty()) {
+                    return null;
+                }
+                enter(roots.remove());
+                continue;
+            }
+            Term term = nodeStack.peek();
+            int argIndex = argIndices.pop();
+            if (term instanceof TermWithArgs termWithArgs
+                    && argIndex < termWithArgs.getArgs().size()) {
+                argIndices.push(argIndex + 1);
+                enter(termWithArgs.getArgs().get(argIndex));
+                continue;
+            }
+            return nodeStack.pop();
+        }
+    }
+
+    private void enter(Term term) {
+        if (visited.add(term)) {
+            nodeStack.push(term);
+            argIndices.push(0);
+        }
+    }
+}
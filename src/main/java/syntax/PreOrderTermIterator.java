@@ -3,12 +3,14 @@ package syntax;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * This class provides an ability to iterate over nodes
@@ -22,13 +24,10 @@ final class PreOrderTermIterator implements Iterator<Term> {
      */
     private final Deque<Term> nodeStack = new ArrayDeque<>();
     /**
-     * A current term
+     * Already visited nodes or {@code null} if
+     * shared nodes are visited at every occurrence
      */
-    private Term currentTerm;
-    /**
-     * A flag that determines if iterator is not yet accessed
-     */
-    private boolean firstTime = true;
+    private final Set<Term> visited;
 
     /**
      * Creates a new term iterator with provided root of the
@@ -38,33 +37,51 @@ final class PreOrderTermIterator implements Iterator<Term> {
      */
     public PreOrderTermIterator(
             final @NotNull Term root) {
-        currentTerm = Objects.requireNonNull(root);
+        this(root, Traversal.TREE);
+    }
+
+    /**
+     * Creates a new term iterator with provided root
+     * and a way to visit the shared nodes.
+     *
+     * @param root root node of the term
+     * @param traversal a way to visit the shared nodes
+     */
+    public PreOrderTermIterator(
+            final @NotNull Term root,
+            final @NotNull Traversal traversal) {
+        nodeStack.push(Objects.requireNonNull(root));
+        visited = traversal == Traversal.DAG
+                ? Collections.newSetFromMap(new IdentityHashMap<>())
+                : null;
     }
 
     @Override
     public boolean hasNext() {
-        return firstTime || !currentTerm.isLeafNode() || !nodeStack.isEmpty();
+        if (visited != null) {
+            // A node may be pushed by several parents before it is visited
+            while (!nodeStack.isEmpty() && visited.contains(nodeStack.peek())) {
+                nodeStack.pop();
+            }
+        }
+        return !nodeStack.isEmpty();
     }
 
     @Override
     public Term next() {
-        if (firstTime) {
-            firstTime = false;
-            return currentTerm;
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Term currentTerm = nodeStack.pop();
+        if (visited != null) {
+            visited.add(currentTerm);
         }
         if (currentTerm instanceof TermWithArgs currentTermWithArgs) {
             List<Term> children = currentTermWithArgs.getArgs();
-            ListIterator<Term> iterator =
-                    children.listIterator(children.size());
-            while (iterator.hasPrevious()) {
-                Term childTerm = iterator.previous();
-                nodeStack.push(childTerm);
+            for (int i = children.size() - 1; i >= 0; i--) {
+                nodeStack.push(children.get(i));
             }
         }
-        if (nodeStack.isEmpty()) {
-            throw new NoSuchElementException();
-        }
-        currentTerm = nodeStack.pop();
         return currentTerm;
     }
 }
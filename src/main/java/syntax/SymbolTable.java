@@ -0,0 +1,263 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A table that maps names of variables, constants and
+ * functional symbols to dense integer ids.
+ * <p>
+ * Every name is stored once, so terms with equal names share
+ * the same {@code String} instance and can compare their names
+ * by ids. Names can be looked up directly from a character buffer,
+ * so the tokenizer does not allocate a string for a name that
+ * is already in the table.
+ * <p>
+ * This class is thread-safe. Lookups of the names that are already
+ * in the table do not acquire a lock.
+ * <p>
+ * Names are never removed: terms refer to their names by ids, so an
+ * id must stay valid for as long as a term may use it. The table,
+ * and the {@link #global() global} one in particular, grows with the
+ * number of distinct names ever added and is not bounded. A process
+ * that reads an unbounded number of distinct names, e.g. fresh
+ * variables {@code x<n>} generated per input, keeps all of them
+ * in memory for its lifetime.
+ */
+public final class SymbolTable {
+    /**
+     * A table that is shared by all the terms
+     */
+    @NotNull
+    private static final SymbolTable GLOBAL = new SymbolTable();
+
+    /**
+     * Open addressing hash table of the entries. Entries are
+     * inserted under the lock, into this array or into a larger
+     * copy that then replaces it. Readers scan the array without
+     * the lock: an {@link Entry} is immutable, so it is safely
+     * published and a reader either sees it whole or sees an empty
+     * slot, and a reader that misses a new entry retries under the
+     * lock in {@link #add}.
+     */
+    @NotNull
+    private volatile Entry[] entries = new Entry[64];
+
+    /**
+     * Names by their ids
+     */
+    @NotNull
+    private volatile String[] names = new String[32];
+
+    /**
+     * A number of names in the table
+     */
+    private int size = 0;
+
+    /**
+     * Returns the table that is shared by all the terms.
+     *
+     * @return the global symbol table
+     */
+    @NotNull
+    public static SymbolTable global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the id of the provided name. If there is no such
+     * name in the table, it is added to the table.
+     *
+     * @param name a name
+     * @return the id of the name
+     */
+    public int intern(@NotNull final CharSequence name) {
+        Objects.requireNonNull(name);
+        int hash = name instanceof String string ? string.hashCode() : hash(name, 0, name.length());
+        Entry entry = find(entries, name, 0, name.length(), hash);
+        return entry != null ? entry.id : add(name, 0, name.length(), hash);
+    }
+
+    /**
+     * Returns the id of the name that is stored in the provided
+     * range of the array. If there is no such name in the table,
+     * it is added to the table.
+     *
+     * @param chars an array that contains the name
+     * @param offset index of the first character of the name
+     * @param length length of the name
+     * @return the id of the name
+     */
+    public int intern(@NotNull final char[] chars, final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, length, chars.length);
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        Entry[] currentEntries = entries;
+        int mask = currentEntries.length - 1;
+        int index = spread(hash) & mask;
+        Entry entry;
+        while ((entry = currentEntries[index]) != null) {
+            if (entry.hash == hash && entry.matches(chars, offset, length)) {
+                return entry.id;
+            }
+            index = (index + 1) & mask;
+        }
+        return add(new String(chars, offset, length), 0, length, hash);
+    }
+
+    /**
+     * Returns the id of the name that is stored in the provided
+     * range of the character sequence. If there is no such name
+     * in the table, it is added to the table.
+     *
+     * @param chars a character sequence that contains the name
+     * @param start index of the first character of the name
+     * @param end index after the last character of the name
+     * @return the id of the name
+     */
+    public int intern(@NotNull final CharSequence chars, final int start, final int end) {
+        Objects.checkFromToIndex(start, end, chars.length());
+        int hash = hash(chars, start, end);
+        Entry entry = find(entries, chars, start, end, hash);
+        return entry != null ? entry.id : add(chars, start, end, hash);
+    }
+
+    /**
+     * Returns the name with provided id.
+     *
+     * @param id id of the name
+     * @return the name
+     * @throws IllegalArgumentException if there is no name with provided id
+     */
+    @NotNull
+    public String name(final int id) {
+        String[] currentNames = names;
+        if (id >= 0 && id < currentNames.length && currentNames[id] != null) {
+            return currentNames[id];
+        }
+        synchronized (this) {
+            if (id < 0 || id >= size) {
+                throw new IllegalArgumentException(String.format("Invalid symbol id %d", id));
+            }
+            return names[id];
+        }
+    }
+
+    /**
+     * Returns the number of names in this table.
+     *
+     * @return the number of names
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Adds a name to the table if it is not added yet.
+     *
+     * @return the id of the name
+     */
+    private synchronized int add(CharSequence chars, int start, int end, int hash) {
+        Entry[] currentEntries = entries;
+        Entry entry = find(currentEntries, chars, start, end, hash);
+        if (entry != null) {
+            return entry.id;
+        }
+        if (2 * (size + 1) > currentEntries.length) {
+            currentEntries = rehash(currentEntries);
+        }
+        String name = chars.subSequence(start, end).toString();
+        if (size == names.length) {
+            names = Arrays.copyOf(names, 2 * size);
+        }
+        names[size] = name;
+        insert(currentEntries, new Entry(name, hash, size));
+        entries = currentEntries;
+        return size++;
+    }
+
+    private static Entry[] rehash(Entry[] oldEntries) {
+        Entry[] newEntries = new Entry[2 * oldEntries.length];
+        for (Entry entry : oldEntries) {
+            if (entry != null) {
+                insert(newEntries, entry);
+            }
+        }
+        return newEntries;
+    }
+
+    private static void insert(Entry[] entries, Entry entry) {
+        int mask = entries.length - 1;
+        int index = spread(entry.hash) & mask;
+        while (entries[index] != null) {
+            index = (index + 1) & mask;
+        }
+        entries[index] = entry;
+    }
+
+    private static Entry find(Entry[] entries, CharSequence chars, int start, int end, int hash) {
+        int mask = entries.length - 1;
+        int index = spread(hash) & mask;
+        Entry entry;
+        while ((entry = entries[index]) != null) {
+            if (entry.hash == hash && entry.matches(chars, start, end)) {
+                return entry;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Computes the same hash code as {@link String#hashCode()}
+     * of the provided range of characters.
+     */
+    private static int hash(CharSequence chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * An entry of the hash table
+     *
+     * @param name the stored name
+     * @param hash hash code of the name
+     * @param id id of the name
+     */
+    private record Entry(String name, int hash, int id) {
+        boolean matches(char[] chars, int offset, int length) {
+            if (name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name.charAt(i) != chars[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean matches(CharSequence chars, int start, int end) {
+            if (name.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) != chars.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -2,9 +2,7 @@ package syntax;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.text.StringCharacterIterator;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -12,6 +10,10 @@ import java.util.Objects;
 /**
  * A node of first-order term syntax tree.
  * It is identified by its name and type.
+ * <p>
+ * Terms are immutable and may be shared between threads. A node does
+ * not know its parents: strategies that need the parent links build
+ * them for the terms of one problem, see {@link TermArena}.
  */
 public abstract class Term implements Iterable<Term> {
     /**
@@ -26,15 +28,29 @@ public abstract class Term implements Iterable<Term> {
     @NotNull
     static Term fromToken(@NotNull final Token token) {
         Objects.requireNonNull(token);
-        switch (token.tokenType()) {
+        return fromToken(token.tokenType(), token.symbol());
+    }
+
+    /**
+     * Creates a new node with provided token type and symbol.
+     *
+     * @param tokenType type of the token
+     * @param symbol symbol of the token
+     * @return An instance of {@code TermNode}
+     * @throws IllegalArgumentException if {@code tokenType} is
+     * a type of punctuation token
+     */
+    @NotNull
+    static Term fromToken(@NotNull final Token.Type tokenType, final int symbol) {
+        switch (tokenType) {
             case CONSTANT -> {
-                return new Constant(token.toString());
+                return new Constant(symbol);
             }
             case VARIABLE -> {
-                return new Variable(token.toString());
+                return new Variable(symbol);
             }
             case FUNCTIONAL_SYMBOL -> {
-                return new TermWithArgs(token.toString());
+                return new TermWithArgs(symbol, List.of());
             }
             default -> throw new IllegalArgumentException("illegal token type");
         }
@@ -50,7 +66,8 @@ public abstract class Term implements Iterable<Term> {
      * &lt;<i>term</i>&gt;<i>,</i>&lt;<i>term</i>&gt;<i>...</i>&lt;<i>term</i>&gt;
      * <i>)</i> - term with functional symbol of arity &gt; 0
      * <p>
-     * Parser uses recursive descent algorithm to process tokens.
+     * Parser uses an explicit stack, so deeply nested terms
+     * do not overflow the thread stack.
      *
      * @param termString sequence of tokens representing first-order term
      * @return syntax tree of provided first-order term
@@ -59,10 +76,50 @@ public abstract class Term implements Iterable<Term> {
      */
     @NotNull
     public static Term fromString(@NotNull final String termString) {
-        TokenIterator iterator = new TokenIterator(new StringCharacterIterator(
-                Objects.requireNonNull(termString)
-        ));
-        return new TermParser(iterator).parseTerm();
+        return new TermParser(TermLexer.of(Objects.requireNonNull(termString))).parseTerm();
+    }
+
+    /**
+     * Creates a directed acyclic graph of first-order term from
+     * string input. All the nodes of the graph are obtained from
+     * the provided store, so equal subterms are represented by the
+     * same object.
+     *
+     * @param termString sequence of tokens representing first-order term
+     * @param termStore a store of unique terms
+     * @return the unique term that corresponds to the provided string
+     * @throws IllegalArgumentException if term is of invalid form
+     * @throws NullPointerException if any argument is {@code null}
+     * @see #fromString(String)
+     */
+    @NotNull
+    public static Term fromString(
+            @NotNull final String termString,
+            @NotNull final TermStore termStore) {
+        return new TermDagParser(termStore).parseTerm(
+                TermLexer.of(termString));
+    }
+
+    /**
+     * Creates a directed acyclic graph of first-order term from
+     * the remaining bytes of the buffer. Every byte is treated as
+     * an ASCII character. The buffer is read in place, without
+     * decoding it to a string, so this method is suitable for
+     * large memory-mapped inputs.
+     *
+     * @param bytes a buffer that contains the term
+     * @param termStore a store of unique terms
+     * @return the unique term that corresponds to the provided bytes
+     * @throws IllegalArgumentException if term is of invalid form
+     * @throws NullPointerException if any argument is {@code null}
+     * @see #fromString(String, TermStore)
+     */
+    @NotNull
+    public static Term fromAscii(
+            @NotNull final ByteBuffer bytes,
+            @NotNull final TermStore termStore) {
+        return new TermDagParser(termStore).parseTerm(
+                TermLexer.of(Objects.requireNonNull(bytes)));
     }
 
     /**
@@ -72,41 +129,29 @@ public abstract class Term implements Iterable<Term> {
     private final String name;
 
     /**
-     * Parent nodes
+     * Id of the name of this node in the
+     * {@link SymbolTable#global() global symbol table}
      */
-    @NotNull
-    private final List<Term> parents = new ArrayList<>();
+    private final int symbol;
 
     /**
      * Creates a new term node with provided name
      * @param name name of the node
      */
     protected Term(@NotNull final String name) {
-        this.name = Objects.requireNonNull(name);
+        this(SymbolTable.global().intern(Objects.requireNonNull(name)));
     }
 
     /**
-     * Inserts the specified term node as a parent node
-     * in the end of the parent node list.
-     *
-     * @param parent node to be inserted.
+     * Creates a new term node with provided symbol
+     * @param symbol id of the name of the node in the
+     *               global symbol table
      */
-    protected void addParent(@NotNull final Term parent) {
-        parents.add(Objects.requireNonNull(parent));
-    }
-
-    /**
-     * Returns a list that contains parent nodes of this node.
-     * Note that returned list is immutable.
-     *
-     * @return immutable list of children term nodes
-     */
-    @NotNull
-    public List<Term> getParents() {
-        return Collections.unmodifiableList(parents);
+    protected Term(final int symbol) {
+        this.symbol = symbol;
+        this.name = SymbolTable.global().name(symbol);
     }
 
-
     /**
      * Recursively builds string representation of syntax tree
      * rooted at the provided node
@@ -118,15 +163,23 @@ public abstract class Term implements Iterable<Term> {
     protected abstract StringBuilder constructTermString(@NotNull final StringBuilder sb);
 
     /**
-     * Returns true if the specified term is subterm of this term
+     * Returns true if the specified term is subterm of this term.
+     * Every node of this term is checked once, even if it is shared
+     * by several parents, so the check takes time linear in the size
+     * of the DAG.
      *
      * @param other term to be checked
      * @return true if the specified term is subterm of this term
      */
     public boolean contains(@NotNull final Term other) {
         Objects.requireNonNull(other);
-        for (Term term : this) {
-            if (term == other)
+        if (other.depth() > depth()
+                || (other.variableMask() & ~variableMask()) != 0) {
+            return false;
+        }
+        Iterator<Term> iterator = iterator(Traversal.DAG);
+        while (iterator.hasNext()) {
+            if (iterator.next() == other)
                 return true;
         }
         return false;
@@ -144,6 +197,18 @@ public abstract class Term implements Iterable<Term> {
         return name;
     }
 
+    /**
+     * Returns the id of the name of this term node in the
+     * {@link SymbolTable#global() global symbol table}.
+     * Term nodes have equal names if and only if they
+     * have equal symbols.
+     *
+     * @return id of the name of this node
+     */
+    public int getSymbol() {
+        return symbol;
+    }
+
     /**
      * Returns true if this node does not have children nodes
      * (this node is leaf node).
@@ -152,6 +217,48 @@ public abstract class Term implements Iterable<Term> {
      */
     public abstract boolean isLeafNode();
 
+    /**
+     * Returns the number of nodes in the syntax tree rooted
+     * at this node. Shared subterms are counted once per
+     * occurrence. If the number of nodes exceeds
+     * {@link Long#MAX_VALUE}, then {@code Long.MAX_VALUE}
+     * is returned.
+     *
+     * @return the number of nodes in the syntax tree
+     */
+    public abstract long size();
+
+    /**
+     * Returns a summary of the variables of this term. Every variable
+     * sets one bit of the mask, chosen by its symbol, so the mask of
+     * a term is the union of the bits of its variables. If a bit of
+     * a variable is not set, then the variable does not occur in the
+     * term; the converse is not true, as several variables share
+     * every bit.
+     *
+     * @return the mask of the variables of this term
+     * @see #isGround()
+     */
+    public abstract long variableMask();
+
+    /**
+     * Returns true if this term contains no variables.
+     * The check takes constant time.
+     *
+     * @return true if this term is ground
+     */
+    public boolean isGround() {
+        return variableMask() == 0;
+    }
+
+    /**
+     * Returns the number of nodes in the longest path
+     * from this node to a leaf node.
+     *
+     * @return the depth of the syntax tree rooted at this node
+     */
+    public abstract int depth();
+
     /**
      * Returns a string representation of the syntax tree
      * rooted at this node
@@ -177,7 +284,8 @@ public abstract class Term implements Iterable<Term> {
     /**
      * Returns an iterator over the nodes of this term.
      * Elements are traversed using depth-first traversal
-     * method.
+     * method. A node that is shared by several parents is
+     * visited at every occurrence, see {@link #iterator(Traversal)}.
      *
      * @return iterator over the nodes of this term.
      */
@@ -187,6 +295,19 @@ public abstract class Term implements Iterable<Term> {
         return new PreOrderTermIterator(this);
     }
 
+    /**
+     * Returns an iterator over the nodes of this term in
+     * depth-first pre-order with provided way to visit the
+     * nodes that are shared by several parents.
+     *
+     * @param traversal a way to visit the shared nodes
+     * @return iterator over the nodes of this term
+     */
+    @NotNull
+    public Iterator<Term> iterator(@NotNull final Traversal traversal) {
+        return new PreOrderTermIterator(this, Objects.requireNonNull(traversal));
+    }
+
     /**
      * Compares the names of this term and provided term.
      *
@@ -195,6 +316,6 @@ public abstract class Term implements Iterable<Term> {
      *         equals to the name of this term.
      */
     public boolean nameEquals(final Term other) {
-        return other != null && getName().equals(other.getName());
+        return other != null && symbol == other.symbol;
     }
 }
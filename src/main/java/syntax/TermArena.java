@@ -0,0 +1,436 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+import util.Assertions;
+import util.IntStack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A compact representation of a set of first-order terms.
+ * <p>
+ * Terms are stored as a directed acyclic graph whose nodes are
+ * identified by dense integer ids. Symbols, kinds, children and
+ * parents of the nodes are kept in primitive arrays rather than
+ * in the separate heap objects:
+ * <ul>
+ *     <li>{@code symbols[node]} - id of the symbol of the node;</li>
+ *     <li>{@code kinds[node]} - kind of the node
+ *     ({@link #VARIABLE}, {@link #CONSTANT} or {@link #FUNCTION});</li>
+ *     <li>{@code children[childOffsets[node] .. childOffsets[node + 1])}
+ *     - arguments of the node, so arity of the node is the difference
+ *     of two adjacent offsets;</li>
+ *     <li>{@code parents[parentOffsets[node] .. parentOffsets[node + 1])}
+ *     - nodes that have the node as an argument.</li>
+ * </ul>
+ * Children always have smaller ids than their parents, so
+ * ascending order of ids is a topological order of the graph.
+ * Variables and constants with equal names are represented by
+ * the same node, as well as terms that are represented by the same
+ * {@link Term} object.
+ * <p>
+ * Instances of this class are immutable.
+ */
+public final class TermArena {
+    /**
+     * A kind of variable node
+     */
+    public static final byte VARIABLE = 0;
+    /**
+     * A kind of constant node
+     */
+    public static final byte CONSTANT = 1;
+    /**
+     * A kind of node with functional symbol
+     */
+    public static final byte FUNCTION = 2;
+
+    /**
+     * Symbol ids of the nodes in the
+     * {@link SymbolTable#global() global symbol table}
+     */
+    @NotNull
+    private final int[] symbols;
+    /**
+     * Kinds of the nodes
+     */
+    @NotNull
+    private final byte[] kinds;
+    /**
+     * Offsets of the first argument of each node in {@code children}
+     */
+    @NotNull
+    private final int[] childOffsets;
+    /**
+     * Arguments of all the nodes
+     */
+    @NotNull
+    private final int[] children;
+    /**
+     * Offsets of the first parent of each node in {@code parents}
+     */
+    @NotNull
+    private final int[] parentOffsets;
+    /**
+     * Parents of all the nodes
+     */
+    @NotNull
+    private final int[] parents;
+    /**
+     * Nodes of the terms this arena was built from
+     */
+    @NotNull
+    private final int[] roots;
+
+    /**
+     * Creates a new arena from the arrays built by the {@link Builder}
+     */
+    private TermArena(
+            int[] symbols,
+            byte[] kinds,
+            int[] childOffsets,
+            int[] children,
+            int[] roots) {
+        this.symbols = symbols;
+        this.kinds = kinds;
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.roots = roots;
+        int nodeCount = symbols.length;
+        this.parentOffsets = new int[nodeCount + 1];
+        for (int child : children) {
+            parentOffsets[child + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            parentOffsets[node + 1] += parentOffsets[node];
+        }
+        this.parents = new int[children.length];
+        int[] nextParent = Arrays.copyOf(parentOffsets, nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            for (int i = childOffsets[node]; i < childOffsets[node + 1]; i++) {
+                parents[nextParent[children[i]]++] = node;
+            }
+        }
+    }
+
+    /**
+     * Creates an arena that contains provided terms.
+     * Subterms that are shared between the terms are
+     * stored once.
+     *
+     * @param terms terms to be stored
+     * @return an arena which roots correspond to the provided terms
+     */
+    @NotNull
+    public static TermArena of(@NotNull final Term... terms) {
+        Builder builder = new Builder();
+        int[] roots = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            roots[i] = builder.add(Objects.requireNonNull(terms[i]));
+        }
+        return builder.build(roots);
+    }
+
+    /**
+     * Creates an arena that contains terms of the provided pair.
+     * Root of the first term has index 0 and root of the second term
+     * has index 1.
+     *
+     * @param termPair a pair of terms
+     * @return an arena that contains terms of the provided pair
+     */
+    @NotNull
+    public static TermArena fromTermPair(@NotNull final TermPair termPair) {
+        return of(termPair.term1(), termPair.term2());
+    }
+
+    /**
+     * Returns the number of nodes in this arena.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * Returns the number of root terms in this arena.
+     *
+     * @return the number of root terms
+     */
+    public int rootCount() {
+        return roots.length;
+    }
+
+    /**
+     * Returns the node of the root term with provided index.
+     *
+     * @param index index of the term this arena was built from
+     * @return the node of the root term
+     */
+    public int root(final int index) {
+        return roots[index];
+    }
+
+    /**
+     * Returns the symbol id of the provided node.
+     * Nodes have equal symbols if and only if they have
+     * equal names.
+     *
+     * @param node a node
+     * @return the symbol id of the node
+     */
+    public int symbol(final int node) {
+        return symbols[node];
+    }
+
+    /**
+     * Returns the name of the provided node.
+     *
+     * @param node a node
+     * @return the name of the node
+     */
+    @NotNull
+    public String name(final int node) {
+        return SymbolTable.global().name(symbols[node]);
+    }
+
+    /**
+     * Returns the kind of the provided node.
+     *
+     * @param node a node
+     * @return one of {@link #VARIABLE}, {@link #CONSTANT}
+     *         or {@link #FUNCTION}
+     */
+    public byte kind(final int node) {
+        return kinds[node];
+    }
+
+    /**
+     * Returns true if the provided node is a variable.
+     *
+     * @param node a node
+     * @return true if the provided node is a variable
+     */
+    public boolean isVariable(final int node) {
+        return kinds[node] == VARIABLE;
+    }
+
+    /**
+     * Returns the number of arguments of the provided node.
+     *
+     * @param node a node
+     * @return the number of arguments
+     */
+    public int arity(final int node) {
+        return childOffsets[node + 1] - childOffsets[node];
+    }
+
+    /**
+     * Returns the argument of the provided node.
+     *
+     * @param node a node
+     * @param index index of the argument
+     * @return the node of the argument
+     */
+    public int child(final int node, final int index) {
+        return children[childOffsets[node] + index];
+    }
+
+    /**
+     * Returns the number of parents of the provided node.
+     *
+     * @param node a node
+     * @return the number of parents
+     */
+    public int parentCount(final int node) {
+        return parentOffsets[node + 1] - parentOffsets[node];
+    }
+
+    /**
+     * Returns the parent of the provided node.
+     * If a node has the same argument several times,
+     * it is listed as a parent several times.
+     *
+     * @param node a node
+     * @param index index of the parent
+     * @return the node of the parent
+     */
+    public int parent(final int node, final int index) {
+        return parents[parentOffsets[node] + index];
+    }
+
+    /**
+     * Converts the provided node to the term. Shared nodes
+     * are converted once, so the result is a directed acyclic
+     * graph of the same shape.
+     *
+     * @param node a node
+     * @return a term that corresponds to the provided node
+     */
+    @NotNull
+    public Term toTerm(final int node) {
+        return toTerm(node, new Term[size()]);
+    }
+
+    /**
+     * Converts the provided node to the term, reusing
+     * the terms that are already converted.
+     *
+     * @param node a node
+     * @param converted terms of already converted nodes
+     *                  indexed by node; must have length of
+     *                  at least {@link #size()}
+     * @return a term that corresponds to the provided node
+     */
+    @NotNull
+    public Term toTerm(final int node, @NotNull final Term[] converted) {
+        Assertions.require(converted.length >= size(),
+                "array of converted terms is too short");
+        IntStack nodeStack = new IntStack();
+        nodeStack.push(node);
+        while (!nodeStack.isEmpty()) {
+            int current = nodeStack.peek();
+            if (converted[current] != null) {
+                nodeStack.pop();
+                continue;
+            }
+            boolean argsReady = true;
+            for (int i = childOffsets[current]; i < childOffsets[current + 1]; i++) {
+                if (converted[children[i]] == null) {
+                    nodeStack.push(children[i]);
+                    argsReady = false;
+                }
+            }
+            if (!argsReady) {
+                continue;
+            }
+            nodeStack.pop();
+            converted[current] = switch (kinds[current]) {
+                case VARIABLE -> new Variable(symbols[current]);
+                case CONSTANT -> new Constant(symbols[current]);
+                default -> {
+                    List<Term> args = new ArrayList<>(arity(current));
+                    for (int i = childOffsets[current]; i < childOffsets[current + 1]; i++) {
+                        args.add(converted[children[i]]);
+                    }
+                    yield new TermWithArgs(symbols[current], args);
+                }
+            };
+        }
+        return converted[node];
+    }
+
+    /**
+     * Converts the first two roots of this arena
+     * to the pair of terms.
+     *
+     * @return a pair of terms
+     */
+    @NotNull
+    public TermPair toTermPair() {
+        Assertions.check(rootCount() >= 2, "arena contains less than two terms");
+        Term[] converted = new Term[size()];
+        return new TermPair(
+                toTerm(root(0), converted),
+                toTerm(root(1), converted));
+    }
+
+    /**
+     * This class collects nodes of the arena in the growable arrays.
+     */
+    private static final class Builder {
+        private final Map<Term, Integer> nodes = new IdentityHashMap<>();
+        private final Map<Integer, Integer> variables = new HashMap<>();
+        private final Map<Integer, Integer> constants = new HashMap<>();
+        private int[] symbols = new int[16];
+        private byte[] kinds = new byte[16];
+        private int[] childOffsets = new int[17];
+        private int[] children = new int[16];
+        private int nodeCount = 0;
+        private int childCount = 0;
+
+        /**
+         * Adds all the nodes of the provided term in post-order,
+         * so that children are added before their parents.
+         *
+         * @param root a term
+         * @return a node of the provided term
+         */
+        int add(Term root) {
+            Deque<Term> termStack = new ArrayDeque<>();
+            termStack.push(root);
+            while (!termStack.isEmpty()) {
+                Term term = termStack.peek();
+                if (nodes.containsKey(term)) {
+                    termStack.pop();
+                    continue;
+                }
+                if (term instanceof TermWithArgs termWithArgs) {
+                    boolean argsReady = true;
+                    for (Term arg : termWithArgs.getArgs()) {
+                        if (!nodes.containsKey(arg)) {
+                            termStack.push(arg);
+                            argsReady = false;
+                        }
+                    }
+                    if (!argsReady) {
+                        continue;
+                    }
+                }
+                termStack.pop();
+                nodes.put(term, addNode(term));
+            }
+            return nodes.get(root);
+        }
+
+        private int addNode(Term term) {
+            if (term instanceof Variable) {
+                return variables.computeIfAbsent(
+                        term.getSymbol(), symbol -> newNode(term, VARIABLE));
+            }
+            if (term instanceof Constant) {
+                return constants.computeIfAbsent(
+                        term.getSymbol(), symbol -> newNode(term, CONSTANT));
+            }
+            return newNode(term, FUNCTION);
+        }
+
+        private int newNode(Term term, byte kind) {
+            if (nodeCount == symbols.length) {
+                symbols = Arrays.copyOf(symbols, 2 * nodeCount);
+                kinds = Arrays.copyOf(kinds, 2 * nodeCount);
+                childOffsets = Arrays.copyOf(childOffsets, 2 * nodeCount + 1);
+            }
+            symbols[nodeCount] = term.getSymbol();
+            kinds[nodeCount] = kind;
+            if (term instanceof TermWithArgs termWithArgs) {
+                for (Term arg : termWithArgs.getArgs()) {
+                    if (childCount == children.length) {
+                        children = Arrays.copyOf(children, 2 * childCount);
+                    }
+                    children[childCount++] = nodes.get(arg);
+                }
+            }
+            childOffsets[nodeCount + 1] = childCount;
+            return nodeCount++;
+        }
+
+        TermArena build(int[] roots) {
+            return new TermArena(
+                    Arrays.copyOf(symbols, nodeCount),
+                    Arrays.copyOf(kinds, nodeCount),
+                    Arrays.copyOf(childOffsets, nodeCount + 1),
+                    Arrays.copyOf(children, childCount),
+                    roots);
+        }
+    }
+}
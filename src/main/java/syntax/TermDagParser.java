@@ -3,106 +3,145 @@ package syntax;
 import org.jetbrains.annotations.NotNull;
 import util.Assertions;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 /**
  * This class provides methods to create
  * directed acyclic graph representation
  * of the provided first-order term.
- * This class uses recursive descent algorithm
- * to construct syntax tree.
+ * This class uses an explicit stack of the functional
+ * symbols whose arguments are being read, so the depth
+ * of the term is not limited by the size of the thread stack.
+ * All the terms are built through the {@link TermStore},
+ * so equal subterms are shared between all the terms
+ * parsed with the same store.
  */
 final class TermDagParser {
     /**
-     * Creates a new parser with provided {@code TokenIterator} instance.
+     * Creates a new parser with provided {@code TermStore} instance.
      *
-     * @param tokenIterator1 a token iterator of the first term.
-     * @param tokenIterator2 a token iterator of the second term.
+     * @param termStore a store of unique terms.
      */
-    TermDagParser(
-            final @NotNull TokenIterator tokenIterator1,
-            final @NotNull TokenIterator tokenIterator2) {
-        this.tokenIterator1 = Objects.requireNonNull(tokenIterator1);
-        this.tokenIterator2 = Objects.requireNonNull(tokenIterator2);
+    TermDagParser(final @NotNull TermStore termStore) {
+        this.termStore = Objects.requireNonNull(termStore);
     }
 
     /**
-     * A token iterator of the first term
+     * A store of unique terms
      */
     @NotNull
-    private final TokenIterator tokenIterator1;
-
-    /**
-     * A token iterator of the second term
-     */
-    @NotNull
-    private final TokenIterator tokenIterator2;
-
-    /**
-     * A set of all subterms occurred in the term.
-     * <br>
-     * Note: We have to use Map interface rather than Set one
-     * because Set interface does not provide a method
-     * to search for an element.
-     */
-    @NotNull
-    private final Map<Term, Term> uniqueTerms = new HashMap<>();
+    private final TermStore termStore;
 
     /**
      * Constructs a pair of terms
      *
+     * @param lexer1 a lexer of the first term.
+     * @param lexer2 a lexer of the second term.
      * @return pair of terms
      */
-    public TermPair parseTermPair() {
+    public TermPair parseTermPair(
+            final @NotNull TermLexer lexer1,
+            final @NotNull TermLexer lexer2) {
         return new TermPair(
-                parseTerm(tokenIterator1),
-                parseTerm(tokenIterator2)
+                parseTerm(Objects.requireNonNull(lexer1)),
+                parseTerm(Objects.requireNonNull(lexer2))
         );
     }
 
     /**
      * Constructs a term.
      *
-     * @param tokenIterator an iterator over term tokens
+     * @param lexer a lexer of the input term
      * @return a root of the syntax tree
      */
-    private Term parseTerm(TokenIterator tokenIterator) {
-        Assertions.require(tokenIterator.hasNext(),
-                "Unexpected EOF while reading tokens");
-        Token token = tokenIterator.next();
-        Term term;
-        if (token.tokenType() == Token.Type.FUNCTIONAL_SYMBOL) {
-            term = new TermWithArgs(token.toString(), parseArgs(tokenIterator));
-        } else {
-            term = Term.fromToken(token);
+    public Term parseTerm(TermLexer lexer) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        TermLabels labels = new TermLabels();
+        int label = TermLabels.NO_LABEL;
+        while (true) {
+            if (!lexer.hasNext()) {
+                throw new IllegalArgumentException(stack.isEmpty()
+                        ? "Unexpected EOF while reading tokens"
+                        : "Unexpected EOF while reading arguments");
+            }
+            Token.Type tokenType = lexer.next();
+            if (tokenType == Token.Type.LABEL_DEFINITION) {
+                Assertions.require(label == TermLabels.NO_LABEL,
+                        "expected a term after a label definition");
+                label = lexer.label();
+                continue;
+            }
+            if (tokenType == Token.Type.FUNCTIONAL_SYMBOL) {
+                int symbol = lexer.symbol();
+                Assertions.require(nextArgumentToken(lexer) == Token.Type.LEFT_PARENTHESIS,
+                        "expected a left parenthesis after functional symbol");
+                stack.push(new Frame(symbol, label));
+                label = TermLabels.NO_LABEL;
+                continue;
+            }
+            Term term = tokenType == Token.Type.LABEL_REFERENCE
+                    ? labels.get(lexer.label())
+                    : termStore.fromToken(tokenType, lexer.symbol());
+            labels.define(label, term);
+            label = TermLabels.NO_LABEL;
+            while (true) {
+                Frame frame = stack.peek();
+                if (frame == null) {
+                    return term;
+                }
+                frame.args.add(term);
+                tokenType = nextArgumentToken(lexer);
+                if (tokenType != Token.Type.RIGHT_PARENTHESIS) {
+                    Assertions.require(tokenType == Token.Type.COMMA,
+                            "expected a comma or right parenthesis after an argument");
+                    break;
+                }
+                stack.pop();
+                term = termStore.function(frame.symbol, frame.args);
+                labels.define(frame.label, term);
+            }
         }
-        return uniqueTerms.computeIfAbsent(term, t -> t);
     }
 
     /**
-     * Constructs a list of the arguments of the functional symbol term.
+     * Reads the next token inside the arguments of a functional symbol.
      *
-     * @param tokenIterator an iterator over term tokens.
-     * @return list of terms.
+     * @param lexer a lexer of the input term
+     * @return type of the read token
+     * @throws IllegalArgumentException if the input ends
      */
-    private List<Term> parseArgs(TokenIterator tokenIterator) {
-        Assertions.require(tokenIterator.next().tokenType() == Token.Type.LEFT_PARENTHESIS,
-                "expected a left parenthesis after functional symbol");
-        List<Term> args = new ArrayList<>();
-        while (tokenIterator.hasNext()) {
-            Term argument = parseTerm(tokenIterator);
-            args.add(argument);
-            Token.Type tokenType = tokenIterator.next().tokenType();
-            if (tokenType == Token.Type.RIGHT_PARENTHESIS) {
-                return args;
-            }
-            Assertions.require(tokenType == Token.Type.COMMA,
-                    "expected a comma or right parenthesis after an argument");
+    private static Token.Type nextArgumentToken(TermLexer lexer) {
+        if (!lexer.hasNext()) {
+            throw new IllegalArgumentException("Unexpected EOF while reading arguments");
+        }
+        return lexer.next();
+    }
+
+    /**
+     * A functional symbol whose arguments are being read
+     */
+    private static final class Frame {
+        /**
+         * Symbol of the functional symbol
+         */
+        private final int symbol;
+        /**
+         * Arguments that are already read
+         */
+        private final List<Term> args = new ArrayList<>();
+
+        /**
+         * Label of the term or {@link TermLabels#NO_LABEL}
+         */
+        private final int label;
+
+        private Frame(final int symbol, final int label) {
+            this.symbol = symbol;
+            this.label = label;
         }
-        throw new IllegalArgumentException("Unexpected EOF while reading arguments");
     }
 }
@@ -0,0 +1,59 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+import util.Assertions;
+import util.IntObjectMap;
+
+/**
+ * Labeled subterms of one term that is being parsed.
+ * <p>
+ * A subterm that is labeled by {@code #n=} may be referred to by
+ * {@code #n#} later in the same term, so the parsed term shares
+ * the subterm instead of repeating it. A label may be referred to
+ * only after its subterm is read, so labels never make cycles.
+ *
+ * @see TermPrinter
+ */
+final class TermLabels {
+    /**
+     * A label of a term that is not labeled
+     */
+    static final int NO_LABEL = -1;
+
+    /**
+     * Labeled subterms or {@code null} if there are none
+     */
+    private IntObjectMap<Term> terms;
+
+    /**
+     * Labels the term unless the label is {@link #NO_LABEL}.
+     *
+     * @param label a label
+     * @param term a term
+     * @throws IllegalArgumentException if the label is already defined
+     */
+    void define(final int label, @NotNull final Term term) {
+        if (label == NO_LABEL) {
+            return;
+        }
+        if (terms == null) {
+            terms = new IntObjectMap<>();
+        }
+        Assertions.require(terms.putIfAbsent(label, term) == null,
+                "label #" + label + "= is defined twice");
+    }
+
+    /**
+     * Returns the labeled term.
+     *
+     * @param label a label
+     * @return the term with provided label
+     * @throws IllegalArgumentException if the label is not defined
+     */
+    @NotNull
+    Term get(final int label) {
+        Term term = terms == null ? null : terms.get(label);
+        Assertions.require(term != null, "label #" + label + "# is not defined");
+        return term;
+    }
+}
@@ -0,0 +1,307 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+import util.Assertions;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A lexer that scans a character sequence directly and reports
+ * tokens as offsets into the input.
+ * <p>
+ * Unlike {@link TokenIterator}, this class does not allocate
+ * anything per token: the type, the bounds and the symbol of
+ * the current token are kept in the fields of the lexer and
+ * are overwritten by the next call of {@link #next()}. Names
+ * are looked up in the {@link SymbolTable#global() global symbol
+ * table} directly from the input.
+ * <p>
+ * The lexer also reads the labels of shared subterms written by
+ * {@link TermPrinter}: {@code #n=} defines the label {@code n} of the
+ * subterm that follows it, and {@code #n#} refers to that subterm.
+ */
+final class TermLexer {
+    /**
+     * Token types of the ASCII characters that start a token
+     */
+    @NotNull
+    private static final Token.Type[] TOKEN_TYPE = new Token.Type[128];
+
+    /**
+     * True for the ASCII characters that can continue a name
+     */
+    @NotNull
+    private static final boolean[] NAME_PART = new boolean[128];
+
+    static {
+        TOKEN_TYPE['x'] = Token.Type.VARIABLE;
+        TOKEN_TYPE['c'] = Token.Type.CONSTANT;
+        TOKEN_TYPE['f'] = Token.Type.FUNCTIONAL_SYMBOL;
+        TOKEN_TYPE['('] = Token.Type.LEFT_PARENTHESIS;
+        TOKEN_TYPE[')'] = Token.Type.RIGHT_PARENTHESIS;
+        TOKEN_TYPE[','] = Token.Type.COMMA;
+        TOKEN_TYPE['#'] = Token.Type.LABEL_REFERENCE;
+        for (char c = 0; c < NAME_PART.length; c++) {
+            NAME_PART[c] = Character.isLetterOrDigit(c);
+        }
+    }
+
+    /**
+     * The input
+     */
+    @NotNull
+    private final CharSequence input;
+
+    /**
+     * Index after the last character of the input
+     */
+    private final int end;
+
+    /**
+     * Index of the next character to be read
+     */
+    private int position;
+
+    /**
+     * Type of the current token
+     */
+    private Token.Type tokenType;
+
+    /**
+     * Index of the first character of the current token
+     */
+    private int tokenStart;
+
+    /**
+     * Symbol of the current token
+     */
+    private int symbol = Token.NO_SYMBOL;
+
+    /**
+     * Label of the current token if it is a label token
+     */
+    private int label;
+
+    /**
+     * Creates a new lexer over provided range of the character
+     * sequence.
+     *
+     * @param input a character sequence that contains the term
+     * @param start index of the first character of the term
+     * @param end index after the last character of the term
+     */
+    TermLexer(@NotNull final CharSequence input, final int start, final int end) {
+        Objects.checkFromToIndex(start, end, input.length());
+        this.input = input;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates a new lexer over provided character sequence.
+     *
+     * @param input a term string
+     * @return a new lexer
+     */
+    @NotNull
+    static TermLexer of(@NotNull final CharSequence input) {
+        return new TermLexer(Objects.requireNonNull(input), 0, input.length());
+    }
+
+    /**
+     * Creates a new lexer over provided range of the array.
+     * The array is not copied.
+     *
+     * @param chars an array that contains the term
+     * @param offset index of the first character of the term
+     * @param length number of characters of the term
+     * @return a new lexer
+     */
+    @NotNull
+    static TermLexer of(@NotNull final char[] chars, final int offset, final int length) {
+        return new TermLexer(CharBuffer.wrap(chars), offset, offset + length);
+    }
+
+    /**
+     * Creates a new lexer over the remaining bytes of the buffer.
+     * Every byte is treated as an ASCII character. The buffer is
+     * accessed by absolute indices, so its position is not changed.
+     *
+     * @param bytes a buffer that contains the term
+     * @return a new lexer
+     */
+    @NotNull
+    static TermLexer of(@NotNull final ByteBuffer bytes) {
+        return new TermLexer(new AsciiCharSequence(bytes), bytes.position(), bytes.limit());
+    }
+
+    /**
+     * Returns true if the input has more tokens. Skips
+     * whitespace before the next token.
+     *
+     * @return true if the input has more tokens
+     */
+    boolean hasNext() {
+        while (position < end && isSpace(input.charAt(position))) {
+            position++;
+        }
+        return position < end;
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return type of the read token
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws IllegalArgumentException if the token starts with
+     *         invalid character
+     */
+    @NotNull
+    Token.Type next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        char currentChar = input.charAt(position);
+        Token.Type type = currentChar < TOKEN_TYPE.length ? TOKEN_TYPE[currentChar] : null;
+        if (type == null) {
+            throw new IllegalArgumentException(
+                    String.format("invalid character %c (code point %d)", currentChar, (int) currentChar));
+        }
+        tokenStart = position++;
+        if (type == Token.Type.LABEL_REFERENCE) {
+            type = readLabel();
+        }
+        if (type.isNamed()) {
+            while (position < end && isNamePart(input.charAt(position))) {
+                position++;
+            }
+            symbol = SymbolTable.global().intern(input, tokenStart, position);
+        } else {
+            symbol = Token.NO_SYMBOL;
+        }
+        tokenType = type;
+        return type;
+    }
+
+    /**
+     * Returns type of the current token.
+     *
+     * @return type of the token read by the last call
+     *         of {@link #next()}
+     */
+    Token.Type tokenType() {
+        return tokenType;
+    }
+
+    /**
+     * Returns index of the first character of the current token.
+     *
+     * @return index of the first character of the current token
+     */
+    int tokenStart() {
+        return tokenStart;
+    }
+
+    /**
+     * Returns index after the last character of the current token.
+     *
+     * @return index after the last character of the current token
+     */
+    int tokenEnd() {
+        return position;
+    }
+
+    /**
+     * Returns symbol of the current token.
+     *
+     * @return id of the name of the current token or
+     *         {@link Token#NO_SYMBOL} if it is a punctuation token
+     */
+    int symbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns label of the current token.
+     *
+     * @return the number of the label read by the last call
+     *         of {@link #next()} if it is a label token
+     */
+    int label() {
+        return label;
+    }
+
+    /**
+     * Reads the digits of a label and the character that
+     * follows them. The leading {@code #} is already read.
+     *
+     * @return type of the label token
+     */
+    private Token.Type readLabel() {
+        long value = 0;
+        int digitsStart = position;
+        while (position < end && isDigit(input.charAt(position))) {
+            value = 10 * value + input.charAt(position++) - '0';
+            Assertions.require(value <= Integer.MAX_VALUE, "label is too large");
+        }
+        Assertions.require(position > digitsStart && position < end,
+                "expected a label number and # or = after #");
+        label = (int) value;
+        char terminator = input.charAt(position++);
+        if (terminator == '=') {
+            return Token.Type.LABEL_DEFINITION;
+        }
+        Assertions.require(terminator == '#', "expected # or = after a label number");
+        return Token.Type.LABEL_REFERENCE;
+    }
+
+    private static boolean isDigit(final char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isNamePart(final char character) {
+        return character < NAME_PART.length
+                ? NAME_PART[character]
+                : Character.isLetterOrDigit(character);
+    }
+
+    private static boolean isSpace(final char character) {
+        return character == ' ' || character >= 128 && Character.isSpaceChar(character);
+    }
+
+    /**
+     * A read-only view of the bytes of the buffer as ASCII characters.
+     *
+     * @param bytes a buffer with ASCII characters
+     */
+    private record AsciiCharSequence(@NotNull ByteBuffer bytes) implements CharSequence {
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (bytes.get(index) & 0xFF);
+        }
+
+        @NotNull
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            char[] chars = new char[end - start];
+            for (int i = start; i < end; i++) {
+                chars[i - start] = charAt(i);
+            }
+            return new String(chars);
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -42,9 +42,29 @@ public record TermPair(
             @NotNull final String termString1,
             @NotNull final String termString2
     ) {
-        return new TermDagParser(
-                TokenIterator.of(termString1),
-                TokenIterator.of(termString2)).parseTermPair();
+        return fromStrings(termString1, termString2, new TermStore());
+    }
+
+    /**
+     * Creates a pair of term from provided string representations.
+     * Terms are built through the provided store, so subterms
+     * are shared with all the other terms of this store.
+     *
+     * @param termString1 string representation of the first term
+     * @param termString2 string representation of the second term
+     * @param termStore a store of unique terms
+     * @return a {@code TermPair} instance that contains two terms
+     *         converted from corresponding string representations.
+     * @see Term#fromString(String, TermStore)
+     */
+    public static TermPair fromStrings(
+            @NotNull final String termString1,
+            @NotNull final String termString2,
+            @NotNull final TermStore termStore
+    ) {
+        return new TermDagParser(termStore).parseTermPair(
+                TermLexer.of(termString1),
+                TermLexer.of(termString2));
     }
 
 }
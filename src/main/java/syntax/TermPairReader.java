@@ -0,0 +1,278 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+import util.Assertions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A reader of pairs of terms, one pair per line.
+ * <p>
+ * The terms of a pair are separated by {@value #DELIMITER}, e.g.
+ * {@code f1(x1,c1);f1(c2,x2)}. Blank lines are skipped, and both
+ * {@code \n} and {@code \r\n} end a line. The input is read as ASCII.
+ * <p>
+ * Terms are parsed directly from the bytes of the input by
+ * {@link Term#fromAscii(ByteBuffer, TermStore)}: a file is
+ * mapped into memory, and a stream is read into a buffer that grows
+ * only to fit the longest line. The terms of every pair are built
+ * through a new {@link TermStore}, so the pair shares its variables
+ * and equal subterms, and the buffers and stores of the reader do not
+ * grow with the number of read pairs. The names of the terms are
+ * still added to the {@link SymbolTable#global() global symbol table},
+ * which is never cleared, so an input with an unbounded number of
+ * distinct names, e.g. a fresh variable on every line, keeps growing
+ * the memory of the process.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class TermPairReader implements Iterator<TermPair>, Closeable {
+    /**
+     * A character that separates the terms of a pair
+     */
+    public static final char DELIMITER = ';';
+
+    /**
+     * An initial size of the buffer of a stream
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * A stream of the input or {@code null} if the whole
+     * input is in the buffer
+     */
+    private final InputStream stream;
+
+    /**
+     * A buffer with the input, the bytes from the {@link #position}
+     * to the limit of the buffer are not read yet
+     */
+    @NotNull
+    private ByteBuffer buffer;
+
+    /**
+     * Views of the buffer that bound the terms of a line
+     */
+    @NotNull
+    private ByteBuffer view1;
+    @NotNull
+    private ByteBuffer view2;
+
+    /**
+     * Index of the first byte of the buffer that is not read yet
+     */
+    private int position;
+
+    /**
+     * Index after the last byte of the next line or -1
+     * if the next line is not found yet
+     */
+    private int lineEnd = -1;
+
+    /**
+     * Number of the last read line, starting from 1
+     */
+    private long lineNumber = 0;
+
+    private TermPairReader(final InputStream stream, @NotNull final ByteBuffer buffer) {
+        this.stream = stream;
+        setBuffer(buffer);
+    }
+
+    /**
+     * Creates a new reader of the file. The file is mapped into memory.
+     *
+     * @param path a path of the file
+     * @return a new reader
+     * @throws IOException if the file cannot be read
+     */
+    @NotNull
+    public static TermPairReader open(@NotNull final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // A buffer cannot map more than 2 GiB, so large files are streamed
+                return of(path.getFileSystem().provider().newInputStream(path));
+            }
+            return new TermPairReader(null, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Creates a new reader of the stream. The stream is
+     * read in blocks, it does not need to be buffered.
+     *
+     * @param stream a stream of the input
+     * @return a new reader
+     */
+    @NotNull
+    public static TermPairReader of(@NotNull final InputStream stream) {
+        return new TermPairReader(Objects.requireNonNull(stream), ByteBuffer.allocate(BUFFER_SIZE).limit(0));
+    }
+
+    /**
+     * Returns true if the input has more pairs.
+     *
+     * @return true if the input has more pairs
+     * @throws UncheckedIOException if the stream fails
+     */
+    @Override
+    public boolean hasNext() {
+        int scanned = position;
+        while (lineEnd < 0) {
+            int limit = buffer.limit();
+            for (int i = scanned; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    lineEnd = i;
+                    break;
+                }
+            }
+            if (lineEnd < 0) {
+                int unread = limit - position;
+                if (fill()) {
+                    // The bytes that are already scanned are moved to the start
+                    scanned = unread;
+                    continue;
+                }
+                if (position == buffer.limit()) {
+                    return false;
+                }
+                // The last line does not end with a line separator
+                lineEnd = buffer.limit();
+            }
+            if (lineEnd >= 0 && isBlank(position, lineEnd)) {
+                lineNumber++;
+                position = Math.min(lineEnd + 1, buffer.limit());
+                scanned = position;
+                lineEnd = -1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next pair.
+     *
+     * @return the next pair
+     * @throws NoSuchElementException if there are no more pairs
+     * @throws IllegalArgumentException if the line is not a valid pair,
+     *         the message contains the number of the line
+     * @throws UncheckedIOException if the stream fails
+     */
+    @Override
+    @NotNull
+    public TermPair next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        lineNumber++;
+        int start = position;
+        int end = lineEnd > start && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+        position = Math.min(lineEnd + 1, buffer.limit());
+        lineEnd = -1;
+        try {
+            int delimiter = start;
+            while (delimiter < end && buffer.get(delimiter) != DELIMITER) {
+                delimiter++;
+            }
+            Assertions.require(delimiter < end, "expected " + DELIMITER + " between the terms");
+            TermDagParser parser = new TermDagParser(new TermStore());
+            Term term1 = parse(parser, view1, start, delimiter);
+            Term term2 = parse(parser, view2, delimiter + 1, end);
+            return new TermPair(term1, term2);
+        } catch (IllegalArgumentException | NoSuchElementException e) {
+            // The lexer reports the end of a truncated term without a message
+            String reason = e.getMessage() != null ? e.getMessage() : "unexpected end of a term";
+            throw new IllegalArgumentException(
+                    String.format("Invalid pair at line %d: %s", lineNumber, reason), e);
+        }
+    }
+
+    /**
+     * Returns the number of the line of the last read pair.
+     *
+     * @return the number of the last read line, starting
+     *         from 1, or 0 if no line is read yet
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Closes the stream of the input.
+     *
+     * @throws IOException if the stream fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Parses one term from the range of the buffer.
+     */
+    private static Term parse(TermDagParser parser, ByteBuffer view, int start, int end) {
+        view.limit(end).position(start);
+        TermLexer lexer = TermLexer.of(view);
+        Term term = parser.parseTerm(lexer);
+        Assertions.require(!lexer.hasNext(), "unexpected characters after a term");
+        return term;
+    }
+
+    /**
+     * Reads more bytes of the stream into the buffer. The bytes that
+     * are already read are discarded, and the buffer grows if it is
+     * full of the bytes of one line.
+     *
+     * @return false if the whole input is in the buffer
+     */
+    private boolean fill() {
+        if (stream == null) {
+            return false;
+        }
+        try {
+            byte[] bytes = buffer.array();
+            int remaining = buffer.limit() - position;
+            if (position == 0 && remaining == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            } else {
+                System.arraycopy(bytes, position, bytes, 0, remaining);
+            }
+            int read = stream.read(bytes, remaining, bytes.length - remaining);
+            setBuffer(ByteBuffer.wrap(bytes).limit(remaining + Math.max(read, 0)));
+            position = 0;
+            return read >= 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void setBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.view1 = buffer.duplicate();
+        this.view2 = buffer.duplicate();
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte character = buffer.get(i);
+            if (character != ' ' && character != '\r' && character != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
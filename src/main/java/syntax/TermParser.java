@@ -3,68 +3,126 @@ package syntax;
 import org.jetbrains.annotations.NotNull;
 import util.Assertions;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * This class provides methods to create syntax
  * tree of the provided first-order term.
- * This class uses recursive descent algorithm
- * to construct syntax tree.
+ * This class uses an explicit stack of the functional
+ * symbols whose arguments are being read instead of
+ * recursive descent, so the depth of the term is not
+ * limited by the size of the thread stack.
  */
 final class TermParser {
     /**
-     * Creates a new parser with provided {@code TokenIterator} instance.
+     * Creates a new parser with provided {@code TermLexer} instance.
      *
-     * @param tokenIterator a token iterator
+     * @param lexer a lexer of the input term
      */
-    TermParser(final @NotNull TokenIterator tokenIterator) {
-        this.tokenIterator = Objects.requireNonNull(tokenIterator);
+    TermParser(final @NotNull TermLexer lexer) {
+        this.lexer = Objects.requireNonNull(lexer);
     }
 
     /**
-     * A token iterator
+     * A lexer of the input term
      */
     @NotNull
-    private final TokenIterator tokenIterator;
+    private final TermLexer lexer;
 
     /**
-     * Constructs a list of the arguments of the functional symbol term.
+     * Constructs a term.
      *
-     * @return list of term nodes
+     * @return a root of the syntax tree
      */
     @NotNull
-    private List<Term> parseArguments() {
-        Assertions.require(tokenIterator.next().tokenType() == Token.Type.LEFT_PARENTHESIS,
-                "expected a left parenthesis after functional symbol");
-        List<Term> arguments = new ArrayList<>();
-        while (tokenIterator.hasNext()) {
-            arguments.add(parseTerm());
-            Token.Type tokenType = tokenIterator.next().tokenType();
-            if (tokenType == Token.Type.RIGHT_PARENTHESIS) {
-                return arguments;
+    public Term parseTerm() {
+        Deque<Frame> stack = new ArrayDeque<>();
+        TermLabels labels = new TermLabels();
+        int label = TermLabels.NO_LABEL;
+        while (true) {
+            if (!lexer.hasNext()) {
+                throw new IllegalArgumentException(stack.isEmpty()
+                        ? "Unexpected EOF while reading tokens"
+                        : "Unexpected EOF while reading arguments");
+            }
+            Token.Type tokenType = lexer.next();
+            if (tokenType == Token.Type.LABEL_DEFINITION) {
+                Assertions.require(label == TermLabels.NO_LABEL,
+                        "expected a term after a label definition");
+                label = lexer.label();
+                continue;
+            }
+            if (tokenType == Token.Type.FUNCTIONAL_SYMBOL) {
+                int symbol = lexer.symbol();
+                Assertions.require(nextArgumentToken(lexer) == Token.Type.LEFT_PARENTHESIS,
+                        "expected a left parenthesis after functional symbol");
+                stack.push(new Frame(symbol, label));
+                label = TermLabels.NO_LABEL;
+                continue;
+            }
+            Term term = tokenType == Token.Type.LABEL_REFERENCE
+                    ? labels.get(lexer.label())
+                    : Term.fromToken(tokenType, lexer.symbol());
+            labels.define(label, term);
+            label = TermLabels.NO_LABEL;
+            while (true) {
+                Frame frame = stack.peek();
+                if (frame == null) {
+                    return term;
+                }
+                frame.arguments.add(term);
+                tokenType = nextArgumentToken(lexer);
+                if (tokenType != Token.Type.RIGHT_PARENTHESIS) {
+                    Assertions.require(tokenType == Token.Type.COMMA,
+                            "expected a comma or right parenthesis after an argument");
+                    break;
+                }
+                stack.pop();
+                term = new TermWithArgs(frame.symbol, frame.arguments);
+                labels.define(frame.label, term);
             }
-            Assertions.require(tokenType == Token.Type.COMMA,
-                    "expected a comma or right parenthesis after an argument");
         }
-        throw new IllegalArgumentException("Unexpected EOF while reading arguments");
     }
 
     /**
-     * Constructs a term.
+     * Reads the next token inside the arguments of a functional symbol.
      *
-     * @return a root of the syntax tree
+     * @param lexer a lexer of the input term
+     * @return type of the read token
+     * @throws IllegalArgumentException if the input ends
      */
-    @NotNull
-    public Term parseTerm() {
-        if (!tokenIterator.hasNext()) {
-            throw new IllegalArgumentException("Unexpected EOF while reading tokens");
+    private static Token.Type nextArgumentToken(TermLexer lexer) {
+        if (!lexer.hasNext()) {
+            throw new IllegalArgumentException("Unexpected EOF while reading arguments");
         }
-        Token token = tokenIterator.next();
-        if (token.tokenType() == Token.Type.FUNCTIONAL_SYMBOL) {
-            return new TermWithArgs(token.toString(), parseArguments());
+        return lexer.next();
+    }
+
+    /**
+     * A functional symbol whose arguments are being read
+     */
+    private static final class Frame {
+        /**
+         * Symbol of the functional symbol
+         */
+        private final int symbol;
+        /**
+         * Arguments that are already read
+         */
+        private final List<Term> arguments = new ArrayList<>();
+
+        /**
+         * Label of the term or {@link TermLabels#NO_LABEL}
+         */
+        private final int label;
+
+        private Frame(final int symbol, final int label) {
+            this.symbol = symbol;
+            this.label = label;
         }
-        return Term.fromToken(token);
     }
 }
@@ -0,0 +1,292 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A printer that writes terms and substitutions to a {@link Writer}.
+ * <p>
+ * Unlike {@link Term#toString()}, the printer does not build the whole
+ * string in memory: characters are collected in a fixed buffer that is
+ * written out when it is full, and the terms are traversed with an
+ * explicit stack, so deep terms do not overflow the call stack.
+ * <p>
+ * A term that shares its subterms may be exponentially larger as a
+ * tree than as a DAG. If the printer shares subterms, a compound
+ * subterm with several parents is printed once with a label,
+ * {@code #n=f1(...)}, and every other occurrence is printed as a
+ * reference to it, {@code #n#}. The labels are numbered from 1 in
+ * the order of their first occurrence in every printed term, and
+ * {@link Term#fromString(String)} reads them back, so the parsed
+ * term is equal to the printed one. Terms without shared subterms
+ * are printed exactly as {@link Term#toString()} does.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class TermPrinter implements Flushable {
+    /**
+     * A size of the buffer of the printer
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * A writer the printed characters are written to
+     */
+    @NotNull
+    private final Writer writer;
+
+    /**
+     * True if subterms with several parents are printed once
+     */
+    private final boolean shareSubterms;
+
+    /**
+     * Characters that are not written yet
+     */
+    @NotNull
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * A number of characters in the buffer
+     */
+    private int length = 0;
+
+    /**
+     * Compound subterms whose arguments are being printed
+     */
+    @NotNull
+    private TermWithArgs[] terms = new TermWithArgs[16];
+
+    /**
+     * Indices of the arguments being printed
+     */
+    @NotNull
+    private int[] argumentIndices = new int[16];
+
+    /**
+     * Creates a new printer that prints terms as trees.
+     *
+     * @param writer a writer the printed characters are written to
+     */
+    public TermPrinter(@NotNull final Writer writer) {
+        this(writer, false);
+    }
+
+    /**
+     * Creates a new printer.
+     *
+     * @param writer a writer the printed characters are written to
+     * @param shareSubterms true if a subterm with several parents
+     *                      must be printed once and referred to by
+     *                      its label at the other occurrences
+     */
+    public TermPrinter(@NotNull final Writer writer, final boolean shareSubterms) {
+        this.writer = Objects.requireNonNull(writer);
+        this.shareSubterms = shareSubterms;
+    }
+
+    /**
+     * Creates a new printer that writes UTF-8 to the stream.
+     *
+     * @param stream a stream the printed characters are written to
+     * @param shareSubterms true if a subterm with several parents
+     *                      must be printed once and referred to by
+     *                      its label at the other occurrences
+     */
+    public TermPrinter(@NotNull final OutputStream stream, final boolean shareSubterms) {
+        this(new OutputStreamWriter(stream, StandardCharsets.UTF_8), shareSubterms);
+    }
+
+    /**
+     * Prints the term.
+     *
+     * @param term a term
+     * @return this printer
+     * @throws IOException if the writer fails
+     */
+    @NotNull
+    public TermPrinter print(@NotNull final Term term) throws IOException {
+        Map<Term, Integer> labels = shareSubterms ? sharedSubterms(term) : null;
+        int labelCount = 0;
+        int depth = 0;
+        Term current = Objects.requireNonNull(term);
+        while (true) {
+            Integer label = labels == null ? null : labels.get(current);
+            if (label != null && label > 0) {
+                append('#').append(Integer.toString(label)).append('#');
+            } else {
+                if (label != null) {
+                    labels.put(current, ++labelCount);
+                    append('#').append(Integer.toString(labelCount)).append('=');
+                }
+                append(current.getName());
+                if (current instanceof TermWithArgs termWithArgs) {
+                    append('(');
+                    List<Term> args = termWithArgs.getArgs();
+                    if (!args.isEmpty()) {
+                        if (depth == terms.length) {
+                            terms = Arrays.copyOf(terms, 2 * depth);
+                            argumentIndices = Arrays.copyOf(argumentIndices, 2 * depth);
+                        }
+                        terms[depth] = termWithArgs;
+                        argumentIndices[depth++] = 0;
+                        current = args.get(0);
+                        continue;
+                    }
+                    append(')');
+                }
+            }
+            // Close the terms whose last argument is printed
+            while (true) {
+                if (depth == 0) {
+                    return this;
+                }
+                List<Term> args = terms[depth - 1].getArgs();
+                int index = ++argumentIndices[depth - 1];
+                if (index < args.size()) {
+                    append(',');
+                    current = args.get(index);
+                    break;
+                }
+                append(')');
+                terms[--depth] = null;
+            }
+        }
+    }
+
+    /**
+     * Prints the substitution in the format of {@link Map#toString()},
+     * i.e. {@code {x1=t1, x2=t2}}. Every term is printed separately,
+     * so labels of shared subterms are not shared between terms.
+     *
+     * @param substitution a map from variables to their replacements
+     * @return this printer
+     * @throws IOException if the writer fails
+     */
+    @NotNull
+    public TermPrinter print(@NotNull final Map<Term, Term> substitution) throws IOException {
+        append('{');
+        Iterator<Map.Entry<Term, Term>> iterator = substitution.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Term, Term> entry = iterator.next();
+            print(entry.getKey());
+            append('=');
+            print(entry.getValue());
+            if (iterator.hasNext()) {
+                append(", ");
+            }
+        }
+        append('}');
+        return this;
+    }
+
+    /**
+     * Prints the characters.
+     *
+     * @param chars a character sequence
+     * @return this printer
+     * @throws IOException if the writer fails
+     */
+    @NotNull
+    public TermPrinter print(@NotNull final CharSequence chars) throws IOException {
+        return append(chars);
+    }
+
+    /**
+     * Prints the line separator.
+     *
+     * @return this printer
+     * @throws IOException if the writer fails
+     */
+    @NotNull
+    public TermPrinter println() throws IOException {
+        return append(System.lineSeparator());
+    }
+
+    /**
+     * Writes the buffered characters and flushes the writer.
+     *
+     * @throws IOException if the writer fails
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBuffer();
+        writer.flush();
+    }
+
+    /**
+     * Finds the compound subterms of the term that have several
+     * parents, or occur several times as arguments of one parent.
+     * Every node is visited once.
+     *
+     * @return a map from the shared subterms to zero
+     */
+    private static Map<Term, Integer> sharedSubterms(Term term) {
+        Map<Term, Integer> occurrences = new IdentityHashMap<>();
+        Term[] pending = new Term[16];
+        int size = 0;
+        if (term instanceof TermWithArgs) {
+            pending[size++] = term;
+        }
+        while (size > 0) {
+            Term current = pending[--size];
+            pending[size] = null;
+            for (Term arg : ((TermWithArgs) current).getArgs()) {
+                if (arg instanceof TermWithArgs && occurrences.merge(arg, 1, Integer::sum) == 1) {
+                    if (size == pending.length) {
+                        pending = Arrays.copyOf(pending, 2 * size);
+                    }
+                    pending[size++] = arg;
+                }
+            }
+        }
+        occurrences.values().removeIf(count -> count < 2);
+        occurrences.replaceAll((subterm, count) -> 0);
+        return occurrences;
+    }
+
+    private TermPrinter append(final char character) throws IOException {
+        if (length == buffer.length) {
+            writeBuffer();
+        }
+        buffer[length++] = character;
+        return this;
+    }
+
+    private TermPrinter append(final CharSequence chars) throws IOException {
+        int charCount = chars.length();
+        for (int start = 0; start < charCount; ) {
+            if (length == buffer.length) {
+                writeBuffer();
+            }
+            int end = Math.min(charCount, start + buffer.length - length);
+            if (chars instanceof String string) {
+                string.getChars(start, end, buffer, length);
+                length += end - start;
+            } else {
+                for (int i = start; i < end; i++) {
+                    buffer[length++] = chars.charAt(i);
+                }
+            }
+            start = end;
+        }
+        return this;
+    }
+
+    private void writeBuffer() throws IOException {
+        writer.write(buffer, 0, length);
+        length = 0;
+    }
+}
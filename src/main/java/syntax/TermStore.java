@@ -0,0 +1,270 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+import util.IntObjectMap;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A hash-consing factory of terms.
+ * <p>
+ * Every term built through the same store is unique: two structurally
+ * equal terms obtained from the store are represented by the same object,
+ * so they can be compared with {@code ==} and their hash codes are
+ * never recomputed by the store.
+ * <p>
+ * Note: this class is not thread-safe.
+ */
+public final class TermStore {
+    /**
+     * Unique constants by the symbols of their names
+     */
+    @NotNull
+    private final IntObjectMap<Constant> constants = new IntObjectMap<>();
+
+    /**
+     * Unique variables by the symbols of their names
+     */
+    @NotNull
+    private final IntObjectMap<Variable> variables = new IntObjectMap<>();
+
+    /**
+     * Unique terms with functional symbols by their symbols
+     * and (already unique) arguments
+     */
+    @NotNull
+    private final Map<CompoundKey, TermWithArgs> compounds = new HashMap<>();
+
+    /**
+     * Returns the unique constant with provided name.
+     *
+     * @param name name of the constant
+     * @return the unique constant with provided name
+     */
+    @NotNull
+    public Constant constant(@NotNull final String name) {
+        return constant(SymbolTable.global().intern(Objects.requireNonNull(name)));
+    }
+
+    /**
+     * Returns the unique constant with provided symbol.
+     *
+     * @param symbol id of the name of the constant
+     * @return the unique constant with provided symbol
+     */
+    @NotNull
+    Constant constant(final int symbol) {
+        Constant constant = constants.get(symbol);
+        if (constant == null) {
+            constant = new Constant(symbol);
+            constants.putIfAbsent(symbol, constant);
+        }
+        return constant;
+    }
+
+    /**
+     * Returns the unique variable with provided name.
+     *
+     * @param name name of the variable
+     * @return the unique variable with provided name
+     */
+    @NotNull
+    public Variable variable(@NotNull final String name) {
+        return variable(SymbolTable.global().intern(Objects.requireNonNull(name)));
+    }
+
+    /**
+     * Returns the unique variable with provided symbol.
+     *
+     * @param symbol id of the name of the variable
+     * @return the unique variable with provided symbol
+     */
+    @NotNull
+    Variable variable(final int symbol) {
+        Variable variable = variables.get(symbol);
+        if (variable == null) {
+            variable = new Variable(symbol);
+            variables.putIfAbsent(symbol, variable);
+        }
+        return variable;
+    }
+
+    /**
+     * Returns the unique term with provided functional symbol
+     * and arguments. Arguments must be obtained from this store.
+     *
+     * @param name name of the functional symbol
+     * @param args unique arguments of the term
+     * @return the unique term with provided functional symbol
+     *         and arguments
+     */
+    @NotNull
+    public TermWithArgs function(
+            @NotNull final String name,
+            @NotNull final List<Term> args) {
+        return function(SymbolTable.global().intern(Objects.requireNonNull(name)), args);
+    }
+
+    /**
+     * Returns the unique term with provided functional symbol
+     * and arguments. Arguments must be obtained from this store.
+     *
+     * @param symbol id of the name of the functional symbol
+     * @param args unique arguments of the term
+     * @return the unique term with provided functional symbol
+     *         and arguments
+     */
+    @NotNull
+    TermWithArgs function(
+            final int symbol,
+            @NotNull final List<Term> args) {
+        Term[] argArray = args.toArray(Term[]::new);
+        return compounds.computeIfAbsent(
+                new CompoundKey(symbol, argArray),
+                key -> new TermWithArgs(symbol, Arrays.asList(argArray)));
+    }
+
+    /**
+     * Returns the unique term that is structurally equal
+     * to the provided term. Shared subterms of the provided
+     * term are processed only once.
+     *
+     * @param term a term
+     * @return the unique term that is equal to the provided one
+     */
+    @NotNull
+    public Term intern(@NotNull final Term term) {
+        if (term instanceof Constant) {
+            return constant(term.getSymbol());
+        }
+        if (term instanceof Variable) {
+            return variable(term.getSymbol());
+        }
+        return intern(Objects.requireNonNull(term), new IdentityHashMap<>());
+    }
+
+    /**
+     * Returns the number of unique terms in this store.
+     *
+     * @return the number of unique terms in this store
+     */
+    public int size() {
+        return constants.size() + variables.size() + compounds.size();
+    }
+
+    /**
+     * Returns the unique term created from provided token.
+     *
+     * @param token a token of constant or variable
+     * @return the unique term created from provided token
+     */
+    @NotNull
+    Term fromToken(@NotNull final Token token) {
+        return fromToken(token.tokenType(), token.symbol());
+    }
+
+    /**
+     * Returns the unique term created from provided token type
+     * and symbol.
+     *
+     * @param tokenType type of constant or variable token
+     * @param symbol symbol of the token
+     * @return the unique term created from provided token
+     */
+    @NotNull
+    Term fromToken(@NotNull final Token.Type tokenType, final int symbol) {
+        return switch (tokenType) {
+            case CONSTANT -> constant(symbol);
+            case VARIABLE -> variable(symbol);
+            default -> throw new IllegalArgumentException("illegal token type");
+        };
+    }
+
+    /**
+     * Interns provided term. Nodes are interned in post-order
+     * with an explicit stack, so deep terms do not overflow the
+     * call stack.
+     *
+     * @param root a term
+     * @param interned already interned subterms of the input term
+     * @return the unique term that is equal to the provided one
+     */
+    private Term intern(Term root, Map<Term, Term> interned) {
+        Deque<Term> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Term term = stack.peek();
+            if (interned.containsKey(term)) {
+                stack.pop();
+                continue;
+            }
+            if (term instanceof Constant) {
+                interned.put(stack.pop(), constant(term.getSymbol()));
+                continue;
+            }
+            if (term instanceof Variable) {
+                interned.put(stack.pop(), variable(term.getSymbol()));
+                continue;
+            }
+            List<Term> args = ((TermWithArgs) term).getArgs();
+            boolean ready = true;
+            for (Term arg : args) {
+                if (!interned.containsKey(arg)) {
+                    stack.push(arg);
+                    ready = false;
+                }
+            }
+            if (!ready) {
+                continue;
+            }
+            stack.pop();
+            Term[] newArgs = new Term[args.size()];
+            for (int i = 0; i < newArgs.length; i++) {
+                newArgs[i] = interned.get(args.get(i));
+            }
+            interned.put(term, function(term.getSymbol(), Arrays.asList(newArgs)));
+        }
+        return interned.get(root);
+    }
+
+    /**
+     * A key of the term with functional symbol.
+     * Arguments are compared by identity since
+     * they are unique.
+     *
+     * @param symbol id of the name of the functional symbol
+     * @param args unique arguments
+     */
+    private record CompoundKey(int symbol, Term[] args) {
+        @Override
+        public int hashCode() {
+            int hash = symbol;
+            for (Term arg : args) {
+                hash = 31 * hash + System.identityHashCode(arg);
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CompoundKey other)
+                    || symbol != other.symbol
+                    || args.length != other.args.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] != other.args[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
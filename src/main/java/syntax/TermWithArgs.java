@@ -2,8 +2,6 @@ package syntax;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -13,20 +11,61 @@ import java.util.List;
  */
 public final class TermWithArgs extends Term {
     /**
-     * A list that contains children nodes of this term
+     * An immutable list that contains children nodes of this term
      */
     private final List<Term> args;
 
+    /**
+     * A structural hash code of this term computed
+     * from hash codes of the children
+     */
+    private final int hash;
+
+    /**
+     * A number of nodes in the syntax tree rooted at this term
+     */
+    private final long size;
+
+    /**
+     * A number of nodes in the longest path from this term
+     * to a leaf node
+     */
+    private final int depth;
+
+    /**
+     * A union of the variable masks of the children
+     */
+    private final long variableMask;
+
     /**
      * Creates a functional symbol term node with provided name.
      * @param name name of the functional symbol
      */
     TermWithArgs(final @NotNull String name) {
-        this(name, new ArrayList<>());
+        this(name, List.of());
+    }
+
+    /**
+     * Constructs a new term with provided symbol and list of arguments.
+     *
+     * @param symbol id of the name of this term
+     * @param arguments list of arguments of this term
+     */
+    TermWithArgs(
+            final int symbol,
+            final @NotNull List<Term> arguments) {
+        super(symbol);
+        this.args = List.copyOf(arguments);
+        this.hash = computeHash();
+        this.size = computeSize();
+        this.depth = computeDepth();
+        this.variableMask = computeVariableMask();
     }
 
     /**
-     * Constructs a new term with provided name and list of arguments
+     * Constructs a new term with provided name and list of arguments.
+     * Hash code, size and depth of the term are computed once
+     * from the corresponding values of the arguments.
      *
      * @param name name of this term
      * @param arguments list of arguments of this term
@@ -35,8 +74,69 @@ public final class TermWithArgs extends Term {
             final @NotNull String name,
             final @NotNull List<Term> arguments) {
         super(name);
-        arguments.forEach(arg -> arg.addParent(this));
-        this.args = arguments;
+        this.args = List.copyOf(arguments);
+        this.hash = computeHash();
+        this.size = computeSize();
+        this.depth = computeDepth();
+        this.variableMask = computeVariableMask();
+    }
+
+    /**
+     * Computes the structural hash code from the
+     * hash codes of the arguments.
+     *
+     * @return hash code of this term
+     */
+    private int computeHash() {
+        int argsHash = 1;
+        for (Term arg : args) {
+            argsHash = 31 * argsHash + arg.hashCode();
+        }
+        return 31 * getSymbol() + argsHash;
+    }
+
+    /**
+     * Computes the number of nodes of the syntax tree
+     * from the sizes of the arguments.
+     *
+     * @return size of this term
+     */
+    private long computeSize() {
+        long treeSize = 1;
+        for (Term arg : args) {
+            treeSize += arg.size();
+            if (treeSize < 0) {
+                treeSize = Long.MAX_VALUE;
+            }
+        }
+        return treeSize;
+    }
+
+    /**
+     * Computes the depth of the syntax tree
+     * from the depths of the arguments.
+     *
+     * @return depth of this term
+     */
+    private int computeDepth() {
+        int maxArgDepth = 0;
+        for (Term arg : args) {
+            maxArgDepth = Math.max(maxArgDepth, arg.depth());
+        }
+        return maxArgDepth + 1;
+    }
+
+    /**
+     * Computes the variable mask from the masks of the arguments.
+     *
+     * @return variable mask of this term
+     */
+    private long computeVariableMask() {
+        long mask = 0;
+        for (Term arg : args) {
+            mask |= arg.variableMask();
+        }
+        return mask;
     }
 
     @Override
@@ -54,18 +154,39 @@ public final class TermWithArgs extends Term {
         return sb;
     }
 
+    /**
+     * Returns a list that contains children nodes of this node.
+     * Note that returned list is immutable.
+     *
+     * @return immutable list of children term nodes
+     */
     public @NotNull List<Term> getArgs() {
-        return Collections.unmodifiableList(args);
+        return args;
     }
 
     @Override
     public boolean isLeafNode() {
-        return getArgs().isEmpty();
+        return args.isEmpty();
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public int depth() {
+        return depth;
+    }
+
+    @Override
+    public long variableMask() {
+        return variableMask;
     }
 
     @Override
     public int hashCode() {
-        return 31 * getName().hashCode() + getArgs().hashCode();
+        return hash;
     }
 
     @Override
@@ -73,8 +194,9 @@ public final class TermWithArgs extends Term {
         if (this == obj)
             return true;
         if (obj instanceof TermWithArgs termWithArgs) {
-            return getName().equals(termWithArgs.getName())
-                    && getArgs().equals(termWithArgs.getArgs());
+            return hash == termWithArgs.hash
+                    && nameEquals(termWithArgs)
+                    && args.equals(termWithArgs.args);
         }
         return false;
     }
@@ -6,13 +6,45 @@ import org.jetbrains.annotations.NotNull;
  * A record class to store token data.
  *
  * @param tokenType type of the token
- * @param optionalIndex index of token. Note: only constants,
- *                      variables, and functional symbols can have index.
+ * @param symbol id of the name of the token in the
+ *               {@link SymbolTable#global() global symbol table}.
+ *               Note: only constants, variables, and functional
+ *               symbols have names. Punctuation tokens have
+ *               symbol {@link #NO_SYMBOL}.
  */
 record Token(
         Token.Type tokenType,
-        String optionalIndex
+        int symbol
 ) {
+    /**
+     * A symbol of the punctuation tokens
+     */
+    static final int NO_SYMBOL = -1;
+
+    /**
+     * Creates a token with provided type and index.
+     *
+     * @param tokenType type of the token
+     * @param optionalIndex index of token. Note: only constants,
+     *                      variables, and functional symbols can have index.
+     */
+    Token(Token.Type tokenType, String optionalIndex) {
+        this(tokenType, tokenType.isNamed()
+                ? SymbolTable.global().intern(tokenType.relatedCharacter + optionalIndex)
+                : NO_SYMBOL);
+    }
+
+    /**
+     * Returns the index of the token, i.e. its name
+     * without the prefix character.
+     *
+     * @return index of the token or an empty string if
+     *         the token is a punctuation token
+     */
+    @NotNull
+    public String optionalIndex() {
+        return symbol == NO_SYMBOL ? "" : toString().substring(1);
+    }
 
     /**
      * Returns a string representation of the token.
@@ -20,7 +52,9 @@ record Token(
     @NotNull
     @Override
     public String toString() {
-        return String.format("%c%s", tokenType.relatedCharacter, optionalIndex);
+        return symbol == NO_SYMBOL
+                ? String.valueOf(tokenType.relatedCharacter)
+                : SymbolTable.global().name(symbol);
     }
 
     /**
@@ -50,7 +84,16 @@ record Token(
         /**
          * A comma token
          */
-        COMMA(',');
+        COMMA(','),
+        /**
+         * A definition of a label of a shared subterm, {@code #n=},
+         * that precedes the subterm
+         */
+        LABEL_DEFINITION('='),
+        /**
+         * A reference to a labeled subterm, {@code #n#}
+         */
+        LABEL_REFERENCE('#');
 
         /**
          * A character (or prefix) associated with this token type.
@@ -66,5 +109,14 @@ record Token(
             this.relatedCharacter = relatedCharacter;
         }
 
+        /**
+         * Returns true if tokens of this type have names.
+         *
+         * @return true if this is a type of constant, variable
+         *         or functional symbol tokens
+         */
+        boolean isNamed() {
+            return this == VARIABLE || this == CONSTANT || this == FUNCTIONAL_SYMBOL;
+        }
     }
 }
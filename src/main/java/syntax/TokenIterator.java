@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -57,6 +58,13 @@ final class TokenIterator implements Iterator<Token> {
      */
     private boolean firstTime = true;
 
+    /**
+     * A buffer that contains the name of the current token.
+     * It is reused between tokens.
+     */
+    @NotNull
+    private char[] nameBuffer = new char[16];
+
     /**
      * An iterator over characters of the input term
      */
@@ -175,22 +183,28 @@ final class TokenIterator implements Iterator<Token> {
 
     /**
      * Reads letters and digits from
-     * {@code characterIterator}
+     * {@code characterIterator} and looks up
+     * the name that consists of the prefix and read
+     * characters in the global symbol table.
      *
-     * @return string of digits
+     * @param prefix a prefix character of the name
+     * @return id of the name
      */
-    @NotNull
-    private String readLettersAndDigits() {
-        StringBuilder sb = new StringBuilder();
+    private int readName(final char prefix) {
+        nameBuffer[0] = prefix;
+        int length = 1;
         while (characterIterator.current() != CharacterIterator.DONE) {
             char currentChar = readSymbol();
             if (!isLetterOrDigit(currentChar)) {
                 unreadSymbol();
                 break;
             }
-            sb.append(currentChar);
+            if (length == nameBuffer.length) {
+                nameBuffer = Arrays.copyOf(nameBuffer, 2 * length);
+            }
+            nameBuffer[length++] = currentChar;
         }
-        return sb.toString();
+        return SymbolTable.global().intern(nameBuffer, 0, length);
     }
 
     @Override
@@ -206,11 +220,11 @@ final class TokenIterator implements Iterator<Token> {
         }
         char currentChar = readSymbolUntilNonWhitespace();
         if (isNamedTokenPrefix(currentChar)) {
-            String index = readLettersAndDigits();
-            return new Token(TOKEN_TYPE.get(currentChar),  index);
+            int symbol = readName(currentChar);
+            return new Token(TOKEN_TYPE.get(currentChar), symbol);
 
         } else if (isPunctuationToken(currentChar)) {
-            return new Token(TOKEN_TYPE.get(currentChar),  "");
+            return new Token(TOKEN_TYPE.get(currentChar), Token.NO_SYMBOL);
         } else {
             throw new IllegalArgumentException(
                     String.format("invalid character %c (code point %d)", currentChar, (int) currentChar));
@@ -0,0 +1,68 @@
+package syntax;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class provides an ability to iterate over nodes of
+ * a term DAG in topological order: every node is visited after
+ * all its parents and before all its children. A node that is
+ * shared by several parents is visited once, so the traversal
+ * takes time linear in the size of the DAG. Nodes are compared
+ * by identity.
+ * <p>
+ * The order is the reverse of the {@link PostOrderTermIterator
+ * post-order}, so all the nodes are collected when the
+ * iterator is created.
+ */
+public final class TopologicalTermIterator implements Iterator<Term> {
+    /**
+     * Nodes in post-order
+     */
+    private final List<Term> postOrder = new ArrayList<>();
+    /**
+     * Index of the next node in the post-order
+     */
+    private int index;
+
+    /**
+     * Creates a new iterator over the nodes of the term.
+     *
+     * @param root root node of the term
+     */
+    public TopologicalTermIterator(final @NotNull Term root) {
+        this(new PostOrderTermIterator(root));
+    }
+
+    /**
+     * Creates a new iterator over the nodes of both terms of the
+     * pair. A node shared by the terms is visited once.
+     *
+     * @param termPair a pair of terms
+     */
+    public TopologicalTermIterator(final @NotNull TermPair termPair) {
+        this(new PostOrderTermIterator(termPair));
+    }
+
+    private TopologicalTermIterator(final PostOrderTermIterator postOrderIterator) {
+        postOrderIterator.forEachRemaining(postOrder::add);
+        index = postOrder.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index > 0;
+    }
+
+    @Override
+    public Term next() {
+        if (index == 0) {
+            throw new NoSuchElementException();
+        }
+        return postOrder.get(--index);
+    }
+}
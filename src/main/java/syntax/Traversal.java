@@ -0,0 +1,21 @@
+package syntax;
+
+/**
+ * A way the iterators visit the nodes of a term that
+ * are shared by several parents.
+ */
+public enum Traversal {
+    /**
+     * Every occurrence of a node is visited, as if the term was
+     * a syntax tree. A node that is reachable by {@code k} paths
+     * is visited {@code k} times, so a traversal of a DAG may take
+     * time exponential in its size.
+     */
+    TREE,
+    /**
+     * Every node is visited once, at its first occurrence. Nodes
+     * are compared by identity, so a traversal takes time linear
+     * in the size of the DAG.
+     */
+    DAG
+}
@@ -14,6 +14,14 @@ public final class Variable extends Term {
         super(name);
     }
 
+    /**
+     * Creates a variable term node with provided symbol.
+     * @param symbol id of the name of the variable
+     */
+    Variable(final int symbol) {
+        super(symbol);
+    }
+
     @Override
     protected @NotNull StringBuilder constructTermString(@NotNull StringBuilder sb) {
         return sb.append(getName());
@@ -24,10 +32,29 @@ public final class Variable extends Term {
         return true;
     }
 
+    @Override
+    public long size() {
+        return 1;
+    }
+
+    @Override
+    public int depth() {
+        return 1;
+    }
+
+    /**
+     * Returns the bit of this variable. The bit is chosen by the
+     * high bits of the multiplicative hash of the symbol, so the
+     * variables of one term rarely share a bit.
+     */
+    @Override
+    public long variableMask() {
+        return 1L << (getSymbol() * 0x9E3779B9 >>> 26);
+    }
 
     @Override
     public int hashCode() {
-        return getName().hashCode();
+        return getSymbol();
     }
 
     @Override
@@ -35,7 +62,7 @@ public final class Variable extends Term {
         if (this == obj)
             return true;
         if (obj instanceof Variable variable) {
-            return getName().equals(variable.getName());
+            return getSymbol() == variable.getSymbol();
         }
         return false;
     }
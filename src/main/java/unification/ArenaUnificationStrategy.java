@@ -0,0 +1,37 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import syntax.TermArena;
+
+/**
+ * This interface describes a unification strategy
+ * that works directly on the compact {@link TermArena}
+ * representation of terms.
+ */
+public interface ArenaUnificationStrategy {
+    /**
+     * Finds a unifier of two terms stored in the arena.
+     *
+     * @param arena an arena that contains both terms
+     * @param node1 a node of the first term
+     * @param node2 a node of the second term
+     * @return Result of unification of two terms.
+     */
+    @NotNull
+    UnificationResult findUnifier(
+            @NotNull final TermArena arena,
+            final int node1,
+            final int node2);
+
+    /**
+     * Finds a unifier of the first two terms stored in the arena.
+     *
+     * @param arena an arena built from a pair of terms
+     * @return Result of unification of two terms.
+     * @see TermArena#fromTermPair(syntax.TermPair)
+     */
+    @NotNull
+    default UnificationResult findUnifier(@NotNull final TermArena arena) {
+        return findUnifier(arena, arena.root(0), arena.root(1));
+    }
+}
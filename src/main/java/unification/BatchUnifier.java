@@ -0,0 +1,418 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import syntax.TermPair;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Unifies many independent pairs of terms in parallel.
+ * <p>
+ * Pairs are split into chunks, and every chunk is unified by one task
+ * of the provided executor. A task borrows the {@link UnificationContext}
+ * of its worker thread once and reuses it for all the pairs of the chunk,
+ * so the working tables are reused by each worker across the batch.
+ * Any {@link Executor} may be used, e.g. a {@link ForkJoinPool} or,
+ * on Java 21 and later, a virtual-thread-per-task executor.
+ * <p>
+ * The strategy is shared by all the workers, so it must be thread-safe.
+ * Strategies of this library are thread-safe unless they are created
+ * with a {@link syntax.TermStore}. Terms are immutable, so pairs
+ * of one batch may share term instances, e.g. may be parsed
+ * with the same {@code TermStore}.
+ */
+public final class BatchUnifier {
+    /**
+     * A default number of pairs unified by one task
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * A strategy that unifies the pairs
+     */
+    @NotNull
+    private final UnificationStrategy strategy;
+
+    /**
+     * An executor that runs the tasks
+     */
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * A number of pairs unified by one task
+     */
+    private final int chunkSize;
+
+    /**
+     * A maximal number of chunks that are submitted to the executor
+     * but not consumed yet by {@link #unifyAsCompleted(Iterator)}
+     */
+    private final int maxChunksInFlight;
+
+    /**
+     * Creates a new batch unifier that runs the tasks in the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param strategy a thread-safe unification strategy
+     */
+    public BatchUnifier(@NotNull final UnificationStrategy strategy) {
+        this(strategy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new batch unifier that runs the tasks in the
+     * provided executor.
+     *
+     * @param strategy a thread-safe unification strategy
+     * @param executor an executor
+     */
+    public BatchUnifier(
+            @NotNull final UnificationStrategy strategy,
+            @NotNull final Executor executor) {
+        this(strategy, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new batch unifier that runs the tasks in the
+     * provided executor.
+     *
+     * @param strategy a thread-safe unification strategy
+     * @param executor an executor
+     * @param chunkSize a number of pairs unified by one task
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public BatchUnifier(
+            @NotNull final UnificationStrategy strategy,
+            @NotNull final Executor executor,
+            final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Chunk size must be positive, got %d", chunkSize));
+        }
+        this.strategy = Objects.requireNonNull(strategy);
+        this.executor = Objects.requireNonNull(executor);
+        this.chunkSize = chunkSize;
+        int parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.maxChunksInFlight = 4 * parallelism;
+    }
+
+    /**
+     * Unifies all the pairs of the list.
+     *
+     * @param termPairs pairs of terms
+     * @return results of unification in the order of the pairs
+     */
+    @NotNull
+    public List<UnificationResult> unifyAll(@NotNull final List<TermPair> termPairs) {
+        return unifyAll(termPairs.iterator());
+    }
+
+    /**
+     * Unifies all the pairs of the stream.
+     *
+     * @param termPairs pairs of terms
+     * @return results of unification in the order of the pairs
+     */
+    @NotNull
+    public List<UnificationResult> unifyAll(@NotNull final Stream<TermPair> termPairs) {
+        return unifyAll(termPairs.iterator());
+    }
+
+    /**
+     * Unifies all the pairs of the iterator. Pairs are read
+     * by the calling thread and submitted in chunks, so the
+     * unification of the first chunks overlaps with reading
+     * the rest of the pairs.
+     *
+     * @param termPairs pairs of terms
+     * @return results of unification in the order of the pairs
+     */
+    @NotNull
+    public List<UnificationResult> unifyAll(@NotNull final Iterator<TermPair> termPairs) {
+        Objects.requireNonNull(termPairs);
+        List<CompletableFuture<UnificationResult[]>> chunks = new ArrayList<>();
+        while (termPairs.hasNext()) {
+            TermPair[] chunk = nextChunk(termPairs);
+            chunks.add(CompletableFuture.supplyAsync(() -> unifyChunk(chunk), executor));
+        }
+        List<UnificationResult> results = new ArrayList<>(chunks.size() * chunkSize);
+        for (CompletableFuture<UnificationResult[]> chunk : chunks) {
+            results.addAll(Arrays.asList(join(chunk)));
+        }
+        return results;
+    }
+
+    /**
+     * Unifies all the pairs of the iterator and returns the
+     * results as soon as they are found. Results of the pairs
+     * of one chunk are returned together, in the order of the
+     * pairs. Chunks are returned in the order of completion.
+     * <p>
+     * Pairs are read lazily while the returned stream is
+     * consumed, and only a bounded number of chunks is in
+     * flight at any moment, so arbitrarily long inputs can be
+     * processed in constant memory.
+     *
+     * @param termPairs pairs of terms
+     * @return a sequential stream of results with the indices
+     *         of the corresponding pairs
+     */
+    @NotNull
+    public Stream<IndexedResult> unifyAsCompleted(@NotNull final Iterator<TermPair> termPairs) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                        new CompletionIterator<>(Objects.requireNonNull(termPairs), false, result -> result),
+                        Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Unifies all the pairs of the iterator and returns the
+     * results in the order of the pairs.
+     * <p>
+     * Like {@link #unifyAsCompleted(Iterator)}, pairs are read lazily
+     * and only a bounded number of chunks is in flight, so the results
+     * may be streamed to the output while the input is being read.
+     * A slow chunk delays the results of the chunks after it, but
+     * the workers keep unifying them meanwhile.
+     *
+     * @param termPairs pairs of terms
+     * @return a sequential stream of results with the indices
+     *         of the corresponding pairs in the order of the pairs
+     */
+    @NotNull
+    public Stream<IndexedResult> unifyInOrder(@NotNull final Iterator<TermPair> termPairs) {
+        return unifyInOrder(termPairs, result -> result);
+    }
+
+    /**
+     * Unifies all the pairs of the iterator, converts the results
+     * with the mapper and returns them in the order of the pairs.
+     * <p>
+     * The mapper is applied on the worker threads as soon as a pair
+     * is unified, so expensive conversions, e.g. building the domain
+     * of the unifier or formatting it for the output, run in parallel,
+     * and the calling thread only consumes the converted results.
+     * The mapper must be thread-safe and must not return {@code null}.
+     *
+     * @param termPairs pairs of terms
+     * @param mapper a function that converts the result of a pair
+     * @param <T> type of the converted results
+     * @return a sequential stream of the converted results
+     *         in the order of the pairs
+     * @see #unifyInOrder(Iterator)
+     */
+    @NotNull
+    public <T> Stream<T> unifyInOrder(
+            @NotNull final Iterator<TermPair> termPairs,
+            @NotNull final Function<? super IndexedResult, ? extends T> mapper) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                        new CompletionIterator<T>(
+                                Objects.requireNonNull(termPairs), true, Objects.requireNonNull(mapper)),
+                        Spliterator.NONNULL | Spliterator.ORDERED),
+                false);
+    }
+
+    /**
+     * Unifies all the pairs of the stream and returns the
+     * results as soon as they are found.
+     *
+     * @param termPairs pairs of terms
+     * @return a sequential stream of results with the indices
+     *         of the corresponding pairs
+     * @see #unifyAsCompleted(Iterator)
+     */
+    @NotNull
+    public Stream<IndexedResult> unifyAsCompleted(@NotNull final Stream<TermPair> termPairs) {
+        return unifyAsCompleted(termPairs.iterator());
+    }
+
+    /**
+     * Reads the next chunk of pairs.
+     */
+    private TermPair[] nextChunk(Iterator<TermPair> termPairs) {
+        TermPair[] chunk = new TermPair[chunkSize];
+        int size = 0;
+        while (size < chunkSize && termPairs.hasNext()) {
+            chunk[size++] = Objects.requireNonNull(termPairs.next());
+        }
+        return size == chunkSize ? chunk : Arrays.copyOf(chunk, size);
+    }
+
+    /**
+     * Unifies the pairs of the chunk with the context
+     * of the current thread.
+     */
+    private UnificationResult[] unifyChunk(TermPair[] chunk) {
+        UnificationResult[] results = new UnificationResult[chunk.length];
+        try (UnificationContext context = UnificationContext.acquire()) {
+            for (int i = 0; i < chunk.length; i++) {
+                results[i] = strategy.findUnifier(chunk[i], context);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Waits for the chunk and rethrows the exception
+     * of the failed task as is.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A result of unification of one pair of the batch.
+     *
+     * @param index index of the pair in the input
+     * @param termPair the pair
+     * @param result result of unification of the pair
+     */
+    public record IndexedResult(
+            long index,
+            @NotNull TermPair termPair,
+            @NotNull UnificationResult result
+    ) {
+    }
+
+    /**
+     * An iterator over results that submits chunks on demand
+     * and returns them as they complete or in the order of
+     * submission. Results are converted by the tasks.
+     *
+     * @param <T> type of the converted results
+     */
+    private final class CompletionIterator<T> implements Iterator<T> {
+        /**
+         * Input pairs
+         */
+        @NotNull
+        private final Iterator<TermPair> termPairs;
+        /**
+         * True if chunks are returned in the order of submission
+         */
+        private final boolean inOrder;
+        /**
+         * A function that converts the results on the worker threads
+         */
+        @NotNull
+        private final Function<? super IndexedResult, ? extends T> mapper;
+        /**
+         * Completed chunks if chunks are returned as they complete
+         */
+        @NotNull
+        private final BlockingQueue<CompletableFuture<Object[]>> completed =
+                new LinkedBlockingQueue<>();
+        /**
+         * Submitted chunks if chunks are returned in the order of submission
+         */
+        @NotNull
+        private final Queue<CompletableFuture<Object[]>> submitted = new ArrayDeque<>();
+        /**
+         * A number of submitted chunks that are not taken from the queue yet
+         */
+        private int chunksInFlight = 0;
+        /**
+         * Index of the first pair of the next chunk
+         */
+        private long nextIndex = 0;
+        /**
+         * Converted results of the current chunk
+         */
+        private Object[] current = new Object[0];
+        /**
+         * Index of the next result of the current chunk
+         */
+        private int position = 0;
+
+        private CompletionIterator(
+                @NotNull final Iterator<TermPair> termPairs,
+                final boolean inOrder,
+                @NotNull final Function<? super IndexedResult, ? extends T> mapper) {
+            this.termPairs = termPairs;
+            this.inOrder = inOrder;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == current.length) {
+                while (chunksInFlight < maxChunksInFlight && termPairs.hasNext()) {
+                    submit(nextChunk(termPairs));
+                }
+                if (chunksInFlight == 0) {
+                    return false;
+                }
+                try {
+                    current = join(inOrder ? submitted.remove() : completed.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for results", e);
+                }
+                chunksInFlight--;
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (T) current[position++];
+        }
+
+        private void submit(TermPair[] chunk) {
+            long firstIndex = nextIndex;
+            nextIndex += chunk.length;
+            chunksInFlight++;
+            CompletableFuture<Object[]> future = CompletableFuture.supplyAsync(() -> {
+                UnificationResult[] results = unifyChunk(chunk);
+                Object[] mappedResults = new Object[chunk.length];
+                for (int i = 0; i < chunk.length; i++) {
+                    mappedResults[i] = mapper.apply(new IndexedResult(firstIndex + i, chunk[i], results[i]));
+                }
+                return mappedResults;
+            }, executor);
+            if (inOrder) {
+                submitted.add(future);
+            } else {
+                future.whenComplete((results, exception) -> completed.add(future));
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermWithArgs;
+import syntax.Variable;
+import util.Assertions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A unification strategy that remembers the results of another one.
+ * <p>
+ * A pair is keyed by its structure: the symbols and arities of its
+ * nodes in pre-order, where the variables are numbered in the order of
+ * their first occurrence in the pair. Pairs that differ only in the
+ * names of their variables have the same key, so a result found for
+ * one pair is reused for all its renamings: the unifier is renamed
+ * back to the variables of the asked pair when its bindings are
+ * requested. If the asked pair has the
+ * same variables as the cached one, the cached result is returned
+ * as is.
+ * <p>
+ * The cache is bounded and split into segments by the hash of the key.
+ * Every segment is an LRU list that is locked on access, so threads that
+ * ask different pairs rarely wait for each other. Pairs with more than
+ * {@link #MAX_KEY_LENGTH} nodes in their syntax trees are not cached.
+ * <p>
+ * This class is thread-safe if the underlying strategy is thread-safe.
+ */
+public final class CachingUnificationStrategy implements UnificationStrategy {
+    /**
+     * A default maximum number of cached pairs
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1 << 16;
+
+    /**
+     * A maximum number of nodes of the syntax trees of a cached pair
+     */
+    public static final int MAX_KEY_LENGTH = 1 << 16;
+
+    /**
+     * A number of segments of the cache
+     */
+    private static final int SEGMENT_COUNT = 16;
+
+    /**
+     * Tags of the nodes in the keys
+     */
+    private static final int CONSTANT = 1;
+    private static final int FUNCTION = 2;
+    private static final int VARIABLE = 3;
+
+    /**
+     * A strategy whose results are cached
+     */
+    @NotNull
+    private final UnificationStrategy strategy;
+
+    /**
+     * Segments of the cache
+     */
+    @NotNull
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new strategy that caches at most
+     * {@link #DEFAULT_MAXIMUM_SIZE} results of the provided one.
+     *
+     * @param strategy a strategy whose results are cached
+     */
+    public CachingUnificationStrategy(@NotNull final UnificationStrategy strategy) {
+        this(strategy, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a new strategy that caches at most the provided
+     * number of results of the provided strategy.
+     *
+     * @param strategy a strategy whose results are cached
+     * @param maximumSize a maximum number of cached pairs
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive
+     */
+    public CachingUnificationStrategy(
+            @NotNull final UnificationStrategy strategy,
+            final int maximumSize) {
+        Assertions.require(maximumSize > 0, "Maximum size must be positive");
+        this.strategy = Objects.requireNonNull(strategy);
+        int segmentCount = Math.min(SEGMENT_COUNT, Integer.highestOneBit(maximumSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    @Override
+    public @NotNull UnificationResult findUnifier(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        Key key = Key.of(Objects.requireNonNull(termPair));
+        if (key == null) {
+            return strategy.findUnifier(termPair, context);
+        }
+        Segment segment = segmentOf(key);
+        Entry entry = segment.get(key);
+        if (entry != null && entry.result != null) {
+            hits.increment();
+            return entry.renamedResult(key.variables);
+        }
+        misses.increment();
+        UnificationResult result = strategy.findUnifier(termPair, context);
+        segment.put(key, new Entry(key.variables, result, result.isUnifiable()));
+        return result;
+    }
+
+    @Override
+    public boolean isUnifiable(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        Key key = Key.of(Objects.requireNonNull(termPair));
+        if (key == null) {
+            return strategy.isUnifiable(termPair, context);
+        }
+        Segment segment = segmentOf(key);
+        Entry entry = segment.get(key);
+        if (entry != null) {
+            hits.increment();
+            return entry.isUnifiable;
+        }
+        misses.increment();
+        boolean isUnifiable = strategy.isUnifiable(termPair, context);
+        // A negative answer is a complete result, a positive one
+        // is completed by the first call of findUnifier
+        segment.put(key, new Entry(key.variables,
+                isUnifiable ? null : UnificationResult.notUnifiable(), isUnifiable));
+        return isUnifiable;
+    }
+
+    /**
+     * Returns the statistics of the cache.
+     *
+     * @return the statistics of the cache
+     */
+    @NotNull
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    /**
+     * Returns the number of cached pairs.
+     *
+     * @return the number of cached pairs
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all the cached pairs. The statistics are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Statistics of the cache.
+     *
+     * @param hits a number of lookups that found a cached result
+     * @param misses a number of lookups that did not find a cached result
+     * @param evictions a number of results removed to bound the size
+     * @param size a number of cached pairs
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        /**
+         * Returns the ratio of the hits to all the lookups.
+         *
+         * @return the ratio of the hits or 0 if there were no lookups
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Returns the segment of the key. The segment is chosen by the
+     * high bits of the mixed hash, so the hash tables of the segments
+     * still get keys with all the values of the low bits.
+     */
+    private Segment segmentOf(Key key) {
+        long mixed = key.hash * 0x9E3779B9L & 0xFFFFFFFFL;
+        return segments[(int) (mixed * segments.length >>> 32)];
+    }
+
+    /**
+     * A structure of a pair with the variables numbered in the
+     * order of their first occurrence, and the variables themselves.
+     */
+    private static final class Key {
+        private final int[] codes;
+        private final int hash;
+        /**
+         * Variables of the pair in the order of their
+         * numbers, they are not a part of the key
+         */
+        private final Term[] variables;
+
+        private Key(final int[] codes, final Term[] variables) {
+            this.codes = codes;
+            this.hash = Arrays.hashCode(codes);
+            this.variables = variables;
+        }
+
+        /**
+         * Encodes the pair. Every node is one code: the symbol or
+         * the number of the variable and the tag of the node. A code
+         * of a functional symbol is followed by its arity.
+         *
+         * @return the key or {@code null} if the pair is too large
+         */
+        @Nullable
+        private static Key of(TermPair termPair) {
+            long treeSize = termPair.term1().size() + termPair.term2().size();
+            if (treeSize < 0 || treeSize > MAX_KEY_LENGTH) {
+                return null;
+            }
+            int[] codes = new int[2 * (int) treeSize];
+            int length = 0;
+            Map<Term, Integer> numbers = new HashMap<>();
+            List<Term> variables = new ArrayList<>();
+            for (Term root : new Term[]{termPair.term1(), termPair.term2()}) {
+                for (Term term : root) {
+                    if (term instanceof Variable) {
+                        Integer number = numbers.putIfAbsent(term, variables.size());
+                        if (number == null) {
+                            number = variables.size();
+                            variables.add(term);
+                        }
+                        codes[length++] = number << 2 | VARIABLE;
+                    } else if (term instanceof TermWithArgs termWithArgs) {
+                        codes[length++] = term.getSymbol() << 2 | FUNCTION;
+                        codes[length++] = termWithArgs.getArgs().size();
+                    } else {
+                        codes[length++] = term.getSymbol() << 2 | CONSTANT;
+                    }
+                }
+            }
+            return new Key(Arrays.copyOf(codes, length), variables.toArray(Term[]::new));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            return obj instanceof Key key
+                    && hash == key.hash
+                    && Arrays.equals(codes, key.codes);
+        }
+    }
+
+    /**
+     * A cached result.
+     */
+    private static final class Entry {
+        /**
+         * Variables of the pair the result was found for
+         */
+        private final Term[] variables;
+        /**
+         * The result or {@code null} if only the answer
+         * of {@link #isUnifiable(TermPair)} is known
+         */
+        @Nullable
+        private final UnificationResult result;
+        private final boolean isUnifiable;
+
+        private Entry(
+                final Term[] variables,
+                @Nullable final UnificationResult result,
+                final boolean isUnifiable) {
+            this.variables = variables;
+            this.result = result;
+            this.isUnifiable = isUnifiable;
+        }
+
+        /**
+         * Returns the result for the pair with provided variables,
+         * which are numbered in the same way as the cached ones.
+         */
+        private UnificationResult renamedResult(Term[] askedVariables) {
+            if (!result.isUnifiable() || Arrays.equals(variables, askedVariables)) {
+                return result;
+            }
+            Map<Term, Term> renaming = new HashMap<>();
+            for (int i = 0; i < variables.length; i++) {
+                renaming.put(variables[i], askedVariables[i]);
+            }
+            return UnificationResult.unifiable(new RenamedSubstitution(result.unifier(), renaming));
+        }
+    }
+
+    /**
+     * A part of the cache that keeps its entries
+     * in the order of access.
+     */
+    private final class Segment {
+        private final Map<Key, Entry> entries;
+
+        private Segment(final int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized Entry get(Key key) {
+            return entries.get(key);
+        }
+
+        private synchronized void put(Key key, Entry entry) {
+            entries.put(key, entry);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package unification;
+
+import syntax.Term;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stack of frames of the terms that are being finished, which is
+ * kept in the {@link UnificationContext}. Popped frames are kept above
+ * the top of the stack and reused by the following pushes, so a walk
+ * does not allocate a frame per node once the stack has grown.
+ */
+final class FrameStack {
+    /**
+     * Frames of the stack and the reusable frames above its top
+     */
+    private final List<Frame> frames = new ArrayList<>();
+    /**
+     * A number of frames in the stack
+     */
+    private int size = 0;
+
+    /**
+     * Pushes a frame of the term.
+     *
+     * @param term a term
+     * @param stackBase a size of the stack of pending nodes
+     *                  before the term was pushed
+     */
+    void push(Term term, int stackBase) {
+        if (size == frames.size()) {
+            frames.add(new Frame());
+        }
+        Frame frame = frames.get(size++);
+        frame.term = term;
+        frame.stackBase = stackBase;
+        frame.currentTerm = null;
+    }
+
+    Frame peek() {
+        return frames.get(size - 1);
+    }
+
+    void pop() {
+        Frame frame = frames.get(--size);
+        frame.term = null;
+        frame.parents = null;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Empties the stack. Frames over the provided number
+     * are dropped instead of being kept for reuse.
+     */
+    void clear(int maxRetained) {
+        while (size > 0) {
+            pop();
+        }
+        if (frames.size() > maxRetained) {
+            frames.subList(maxRetained, frames.size()).clear();
+        }
+    }
+
+    /**
+     * A term which is being finished
+     */
+    static final class Frame {
+        /**
+         * The term
+         */
+        Term term;
+        /**
+         * A size of the stack of pending nodes
+         * before the term was pushed
+         */
+        int stackBase;
+        /**
+         * A pending node whose parents are being finished
+         * or {@code null}
+         */
+        Term currentTerm;
+        /**
+         * Parents of the current node
+         */
+        List<Term> parents;
+        /**
+         * Index of the next parent to be finished
+         */
+        int parentIndex;
+    }
+}
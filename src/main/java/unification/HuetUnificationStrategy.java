@@ -0,0 +1,317 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Constant;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermStore;
+import syntax.TermWithArgs;
+import syntax.Variable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An implementation of Huet's unification algorithm.
+ * <p>
+ * Nodes of the DAG of the input terms are partitioned into equivalence
+ * classes with a union-find structure that uses path compression and
+ * union by rank. Every class keeps one non-variable term, its schema.
+ * When two classes are merged, their schemas are compared and the
+ * pairs of their arguments are queued for merging, so every pair of
+ * classes is merged at most once and the main loop is almost linear.
+ * <p>
+ * The occurs check is deferred: after all the classes are merged,
+ * the graph of the classes, where a class points to the classes of
+ * the arguments of its schema, is checked for cycles. The unifier
+ * exists iff there are no symbol clashes and no cycles.
+ * <p>
+ * This class is thread-safe if it does not use a {@link TermStore}.
+ */
+public final class HuetUnificationStrategy implements UnificationStrategy {
+    /**
+     * A store that is used to build terms of the unifier
+     */
+    @Nullable
+    private final TermStore termStore;
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * without sharing.
+     */
+    public HuetUnificationStrategy() {
+        this(null);
+    }
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * through the provided store.
+     *
+     * @param termStore a store of unique terms or {@code null}
+     */
+    public HuetUnificationStrategy(@Nullable final TermStore termStore) {
+        this.termStore = termStore;
+    }
+
+    @Override
+    public @NotNull UnificationResult findUnifier(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        Objects.requireNonNull(termPair);
+        context.clear();
+        Solver solver = new Solver(context);
+        if (!solver.solve(termPair)) {
+            return UnificationResult.notUnifiable();
+        }
+        solver.bindVariables();
+        return UnificationResult.unifiable(
+                Substitution.fromTriangularForm(context.bindingList, termStore));
+    }
+
+    @Override
+    public boolean isUnifiable(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        Objects.requireNonNull(termPair);
+        context.clear();
+        return new Solver(context).solve(termPair);
+    }
+
+    /**
+     * A node of the union-find forest. Only the fields
+     * of the roots are valid, except for {@link #parent}.
+     */
+    private static final class Node {
+        /**
+         * A node this one is merged into or {@code null} for a root
+         */
+        private Node parent = null;
+        /**
+         * An upper bound of the height of the tree of this root
+         */
+        private int rank = 0;
+        /**
+         * A non-variable term of the class or {@code null}
+         */
+        private Term schema = null;
+        /**
+         * A variable of the class or {@code null}
+         */
+        private Term variable = null;
+        /**
+         * State of the cycle search: 0 is not visited,
+         * 1 is on the stack, 2 is finished
+         */
+        private byte color = 0;
+    }
+
+    /**
+     * A class whose schema arguments are being visited by the cycle search
+     */
+    private static final class Frame {
+        /**
+         * A root
+         */
+        private final Node node;
+        /**
+         * Arguments of the schema
+         */
+        private final List<Term> args;
+        /**
+         * Index of the next argument
+         */
+        private int index = 0;
+
+        private Frame(final Node node, final List<Term> args) {
+            this.node = node;
+            this.args = args;
+        }
+    }
+
+    /**
+     * State of one call
+     */
+    private static final class Solver {
+        /**
+         * Nodes of the terms
+         */
+        private final Map<Term, Node> nodes = new IdentityHashMap<>();
+        /**
+         * Variables whose classes are merged with other classes
+         */
+        private final List<Term> variables = new ArrayList<>();
+        /**
+         * A unifier in the triangular form
+         */
+        private final Map<Term, Term> bindingList;
+        /**
+         * Pairs of terms that should be merged
+         */
+        private final Deque<Term> termStack;
+
+        private Solver(final UnificationContext context) {
+            this.bindingList = context.bindingList;
+            this.termStack = context.termStack;
+        }
+
+        /**
+         * Merges the classes of the terms of the pair
+         * and checks the result for cycles.
+         *
+         * @return false if the terms are not unifiable
+         */
+        private boolean solve(TermPair termPair) {
+            return merge(termPair.term1(), termPair.term2()) && !hasCycle(termPair.term1());
+        }
+
+        /**
+         * Merges the classes of the terms and, recursively,
+         * the classes of the arguments of their schemas.
+         *
+         * @return false on symbol clash
+         */
+        private boolean merge(Term term1, Term term2) {
+            termStack.push(term2);
+            termStack.push(term1);
+            while (!termStack.isEmpty()) {
+                Node root1 = find(nodeOf(termStack.pop()));
+                Node root2 = find(nodeOf(termStack.pop()));
+                if (root1 == root2) {
+                    continue;
+                }
+                Term schema1 = root1.schema;
+                Term schema2 = root2.schema;
+                if (schema1 != null && schema2 != null) {
+                    if (clash(schema1, schema2)) {
+                        return false;
+                    }
+                    // Distinct ground schemas are compared by their hashes only:
+                    // comparing equal ones may take the size of their trees
+                    if (schema1.isGround() && schema2.isGround()
+                            && schema1.hashCode() != schema2.hashCode()) {
+                        return false;
+                    }
+                    if (schema1 instanceof TermWithArgs withArgs1
+                            && schema2 instanceof TermWithArgs withArgs2) {
+                        List<Term> args1 = withArgs1.getArgs();
+                        List<Term> args2 = withArgs2.getArgs();
+                        for (int i = args1.size() - 1; i >= 0; i--) {
+                            termStack.push(args2.get(i));
+                            termStack.push(args1.get(i));
+                        }
+                    }
+                }
+                union(root1, root2);
+            }
+            return true;
+        }
+
+        /**
+         * Checks if the class graph reachable from the
+         * provided term has a cycle.
+         */
+        private boolean hasCycle(Term term) {
+            Node start = find(nodeOf(term));
+            if (start.schema == null) {
+                return false;
+            }
+            Deque<Frame> frames = new ArrayDeque<>();
+            start.color = 1;
+            frames.push(new Frame(start, argsOf(start.schema)));
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                if (frame.index == frame.args.size()) {
+                    frame.node.color = 2;
+                    frames.pop();
+                    continue;
+                }
+                Node child = find(nodeOf(frame.args.get(frame.index++)));
+                if (child.color == 1) {
+                    return true;
+                }
+                if (child.color == 0 && child.schema != null) {
+                    child.color = 1;
+                    frames.push(new Frame(child, argsOf(child.schema)));
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Binds every variable of a merged class to the schema
+         * of the class or, if there is no schema, to one
+         * variable of the class.
+         */
+        private void bindVariables() {
+            for (Term variable : variables) {
+                Node root = find(nodes.get(variable));
+                Term value = root.schema != null ? root.schema : root.variable;
+                if (value != variable) {
+                    bindingList.put(variable, value);
+                }
+            }
+        }
+
+        private Node nodeOf(Term term) {
+            Node node = nodes.get(term);
+            if (node == null) {
+                node = new Node();
+                if (term instanceof Variable) {
+                    node.variable = term;
+                    variables.add(term);
+                } else {
+                    node.schema = term;
+                }
+                nodes.put(term, node);
+            }
+            return node;
+        }
+
+        private static Node find(Node node) {
+            Node root = node;
+            while (root.parent != null) {
+                root = root.parent;
+            }
+            while (node != root) {
+                Node next = node.parent;
+                node.parent = root;
+                node = next;
+            }
+            return root;
+        }
+
+        private static void union(Node root1, Node root2) {
+            if (root1.rank < root2.rank) {
+                Node swap = root1;
+                root1 = root2;
+                root2 = swap;
+            } else if (root1.rank == root2.rank) {
+                root1.rank++;
+            }
+            root2.parent = root1;
+            if (root1.schema == null) {
+                root1.schema = root2.schema;
+            }
+            if (root1.variable == null) {
+                root1.variable = root2.variable;
+            }
+        }
+
+        private static boolean clash(Term schema1, Term schema2) {
+            return !schema1.nameEquals(schema2)
+                    || schema1 instanceof Constant != schema2 instanceof Constant
+                    || schema1 instanceof TermWithArgs withArgs1
+                    && withArgs1.getArgs().size() != ((TermWithArgs) schema2).getArgs().size();
+        }
+
+        private static List<Term> argsOf(Term schema) {
+            return schema instanceof TermWithArgs withArgs ? withArgs.getArgs() : List.of();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package unification;
 
 import org.jetbrains.annotations.NotNull;
 import syntax.Term;
+import syntax.TermStore;
 
 import java.util.Map;
 
@@ -17,6 +18,12 @@ enum IdentitySubstitution implements Substitution {
             return term;
         }
 
+        @Override
+        public @NotNull Term instantiateVariables(
+                @NotNull Term term, @NotNull TermStore termStore) {
+            return termStore.intern(term);
+        }
+
         @Override
         public @NotNull Map<Term, Term> domain() {
             return Map.of();
@@ -0,0 +1,568 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Constant;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermStore;
+import syntax.TermWithArgs;
+import syntax.Variable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An implementation of the unification algorithm by Martelli and Montanari.
+ * <p>
+ * The algorithm works on a system of multiequations {@code S = M}, where
+ * {@code S} is a set of variables and {@code M} is a multiset of non-variable
+ * terms. Every multiequation has a counter of the occurrences of its
+ * variables in the right-hand sides of the unsolved multiequations.
+ * On every step a multiequation with zero counter is selected, the common
+ * part of its terms is moved to the solution and the frontier (the
+ * disagreeing subterms) is merged back into the system. If there is no
+ * multiequation with zero counter, the system has a cycle, i.e. the
+ * occurs check fails. Multiequations are merged with union by size,
+ * so the algorithm is almost linear.
+ * <p>
+ * Occurrences are counted on the DAG of the input terms: every
+ * non-variable node has a number of references from the live
+ * terms of the system, and it releases the references to its children
+ * when it is no longer referenced. Within one common part equal
+ * sets of subterms are processed once, so shared subterms are not
+ * unfolded into trees.
+ * <p>
+ * This class is thread-safe if it does not use a {@link TermStore}.
+ */
+public final class MartelliMontanariUnificationStrategy implements UnificationStrategy {
+    /**
+     * A store that is used to build terms of the unifier
+     */
+    @Nullable
+    private final TermStore termStore;
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * without sharing.
+     */
+    public MartelliMontanariUnificationStrategy() {
+        this(null);
+    }
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * through the provided store.
+     *
+     * @param termStore a store of unique terms or {@code null}
+     */
+    public MartelliMontanariUnificationStrategy(@Nullable final TermStore termStore) {
+        this.termStore = termStore;
+    }
+
+    @Override
+    public @NotNull UnificationResult findUnifier(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        if (!isUnifiable(termPair, context)) {
+            return UnificationResult.notUnifiable();
+        }
+        return UnificationResult.unifiable(
+                Substitution.fromTriangularForm(context.bindingList, termStore));
+    }
+
+    @Override
+    public boolean isUnifiable(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        Objects.requireNonNull(termPair);
+        context.clear();
+        return new Solver(context).solve(termPair.term1(), termPair.term2());
+    }
+
+    /**
+     * A multiequation {@code S = M}. Merged multiequations form
+     * a disjoint-set forest, only the roots are valid.
+     */
+    private static final class Multiequation {
+        /**
+         * The left-hand side
+         */
+        private List<Term> variables = new ArrayList<>(1);
+        /**
+         * References to the non-variable terms of the right-hand side
+         */
+        private List<Term> terms = new ArrayList<>(2);
+        /**
+         * A number of occurrences of the variables of
+         * this multiequation in the unsolved terms
+         */
+        private int counter = 0;
+        /**
+         * A multiequation this one is merged into or {@code null}
+         */
+        private Multiequation parent = null;
+        /**
+         * True if this multiequation is moved to the solution
+         */
+        private boolean solved = false;
+    }
+
+    /**
+     * A key of a set of distinct nodes
+     *
+     * @param nodes nodes ordered by identity hash code
+     */
+    private record NodeSet(Term[] nodes) {
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (Term node : nodes) {
+                hash = 31 * hash + System.identityHashCode(node);
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof NodeSet other) || nodes.length != other.nodes.length) {
+                return false;
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] != other.nodes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A position of the common part whose arguments are being processed
+     */
+    private static final class Frame {
+        /**
+         * Distinct non-variable nodes at this position
+         */
+        private final Term[] nodes;
+        /**
+         * Common parts of the arguments
+         */
+        private final Term[] args;
+        /**
+         * Index of the next argument
+         */
+        private int index = 0;
+
+        private Frame(final Term[] nodes) {
+            this.nodes = nodes;
+            this.args = new Term[((TermWithArgs) nodes[0]).getArgs().size()];
+        }
+    }
+
+    /**
+     * State of one call
+     */
+    private final class Solver {
+        /**
+         * Multiequations of the variables
+         */
+        private final Map<Term, Multiequation> multiequations = new HashMap<>();
+        /**
+         * Numbers of references to the non-variable nodes
+         */
+        private final Map<Term, int[]> references = new IdentityHashMap<>();
+        /**
+         * Multiequations whose counter dropped to zero. May contain
+         * multiequations that were merged or solved since.
+         */
+        private final Deque<Multiequation> ready = new ArrayDeque<>();
+        /**
+         * A unifier in the triangular form
+         */
+        private final Map<Term, Term> bindingList;
+        /**
+         * A stack of terms
+         */
+        private final Deque<Term> termStack;
+        /**
+         * A number of unsolved multiequations
+         */
+        private int unsolved = 0;
+
+        private Solver(final UnificationContext context) {
+            this.bindingList = context.bindingList;
+            this.termStack = context.termStack;
+        }
+
+        /**
+         * Solves the equation {@code term1 = term2}.
+         *
+         * @return false if the terms are not unifiable
+         */
+        private boolean solve(Term term1, Term term2) {
+            countReferences(term1);
+            countReferences(term2);
+            List<Term> variables = new ArrayList<>(2);
+            List<Term> terms = new ArrayList<>(2);
+            for (Term term : new Term[]{term1, term2}) {
+                if (term instanceof Variable) {
+                    variables.add(term);
+                } else {
+                    reference(term)[0]++;
+                    terms.add(term);
+                }
+            }
+            for (Multiequation multiequation : multiequations.values()) {
+                if (multiequation.counter == 0) {
+                    ready.add(multiequation);
+                }
+            }
+            if (variables.isEmpty()) {
+                Multiequation root = new Multiequation();
+                root.terms = terms;
+                unsolved++;
+                ready.addFirst(root);
+            } else {
+                mergeFrontier(variables, terms);
+            }
+            while (!ready.isEmpty()) {
+                Multiequation multiequation = ready.poll();
+                if (multiequation.parent == null
+                        && !multiequation.solved
+                        && multiequation.counter == 0
+                        && !solve(multiequation)) {
+                    return false;
+                }
+            }
+            return unsolved == 0;
+        }
+
+        /**
+         * Moves the multiequation to the solution.
+         *
+         * @return false on symbol clash
+         */
+        private boolean solve(Multiequation multiequation) {
+            multiequation.solved = true;
+            unsolved--;
+            List<Term> variables = multiequation.variables;
+            if (multiequation.terms.isEmpty()) {
+                for (int i = 1; i < variables.size(); i++) {
+                    bindingList.put(variables.get(i), variables.get(0));
+                }
+                return true;
+            }
+            Term commonPart = commonPart(multiequation.terms);
+            if (commonPart == null) {
+                return false;
+            }
+            multiequation.terms = List.of();
+            for (Term variable : variables) {
+                bindingList.put(variable, commonPart);
+            }
+            return true;
+        }
+
+        /**
+         * Computes the common part of the terms and merges the frontier
+         * into the system. The references to the terms are released.
+         *
+         * @return the common part or {@code null} on symbol clash
+         */
+        @Nullable
+        private Term commonPart(List<Term> terms) {
+            Map<NodeSet, Term> commonParts = new HashMap<>();
+            Deque<Frame> frames = new ArrayDeque<>();
+            Object position = enterPosition(terms, commonParts);
+            if (position == null || position instanceof Term) {
+                return (Term) position;
+            }
+            frames.push((Frame) position);
+            while (true) {
+                Frame frame = frames.peek();
+                if (frame.index == frame.args.length) {
+                    frames.pop();
+                    Term result = build(frame);
+                    commonParts.put(new NodeSet(frame.nodes), result);
+                    Frame parent = frames.peek();
+                    if (parent == null) {
+                        return result;
+                    }
+                    parent.args[parent.index++] = result;
+                    continue;
+                }
+                int index = frame.index;
+                List<Term> variables = new ArrayList<>(1);
+                List<Term> subterms = new ArrayList<>(frame.nodes.length);
+                for (Term node : frame.nodes) {
+                    Term arg = ((TermWithArgs) node).getArgs().get(index);
+                    if (arg instanceof Variable) {
+                        variables.add(arg);
+                    } else {
+                        subterms.add(arg);
+                    }
+                }
+                if (!variables.isEmpty()) {
+                    for (Term variable : variables) {
+                        changeCounter(variable, -1);
+                    }
+                    mergeFrontier(variables, subterms);
+                    frame.args[frame.index++] = variables.get(0);
+                    continue;
+                }
+                position = enterPosition(subterms, commonParts);
+                if (position == null) {
+                    return null;
+                }
+                if (position instanceof Term term) {
+                    frame.args[frame.index++] = term;
+                } else {
+                    frames.push((Frame) position);
+                }
+            }
+        }
+
+        /**
+         * Starts processing of a position of the common part, i.e. a
+         * multiset of references to non-variable nodes. Releases the
+         * references. Returns the common part if it is known without
+         * processing the arguments, a new frame otherwise, or
+         * {@code null} on symbol clash.
+         */
+        @Nullable
+        private Object enterPosition(List<Term> terms, Map<NodeSet, Term> commonParts) {
+            Term[] nodes = distinct(terms);
+            Term first = nodes[0];
+            for (Term node : nodes) {
+                if (!node.nameEquals(first)
+                        || node instanceof Constant != first instanceof Constant
+                        || first instanceof TermWithArgs firstWithArgs
+                        && firstWithArgs.getArgs().size() != ((TermWithArgs) node).getArgs().size()) {
+                    return null;
+                }
+            }
+            if (nodes.length == 1 || first instanceof Constant) {
+                for (Term term : terms) {
+                    release(term);
+                }
+                return first;
+            }
+            Term known = commonParts.get(new NodeSet(nodes));
+            if (known != null) {
+                for (Term term : terms) {
+                    release(term);
+                }
+                return known;
+            }
+            for (Term node : nodes) {
+                for (Term arg : ((TermWithArgs) node).getArgs()) {
+                    acquire(arg);
+                }
+            }
+            for (Term term : terms) {
+                release(term);
+            }
+            return new Frame(nodes);
+        }
+
+        /**
+         * Builds the common part of the frame.
+         */
+        private Term build(Frame frame) {
+            for (Term node : frame.nodes) {
+                if (hasArgs(node, frame.args)) {
+                    return node;
+                }
+            }
+            List<Term> args = Arrays.asList(frame.args);
+            String name = frame.nodes[0].getName();
+            return termStore == null
+                    ? new TermWithArgs(name, args)
+                    : termStore.function(name, args);
+        }
+
+        /**
+         * Checks whether the arguments of the node are
+         * the provided terms.
+         */
+        private boolean hasArgs(Term node, Term[] args) {
+            List<Term> nodeArgs = ((TermWithArgs) node).getArgs();
+            for (int i = 0; i < args.length; i++) {
+                if (nodeArgs.get(i) != args[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Merges the frontier equation {@code variables = terms}
+         * into the system.
+         */
+        private void mergeFrontier(List<Term> variables, List<Term> terms) {
+            Multiequation root = find(multiequation(variables.get(0)));
+            for (int i = 1; i < variables.size(); i++) {
+                root = union(root, find(multiequation(variables.get(i))));
+            }
+            root.terms.addAll(terms);
+            if (root.counter == 0) {
+                ready.add(root);
+            }
+        }
+
+        private Multiequation union(Multiequation root1, Multiequation root2) {
+            if (root1 == root2) {
+                return root1;
+            }
+            if (root1.variables.size() + root1.terms.size()
+                    < root2.variables.size() + root2.terms.size()) {
+                Multiequation swap = root1;
+                root1 = root2;
+                root2 = swap;
+            }
+            root2.parent = root1;
+            root1.variables.addAll(root2.variables);
+            root1.terms.addAll(root2.terms);
+            root1.counter += root2.counter;
+            root2.variables = List.of();
+            root2.terms = List.of();
+            unsolved--;
+            return root1;
+        }
+
+        private Multiequation find(Multiequation multiequation) {
+            Multiequation root = multiequation;
+            while (root.parent != null) {
+                root = root.parent;
+            }
+            while (multiequation.parent != null) {
+                Multiequation next = multiequation.parent;
+                multiequation.parent = root;
+                multiequation = next;
+            }
+            return root;
+        }
+
+        private Multiequation multiequation(Term variable) {
+            return multiequations.computeIfAbsent(variable, v -> {
+                Multiequation multiequation = new Multiequation();
+                multiequation.variables.add(v);
+                unsolved++;
+                return multiequation;
+            });
+        }
+
+        /**
+         * Adds an occurrence of the variable in the unsolved terms.
+         */
+        private void changeCounter(Term variable, int delta) {
+            Multiequation root = find(multiequation(variable));
+            root.counter += delta;
+            if (root.counter == 0) {
+                ready.add(root);
+            }
+        }
+
+        private int[] reference(Term term) {
+            return references.computeIfAbsent(term, t -> new int[1]);
+        }
+
+        /**
+         * Adds a reference to the term.
+         */
+        private void acquire(Term term) {
+            if (term instanceof Variable) {
+                changeCounter(term, 1);
+            } else {
+                reference(term)[0]++;
+            }
+        }
+
+        /**
+         * Removes a reference to the non-variable term. If the term
+         * is no longer referenced, releases the references to its
+         * arguments.
+         */
+        private void release(Term term) {
+            termStack.push(term);
+            while (!termStack.isEmpty()) {
+                Term current = termStack.pop();
+                if (current instanceof Variable) {
+                    changeCounter(current, -1);
+                    continue;
+                }
+                int[] count = reference(current);
+                if (--count[0] == 0 && current instanceof TermWithArgs currentWithArgs) {
+                    for (Term arg : currentWithArgs.getArgs()) {
+                        termStack.push(arg);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Counts references to the nodes of the term and
+         * occurrences of the variables.
+         */
+        private void countReferences(Term root) {
+            if (root instanceof Variable) {
+                multiequation(root);
+                return;
+            }
+            if (!references.containsKey(root)) {
+                reference(root);
+                termStack.push(root);
+            }
+            while (!termStack.isEmpty()) {
+                Term current = termStack.pop();
+                if (!(current instanceof TermWithArgs currentWithArgs)) {
+                    continue;
+                }
+                for (Term arg : currentWithArgs.getArgs()) {
+                    if (arg instanceof Variable) {
+                        multiequation(arg).counter++;
+                    } else {
+                        int[] count = references.get(arg);
+                        if (count == null) {
+                            count = reference(arg);
+                            termStack.push(arg);
+                        }
+                        count[0]++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns distinct nodes of the list ordered by identity hash code.
+         */
+        private Term[] distinct(List<Term> terms) {
+            Term[] nodes = terms.toArray(Term[]::new);
+            Arrays.sort(nodes, (t1, t2) -> Integer.compare(
+                    System.identityHashCode(t1), System.identityHashCode(t2)));
+            int size = 0;
+            for (Term node : nodes) {
+                boolean seen = false;
+                for (int i = size - 1; i >= 0
+                        && System.identityHashCode(nodes[i]) == System.identityHashCode(node); i--) {
+                    if (nodes[i] == node) {
+                        seen = true;
+                        break;
+                    }
+                }
+                if (!seen) {
+                    nodes[size++] = node;
+                }
+            }
+            return size == nodes.length ? nodes : Arrays.copyOf(nodes, size);
+        }
+    }
+}
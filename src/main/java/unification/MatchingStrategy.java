@@ -0,0 +1,68 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Term;
+
+/**
+ * This interface describes a matching strategy
+ * i.e. an algorithm that finds a substitution that makes
+ * a pattern equal to a subject. Unlike unification, only
+ * the variables of the pattern are bound: the subject is
+ * treated as a ground term, and its variables are matched
+ * as constants.
+ * <p>
+ * Strategies keep no state between calls, so an instance may be
+ * reused for any number of pairs. Working tables of a call are kept
+ * in a {@link UnificationContext}.
+ */
+public interface MatchingStrategy {
+    /**
+     * Finds a matcher of the pattern and the subject.
+     * Working tables are borrowed from the context pool
+     * of the current thread.
+     *
+     * @param pattern a pattern
+     * @param subject a subject
+     * @return a substitution of the variables of the pattern
+     *         or {@code null} if the pattern does not match
+     */
+    @Nullable
+    default Substitution match(
+            @NotNull final Term pattern,
+            @NotNull final Term subject) {
+        try (UnificationContext context = UnificationContext.acquire()) {
+            return match(pattern, subject, context);
+        }
+    }
+
+    /**
+     * Finds a matcher of the pattern and the subject using
+     * the working tables of the provided context. The context
+     * is cleared before it is used.
+     *
+     * @param pattern a pattern
+     * @param subject a subject
+     * @param context a context of the call
+     * @return a substitution of the variables of the pattern
+     *         or {@code null} if the pattern does not match
+     */
+    @Nullable
+    Substitution match(
+            @NotNull final Term pattern,
+            @NotNull final Term subject,
+            @NotNull final UnificationContext context);
+
+    /**
+     * Checks if the pattern matches the subject.
+     *
+     * @param pattern a pattern
+     * @param subject a subject
+     * @return true if the pattern matches the subject
+     */
+    default boolean matches(
+            @NotNull final Term pattern,
+            @NotNull final Term subject) {
+        return match(pattern, subject) != null;
+    }
+}
@@ -0,0 +1,312 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Term;
+import syntax.TermArena;
+import syntax.TermStore;
+import util.IntStack;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An implementation of a linear unification algorithm by Paterson and Wegman
+ * that works on the {@link TermArena}. All the state of the algorithm
+ * is kept in the primitive arrays indexed by nodes.
+ * <p>
+ * Note: instances of this class are not reusable.
+ */
+final class PatersonWegmanArenaUnifier {
+    /**
+     * A value of the pointer of the node that is not visited yet
+     */
+    private static final int NONE = -1;
+    /**
+     * A number of ints per frame of {@link #finish(int)}: the node
+     * being finished, the size of the stack of pending nodes before
+     * the node was pushed, the pending node whose parents are being
+     * finished and the index of its next parent
+     */
+    private static final int FRAME_SIZE = 4;
+    /**
+     * An arena that contains both terms
+     */
+    @NotNull
+    private final TermArena arena;
+    /**
+     * A flag that is set to false if terms are not unifiable.
+     */
+    private boolean isUnifiable = true;
+    /**
+     * Pointers of the nodes
+     */
+    private final int[] pointers;
+    /**
+     * Flags of already processed nodes
+     */
+    private final boolean[] finished;
+    /**
+     * Heads of the lists of undirected edges of the nodes
+     */
+    private final int[] linkHeads;
+    /**
+     * Target nodes of the edges
+     */
+    private int[] linkTargets = new int[16];
+    /**
+     * Indices of the next edges in the lists
+     */
+    private int[] linkNexts = new int[16];
+    /**
+     * A number of created edges
+     */
+    private int linkCount = 0;
+    /**
+     * Nodes bound to the variable nodes or {@code NONE}
+     */
+    private final int[] bindings;
+    /**
+     * Variable nodes in the order of binding
+     */
+    private int[] boundVariables = new int[16];
+    /**
+     * A number of bound variables
+     */
+    private int boundCount = 0;
+    /**
+     * Frames of the nodes which are being finished
+     */
+    private int[] frames = new int[16 * FRAME_SIZE];
+    /**
+     * A number of frames
+     */
+    private int frameCount = 0;
+    /**
+     * Pending nodes of all the frames
+     */
+    private final IntStack termStack = new IntStack();
+
+    /**
+     * Creates a new unifier of the terms stored in the provided arena.
+     *
+     * @param arena an arena
+     */
+    PatersonWegmanArenaUnifier(@NotNull final TermArena arena) {
+        this.arena = arena;
+        int size = arena.size();
+        pointers = new int[size];
+        Arrays.fill(pointers, NONE);
+        finished = new boolean[size];
+        linkHeads = new int[size];
+        Arrays.fill(linkHeads, NONE);
+        bindings = new int[size];
+        Arrays.fill(bindings, NONE);
+    }
+
+    /**
+     * Finds a unifier of two terms.
+     *
+     * @param node1 a node of the first term
+     * @param node2 a node of the second term
+     * @param termStore a store of unique terms or {@code null}
+     * @return Result of unification of two terms.
+     */
+    @NotNull
+    UnificationResult findUnifier(
+            final int node1, final int node2,
+            @Nullable final TermStore termStore) {
+        createLink(node1, node2);
+        boolean[] reachable = reachableNodes(node1, node2);
+        for (int node = arena.size() - 1; node >= 0 && isUnifiable; node--) {
+            if (reachable[node] && !arena.isVariable(node)) {
+                finish(node);
+            }
+        }
+        for (int node = arena.size() - 1; node >= 0 && isUnifiable; node--) {
+            if (reachable[node] && arena.isVariable(node)) {
+                finish(node);
+            }
+        }
+        if (!isUnifiable) {
+            return UnificationResult.notUnifiable();
+        }
+        Term[] converted = new Term[arena.size()];
+        Map<Term, Term> bindingList = new HashMap<>();
+        for (int i = 0; i < boundCount; i++) {
+            int variable = boundVariables[i];
+            bindingList.put(
+                    arena.toTerm(variable, converted),
+                    arena.toTerm(bindings[variable], converted));
+        }
+        return UnificationResult.unifiable(
+                Substitution.fromTriangularForm(bindingList, termStore));
+    }
+
+    /**
+     * A core method of term unification.
+     * <p>
+     * The parents of a node are finished before the node itself
+     * without recursion: the nodes which are being finished are
+     * kept in the stack of frames, and all the frames share one
+     * stack of pending nodes.
+     *
+     * @param root a node
+     */
+    private void finish(int root) {
+        frameCount = 0;
+        termStack.clear();
+        enter(root);
+        while (isUnifiable && frameCount > 0) {
+            int frame = (frameCount - 1) * FRAME_SIZE;
+            int term = frames[frame];
+            int currentTerm = frames[frame + 2];
+            if (currentTerm == NONE) {
+                if (termStack.size() == frames[frame + 1]) {
+                    finished[term] = true;
+                    frameCount--;
+                    continue;
+                }
+                currentTerm = termStack.pop();
+                if (clashes(currentTerm, term)) {
+                    isUnifiable = false;
+                    return;
+                }
+                frames[frame + 2] = currentTerm;
+                frames[frame + 3] = 0;
+            }
+            int parentIndex = frames[frame + 3];
+            if (parentIndex < arena.parentCount(currentTerm)) {
+                frames[frame + 3] = parentIndex + 1;
+                enter(arena.parent(currentTerm, parentIndex));
+                continue;
+            }
+            frames[frame + 2] = NONE;
+            for (int edge = linkHeads[currentTerm]; edge != NONE; edge = linkNexts[edge]) {
+                int link = linkTargets[edge];
+                if (finished[link] || link == term) {
+                    continue;
+                }
+                if (pointers[link] == NONE) {
+                    pointers[link] = term;
+                    termStack.push(link);
+                } else if (pointers[link] != term) {
+                    isUnifiable = false;
+                    return;
+                }
+            }
+            if (currentTerm != term) {
+                if (arena.isVariable(currentTerm)) {
+                    bind(currentTerm, term);
+                } else {
+                    int arity = arena.arity(currentTerm);
+                    for (int i = 0; i < arity; i++) {
+                        createLink(arena.child(currentTerm, i), arena.child(term, i));
+                    }
+                }
+                finished[currentTerm] = true;
+            }
+        }
+    }
+
+    /**
+     * Starts finishing of the provided node. Pushes a new frame
+     * if the node is neither finished nor pointed to.
+     *
+     * @param term a node
+     */
+    private void enter(int term) {
+        if (finished[term]) {
+            return;
+        }
+        if (pointers[term] != NONE) {
+            isUnifiable = false;
+            return;
+        }
+        pointers[term] = term;
+        if ((frameCount + 1) * FRAME_SIZE > frames.length) {
+            frames = Arrays.copyOf(frames, 2 * frames.length);
+        }
+        int frame = frameCount++ * FRAME_SIZE;
+        frames[frame] = term;
+        frames[frame + 1] = termStack.size();
+        frames[frame + 2] = NONE;
+        frames[frame + 3] = 0;
+        termStack.push(term);
+    }
+
+    /**
+     * Checks whether the provided nodes are both non-variable nodes
+     * with different symbols or arities.
+     *
+     * @param node1 first node
+     * @param node2 second node
+     * @return true if the nodes cannot be unified
+     */
+    private boolean clashes(int node1, int node2) {
+        if (arena.isVariable(node1) || arena.isVariable(node2)) {
+            return false;
+        }
+        return arena.kind(node1) != arena.kind(node2)
+                || arena.symbol(node1) != arena.symbol(node2)
+                || arena.arity(node1) != arena.arity(node2);
+    }
+
+    /**
+     * Marks the nodes of two terms.
+     *
+     * @param node1 a node of the first term
+     * @param node2 a node of the second term
+     * @return flags of the nodes that belong to the terms
+     */
+    private boolean[] reachableNodes(int node1, int node2) {
+        boolean[] reachable = new boolean[arena.size()];
+        IntStack nodeStack = new IntStack();
+        nodeStack.push(node1);
+        nodeStack.push(node2);
+        while (!nodeStack.isEmpty()) {
+            int node = nodeStack.pop();
+            if (reachable[node]) {
+                continue;
+            }
+            reachable[node] = true;
+            int arity = arena.arity(node);
+            for (int i = 0; i < arity; i++) {
+                nodeStack.push(arena.child(node, i));
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Creates an undirected edge between two nodes
+     *
+     * @param node1 first node
+     * @param node2 second node
+     */
+    private void createLink(int node1, int node2) {
+        addEdge(node1, node2);
+        addEdge(node2, node1);
+    }
+
+    private void addEdge(int from, int to) {
+        if (linkCount == linkTargets.length) {
+            linkTargets = Arrays.copyOf(linkTargets, 2 * linkCount);
+            linkNexts = Arrays.copyOf(linkNexts, 2 * linkCount);
+        }
+        linkTargets[linkCount] = to;
+        linkNexts[linkCount] = linkHeads[from];
+        linkHeads[from] = linkCount++;
+    }
+
+    private void bind(int variable, int term) {
+        if (bindings[variable] == NONE) {
+            if (boundCount == boundVariables.length) {
+                boundVariables = Arrays.copyOf(boundVariables, 2 * boundCount);
+            }
+            boundVariables[boundCount++] = variable;
+        }
+        bindings[variable] = term;
+    }
+}
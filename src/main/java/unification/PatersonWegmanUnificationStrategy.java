@@ -1,133 +1,247 @@
 package unification;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import syntax.Constant;
 import syntax.FunctionalSymbolFirstTermIterator;
+import syntax.TermArena;
 import syntax.TermWithArgs;
 import syntax.Term;
 import syntax.TermPair;
+import syntax.TermStore;
+import syntax.Traversal;
 import syntax.Variable;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 
 /**
  * An implementation of a linear unification algorithm by Paterson and Wegman.
+ * <p>
+ * This class is thread-safe if it does not use a {@link TermStore}.
  */
-public final class PatersonWegmanUnificationStrategy implements UnificationStrategy {
+public final class PatersonWegmanUnificationStrategy
+        implements UnificationStrategy, ArenaUnificationStrategy {
     /**
-     * A flag that is set to false if terms are not unifiable.
+     * A store that is used to build terms of the unifier
      */
-    private boolean isUnifiable = true;
-    /**
-     * A list of pointers
-     */
-    private final Map<Term, Term> pointers = new IdentityHashMap<>();
+    @Nullable
+    private final TermStore termStore;
+
     /**
-     * A set of already processed terms
+     * Creates a new strategy that builds terms of the unifier
+     * without sharing.
      */
-    private final Set<Term> finished = Collections.newSetFromMap(new IdentityHashMap<>());
+    public PatersonWegmanUnificationStrategy() {
+        this(null);
+    }
+
     /**
-     * A list of undirected edges between nodes of two graphs
+     * Creates a new strategy that builds terms of the unifier
+     * through the provided store.
+     *
+     * @param termStore a store of unique terms or {@code null}
      */
-    private final Map<Term, List<Term>> links = new IdentityHashMap<>();
+    public PatersonWegmanUnificationStrategy(@Nullable final TermStore termStore) {
+        this.termStore = termStore;
+    }
+
+    @Override
+    public @NotNull UnificationResult findUnifier(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        if (!unify(termPair, context)) {
+            return UnificationResult.notUnifiable();
+        }
+        return UnificationResult.unifiable(
+                Substitution.fromTriangularForm(context.bindingList, termStore));
+    }
+
+    @Override
+    public boolean isUnifiable(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        return unify(termPair, context);
+    }
+
+    @Override
+    public @NotNull UnificationResult findUnifier(
+            @NotNull final TermArena arena, final int node1, final int node2) {
+        return new PatersonWegmanArenaUnifier(Objects.requireNonNull(arena))
+                .findUnifier(node1, node2, termStore);
+    }
+
     /**
-     * A unifier in the triangular form.
+     * Unifies the terms, leaving the unifier in the triangular
+     * form in the binding list of the context.
+     *
+     * @param termPair a term pair
+     * @param context a context of the call
+     * @return false if the terms are not unifiable
      */
-    private final Map<Term, Term> bindingList = new HashMap<>();
-    @Override
-    public @NotNull UnificationResult findUnifier(@NotNull final TermPair termPair) {
-        //TermPair termPairCopy = TermPair.copyOf(Objects.requireNonNull(termPair));
-        createLink(termPair.term1(), termPair.term2());
+    private boolean unify(TermPair termPair, UnificationContext context) {
+        Objects.requireNonNull(termPair);
+        context.clear();
+        collectParents(termPair, context);
+        createLink(termPair.term1(), termPair.term2(), context);
 
+        FrameStack frames = context.frames;
         Iterator<Term> funcFirstIterator = new FunctionalSymbolFirstTermIterator(
-                termPair);
-        funcFirstIterator.forEachRemaining(this::finish);
+                termPair, Traversal.DAG);
+        while (funcFirstIterator.hasNext()) {
+            if (!finish(funcFirstIterator.next(), frames, context)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        if (isUnifiable) {
-            return UnificationResult.unifiable(Substitution.fromTriangularForm(bindingList));
+    /**
+     * Builds the parent links of the nodes of both terms. A node is
+     * entered when its list of parents is created, so a node that is
+     * shared by several parents is entered once, and the links take
+     * space linear in the size of the DAG of the pair.
+     *
+     * @param termPair a term pair
+     * @param context a context of the call
+     */
+    private void collectParents(TermPair termPair, UnificationContext context) {
+        Deque<Term> termStack = context.termStack;
+        context.parentsOf(termPair.term1());
+        context.parentsOf(termPair.term2());
+        if (termPair.term2() != termPair.term1()) {
+            termStack.push(termPair.term2());
+        }
+        termStack.push(termPair.term1());
+        while (!termStack.isEmpty()) {
+            if (termStack.pop() instanceof TermWithArgs term) {
+                for (Term arg : term.getArgs()) {
+                    List<Term> parents = context.parents.get(arg);
+                    if (parents == null) {
+                        parents = context.parentsOf(arg);
+                        termStack.push(arg);
+                    }
+                    parents.add(term);
+                }
+            }
         }
-        return UnificationResult.notUnifiable();
     }
 
     /**
      * A core method of term unification.
+     * <p>
+     * The algorithm finishes all the parents of a node before the
+     * node itself. Instead of recursion, the nodes whose parents
+     * are being finished are kept in the stack of {@link FrameStack frames},
+     * so the depth of the terms is not limited by the size of the
+     * thread stack. All the frames share one stack of pending nodes:
+     * a frame is finished only after all the frames above it,
+     * so its pending nodes are always on top of the stack.
      *
-     * @param term a term
+     * @param root a term
+     * @param frames an empty stack of frames
+     * @param context a context of the call
+     * @return false if the terms are not unifiable
      */
-    private void finish(Term term) {
-        if (finished.contains(term)) {
-            return;
-        }
-        if (pointers.containsKey(term)) {
-            isUnifiable = false;
-            return;
+    private boolean finish(Term root, FrameStack frames, UnificationContext context) {
+        Deque<Term> termStack = context.termStack;
+        if (!enter(root, frames, context)) {
+            return false;
         }
-        pointers.put(term, term);
-        Deque<Term> termStack = new ArrayDeque<>();
-        termStack.push(term);
-        while (!termStack.isEmpty()) {
-            Term currentTerm = termStack.pop();
-            if (
-                    areFuncsOrConstants(currentTerm, term) &&
-                    !currentTerm.nameEquals(term)
-            ) {
-                isUnifiable = false;
-                return;
+        while (!frames.isEmpty()) {
+            FrameStack.Frame frame = frames.peek();
+            Term term = frame.term;
+            if (frame.currentTerm == null) {
+                if (termStack.size() == frame.stackBase) {
+                    context.finished.add(term);
+                    frames.pop();
+                    continue;
+                }
+                Term currentTerm = termStack.pop();
+                if (clashes(currentTerm, term)) {
+                    return false;
+                }
+                frame.currentTerm = currentTerm;
+                frame.parents = context.parents.getOrDefault(currentTerm, List.of());
+                frame.parentIndex = 0;
             }
-            for (Term parent : currentTerm.getParents()) {
-                finish(parent);
+            if (frame.parentIndex < frame.parents.size()) {
+                if (!enter(frame.parents.get(frame.parentIndex++), frames, context)) {
+                    return false;
+                }
+                continue;
             }
-            for (Term link : links.getOrDefault(currentTerm, List.of())) {
-                if (finished.contains(link) || link.equals(term)) {
+            Term currentTerm = frame.currentTerm;
+            frame.currentTerm = null;
+            for (Term link : context.links.getOrDefault(currentTerm, List.of())) {
+                if (context.finished.contains(link) || link == term) {
                     continue;
                 }
-                if (!pointers.containsKey(link)) {
-                    pointers.put(link, term);
+                Term pointer = context.pointers.get(link);
+                if (pointer == null) {
+                    context.pointers.put(link, term);
                     termStack.push(link);
-                } else if (!pointers.get(link).equals(term)) {
-                    isUnifiable = false;
-                    return;
+                } else if (pointer != term) {
+                    return false;
                 }
             }
-            if (!currentTerm.equals(term)) {
+            if (currentTerm != term) {
                 if (currentTerm instanceof Variable) {
-                    bindingList.put(currentTerm, term);
+                    context.bindingList.put(currentTerm, term);
                 } else if (currentTerm instanceof TermWithArgs currentTermWithArgs) {
                     Iterator<Term> currentTermChildren = currentTermWithArgs.getArgs().listIterator();
                     Iterator<Term> termChildren = ((TermWithArgs) term).getArgs().listIterator();
                     while (currentTermChildren.hasNext() && termChildren.hasNext()) {
-                        createLink(currentTermChildren.next(), termChildren.next());
+                        createLink(currentTermChildren.next(), termChildren.next(), context);
                     }
                 }
-                finished.add(currentTerm);
+                context.finished.add(currentTerm);
             }
         }
-        finished.add(term);
+        return true;
     }
 
     /**
-     * Checks whether the provided terms are either functional symbol terms
-     * or constant terms.
+     * Starts finishing of the provided term. Pushes a new frame
+     * if the term is neither finished nor pointed to.
+     *
+     * @param term a term
+     * @param frames a stack of frames
+     * @param context a context of the call
+     * @return false if the term is already pointed to, i.e.
+     *         the terms are not unifiable
+     */
+    private boolean enter(Term term, FrameStack frames, UnificationContext context) {
+        if (context.finished.contains(term)) {
+            return true;
+        }
+        if (context.pointers.containsKey(term)) {
+            return false;
+        }
+        context.pointers.put(term, term);
+        frames.push(term, context.termStack.size());
+        context.termStack.push(term);
+        return true;
+    }
+
+    /**
+     * Checks whether the provided terms are both non-variable terms
+     * of different kinds or with different symbols or arities.
      *
      * @param term1 first term
      * @param term2 second term
-     * @return true if the provided terms are either functional symbol terms
-     *         or constant terms.
+     * @return true if the terms cannot be unified
      */
-    private boolean areFuncsOrConstants(Term term1, Term term2) {
-        return (term1 instanceof TermWithArgs &&
-                term2 instanceof TermWithArgs) ||
-                (term1 instanceof Constant &&
-                 term2 instanceof Constant);
+    private boolean clashes(Term term1, Term term2) {
+        if (term1 instanceof Variable || term2 instanceof Variable) {
+            return false;
+        }
+        return term1 instanceof Constant != term2 instanceof Constant
+                || !term1.nameEquals(term2)
+                || term1 instanceof TermWithArgs termWithArgs1
+                && termWithArgs1.getArgs().size() != ((TermWithArgs) term2).getArgs().size();
     }
 
     /**
@@ -135,9 +249,10 @@ public final class PatersonWegmanUnificationStrategy implements UnificationStrat
      *
      * @param term1 first node
      * @param term2 second node
+     * @param context a context of the call
      */
-    private void createLink(Term term1, Term term2) {
-        links.computeIfAbsent(term1, t -> new ArrayList<>()).add(term2);
-        links.computeIfAbsent(term2, t -> new ArrayList<>()).add(term1);
+    private void createLink(Term term1, Term term2, UnificationContext context) {
+        context.linksOf(term1).add(term2);
+        context.linksOf(term2).add(term1);
     }
 }
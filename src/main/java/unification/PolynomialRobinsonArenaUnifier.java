@@ -0,0 +1,194 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Term;
+import syntax.TermArena;
+import syntax.TermStore;
+import util.IntStack;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An implementation of the polynomial Robinson's unification algorithm
+ * that works on the {@link TermArena}. Instantiations of the nodes are
+ * kept in the primitive arrays indexed by nodes.
+ * <p>
+ * Note: instances of this class are not reusable.
+ */
+final class PolynomialRobinsonArenaUnifier {
+    /**
+     * A value of the node that is not instantiated
+     */
+    private static final int NONE = -1;
+    /**
+     * An arena that contains both terms
+     */
+    @NotNull
+    private final TermArena arena;
+    /**
+     * Nodes that the nodes are instantiated with or {@code NONE}
+     */
+    private final int[] instantiations;
+    /**
+     * Variable nodes in the order of binding
+     */
+    private int[] boundVariables = new int[16];
+    /**
+     * A number of bound variables
+     */
+    private int boundCount = 0;
+    /**
+     * Marks of the nodes visited by the occurs check
+     */
+    private final int[] visited;
+    /**
+     * A mark of the current occurs check
+     */
+    private int visitMark = 0;
+
+    /**
+     * Creates a new unifier of the terms stored in the provided arena.
+     *
+     * @param arena an arena
+     */
+    PolynomialRobinsonArenaUnifier(@NotNull final TermArena arena) {
+        this.arena = arena;
+        instantiations = new int[arena.size()];
+        Arrays.fill(instantiations, NONE);
+        visited = new int[arena.size()];
+    }
+
+    /**
+     * Finds a unifier of two terms.
+     *
+     * @param node1 a node of the first term
+     * @param node2 a node of the second term
+     * @param termStore a store of unique terms or {@code null}
+     * @return Result of unification of two terms.
+     */
+    @NotNull
+    UnificationResult findUnifier(
+            final int node1, final int node2,
+            @Nullable final TermStore termStore) {
+        if (!unify(node1, node2)) {
+            return UnificationResult.notUnifiable();
+        }
+        Term[] converted = new Term[arena.size()];
+        Map<Term, Term> bindingList = new HashMap<>();
+        for (int i = 0; i < boundCount; i++) {
+            int variable = boundVariables[i];
+            bindingList.put(
+                    arena.toTerm(variable, converted),
+                    arena.toTerm(instantiations[variable], converted));
+        }
+        return UnificationResult.unifiable(
+                Substitution.fromTriangularForm(bindingList, termStore));
+    }
+
+    /**
+     * Unifies two nodes. The pairs of compound nodes whose arguments
+     * are being unified are kept in an explicit stack of frames, so
+     * the depth of the terms is not limited by the size of the thread
+     * stack. A compound node is instantiated with the other one after
+     * all their arguments are unified.
+     *
+     * @param node1 first node
+     * @param node2 second node
+     * @return false if there is a symbol clash or occurs check fails
+     */
+    private boolean unify(int node1, int node2) {
+        IntStack frames = new IntStack();
+        if (!enter(node1, node2, frames))
+            return false;
+        while (!frames.isEmpty()) {
+            int index = frames.pop();
+            int compound2 = frames.pop();
+            int compound1 = frames.pop();
+            if (index == arena.arity(compound1)) {
+                instantiations[compound1] = compound2;
+                continue;
+            }
+            frames.push(compound1);
+            frames.push(compound2);
+            frames.push(index + 1);
+            int child1 = arena.child(compound1, index);
+            int child2 = arena.child(compound2, index);
+            if (child1 != child2 && !enter(child1, child2, frames))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unifies two nodes if one of them is a variable, or pushes
+     * the frame of two compound nodes with the same symbol.
+     *
+     * @return false if there is a symbol clash or occurs check fails
+     */
+    private boolean enter(int node1, int node2, IntStack frames) {
+        node1 = findInstantiation(node1);
+        node2 = findInstantiation(node2);
+        if (node1 == node2)
+            return true;
+        if (arena.isVariable(node1))
+            return unifyVariable(node1, node2);
+        if (arena.isVariable(node2))
+            return unifyVariable(node2, node1);
+        if (arena.kind(node1) != arena.kind(node2)
+                || arena.symbol(node1) != arena.symbol(node2)
+                || arena.arity(node1) != arena.arity(node2))
+            return false;
+        frames.push(node1);
+        frames.push(node2);
+        frames.push(0);
+        return true;
+    }
+
+    private boolean unifyVariable(int variable, int node) {
+        if (occurs(variable, node))
+            return false;
+        if (boundCount == boundVariables.length) {
+            boundVariables = Arrays.copyOf(boundVariables, 2 * boundCount);
+        }
+        boundVariables[boundCount++] = variable;
+        instantiations[variable] = node;
+        return true;
+    }
+
+    private int findInstantiation(int node) {
+        while (instantiations[node] != NONE) {
+            node = instantiations[node];
+        }
+        return node;
+    }
+
+    /**
+     * Checks whether the variable occurs in the instantiated node.
+     * Every node is visited at most once per check.
+     *
+     * @param variable a variable node
+     * @param node a node
+     * @return true if the variable occurs in the node
+     */
+    private boolean occurs(int variable, int node) {
+        visitMark++;
+        IntStack nodeStack = new IntStack();
+        nodeStack.push(node);
+        while (!nodeStack.isEmpty()) {
+            int current = findInstantiation(nodeStack.pop());
+            if (current == variable)
+                return true;
+            if (visited[current] == visitMark)
+                continue;
+            visited[current] = visitMark;
+            int arity = arena.arity(current);
+            for (int i = 0; i < arity; i++) {
+                nodeStack.push(arena.child(current, i));
+            }
+        }
+        return false;
+    }
+}
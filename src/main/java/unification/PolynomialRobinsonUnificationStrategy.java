@@ -1,16 +1,19 @@
 package unification;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.TermArena;
+import syntax.TermStore;
 import syntax.TermWithArgs;
 import syntax.Term;
 import syntax.TermPair;
 import syntax.Variable;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -18,20 +21,60 @@ import java.util.Set;
  * that takes advantage of directed acyclic graph representation of terms. It also
  * reduces excessive method calls by isolating variable terms that are already
  * substituted with term.
+ * <p>
+ * This class is thread-safe if it does not use a {@link TermStore}.
  */
-public class PolynomialRobinsonUnificationStrategy implements UnificationStrategy {
-    private final Map<Term, Term> instantiations = new IdentityHashMap<>();
+public class PolynomialRobinsonUnificationStrategy
+        implements UnificationStrategy, ArenaUnificationStrategy {
+    /**
+     * A store that is used to build terms of the unifier
+     */
+    @Nullable
+    private final TermStore termStore;
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * without sharing.
+     */
+    public PolynomialRobinsonUnificationStrategy() {
+        this(null);
+    }
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * through the provided store.
+     *
+     * @param termStore a store of unique terms or {@code null}
+     */
+    public PolynomialRobinsonUnificationStrategy(@Nullable final TermStore termStore) {
+        this.termStore = termStore;
+    }
 
     @Override
     public @NotNull UnificationResult findUnifier(
-            @NotNull final TermPair termPair) {
-        Map<Term, Term> bindingList = new HashMap<>();
-        try {
-            findUnifierRecursive(termPair.term1(), termPair.term2(), bindingList);
-        } catch (IllegalStateException e) {
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        if (!isUnifiable(termPair, context)) {
             return UnificationResult.notUnifiable();
         }
-        return UnificationResult.unifiable(Substitution.fromTriangularForm(bindingList));
+        return UnificationResult.unifiable(
+                Substitution.fromTriangularForm(context.bindingList, termStore));
+    }
+
+    @Override
+    public boolean isUnifiable(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        Objects.requireNonNull(termPair);
+        context.clear();
+        return unify(termPair.term1(), termPair.term2(), context);
+    }
+
+    @Override
+    public @NotNull UnificationResult findUnifier(
+            @NotNull final TermArena arena, final int node1, final int node2) {
+        return new PolynomialRobinsonArenaUnifier(Objects.requireNonNull(arena))
+                .findUnifier(node1, node2, termStore);
     }
 
     /**
@@ -39,42 +82,57 @@ public class PolynomialRobinsonUnificationStrategy implements UnificationStrateg
      *
      * @param term1 first term
      * @param term2 second term
-     * @param bindingList a list of bindings
+     * @param context a context of the call
+     * @return false if the terms are not unifiable
      */
-    private void findUnifierRecursive(
-            Term term1, Term term2, Map<Term, Term> bindingList) {
-        term1 = findInstantiation(term1);
-        term2 = findInstantiation(term2);
+    private boolean unify(Term term1, Term term2, UnificationContext context) {
+        Map<Term, Term> instantiations = context.instantiations;
+        term1 = findInstantiation(term1, instantiations);
+        term2 = findInstantiation(term2, instantiations);
+        // A variable is unified with itself, and must not fail the occurs check
+        if (term1 == term2 || term1 instanceof Variable && term1.equals(term2))
+            return true;
         if (term1 instanceof Variable variable1)
-            unifyVariable(variable1, term2, bindingList);
-        else if (term2 instanceof Variable variable2)
-            unifyVariable(variable2, term1, bindingList);
-        else if (!term1.nameEquals(term2))
-            throw new IllegalStateException("Symbol clash");
-        else if (term1 instanceof TermWithArgs term1WithArgs &&
-                 term2 instanceof TermWithArgs term2WithArgs) {
+            return unifyVariable(variable1, term2, context);
+        if (term2 instanceof Variable variable2)
+            return unifyVariable(variable2, term1, context);
+        if (!term1.nameEquals(term2))
+            return false;
+        if (term1 instanceof TermWithArgs term1WithArgs &&
+            term2 instanceof TermWithArgs term2WithArgs) {
+            // Equal ground terms have equal hashes; equal ones are still
+            // decomposed, as comparing them may take the size of the tree
+            if (term1.isGround() && term2.isGround() && term1.hashCode() != term2.hashCode())
+                return false;
             List<Term> successorsOfTerm1 = term1WithArgs.getArgs();
             List<Term> successorsOfTerm2 = term2WithArgs.getArgs();
             int successorCount = successorsOfTerm1.size();
+            if (successorCount != successorsOfTerm2.size())
+                return false;
             for (int i = 0; i < successorCount; i++) {
                 Term ithSuccessorOfTerm1 = successorsOfTerm1.get(i);
                 Term ithSuccessorOfTerm2 = successorsOfTerm2.get(i);
                 if (ithSuccessorOfTerm1 == ithSuccessorOfTerm2)
                     continue;
-                findUnifierRecursive(ithSuccessorOfTerm1, ithSuccessorOfTerm2, bindingList);
+                if (!unify(ithSuccessorOfTerm1, ithSuccessorOfTerm2, context))
+                    return false;
             }
             instantiations.put(term1, term2);
+            return true;
         }
+        return !(term1 instanceof TermWithArgs || term2 instanceof TermWithArgs);
     }
 
-    private void unifyVariable(Variable variable, Term term, Map<Term, Term> bindingList) {
-        if (occurs(variable, term))
-            throw new IllegalStateException("Occurs check");
-        bindingList.put(variable, term);
-        instantiations.put(variable, term);
+    private boolean unifyVariable(Variable variable, Term term, UnificationContext context) {
+        if (occurs(variable, term, context))
+            return false;
+        context.bindingList.put(variable, term);
+        context.instantiations.put(variable, term);
+        context.boundVariables |= variable.variableMask();
+        return true;
     }
 
-    private Term findInstantiation(Term term) {
+    private Term findInstantiation(Term term, Map<Term, Term> instantiations) {
         Term result = term;
         while (instantiations.containsKey(result)) {
             result = instantiations.get(result);
@@ -82,19 +140,29 @@ public class PolynomialRobinsonUnificationStrategy implements UnificationStrateg
         return result;
     }
 
-    private boolean occurs(Term term1, Term term2) {
+    /**
+     * Checks if the variable occurs in the instantiated term. A subterm
+     * whose variable mask has no bit of the variable and of the bound
+     * variables is skipped: its variables are unbound, and the terms it
+     * is unified with contain no other unbound variables.
+     */
+    private boolean occurs(Term term1, Term term2, UnificationContext context) {
+        long mask = term1.variableMask() | context.boundVariables;
+        if ((term2.variableMask() & mask) == 0)
+            return false;
         Set<Term> visited = Collections.newSetFromMap(new IdentityHashMap<>());
-        return occursRecursive(term1, term2, visited);
+        return occursRecursive(term1, term2, mask, visited, context.instantiations);
     }
 
-    private boolean occursRecursive(Term term1, Term term2, Set<Term> visited) {
+    private boolean occursRecursive(
+            Term term1, Term term2, long mask, Set<Term> visited, Map<Term, Term> instantiations) {
         if (!(term2 instanceof TermWithArgs term2WithArgs))
             return term1 == term2;
-        if (visited.contains(term2))
+        if ((term2.variableMask() & mask) == 0 || visited.contains(term2))
             return false;
         visited.add(term2);
         for (Term child : term2WithArgs.getArgs()) {
-            if (occursRecursive(term1, findInstantiation(child), visited))
+            if (occursRecursive(term1, findInstantiation(child, instantiations), mask, visited, instantiations))
                 return true;
         }
         return false;
@@ -0,0 +1,122 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Term;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A substitution whose variables are renamed on demand.
+ * <p>
+ * The substitution is defined by another substitution and a renaming
+ * of its variables: if the other substitution binds {@code x} to
+ * {@code t}, this one binds the renamed {@code x} to the renamed
+ * {@code t}. A binding is renamed only when it is requested, so
+ * a renamed cached unifier costs nothing until it is used. Renamed
+ * bindings are kept, and renamed subterms are memoized by identity,
+ * so a binding is renamed once however many times it is requested,
+ * and the subterms that bindings share are renamed once.
+ * <p>
+ * This class is thread-safe if the other substitution is thread-safe.
+ */
+final class RenamedSubstitution implements Substitution {
+    /**
+     * A substitution of the original variables
+     */
+    @NotNull
+    private final Substitution substitution;
+
+    /**
+     * A renaming of the original variables
+     */
+    @NotNull
+    private final Substitution renaming;
+
+    /**
+     * Applies the renaming, keeping the renamed subterms
+     */
+    @NotNull
+    private final SharingInstantiator renamer;
+
+    /**
+     * Renamed bindings of the renamed variables that are requested
+     */
+    @NotNull
+    private final Map<Term, Term> bindings = new HashMap<>();
+
+    /**
+     * The original variables of the renamed ones
+     */
+    @NotNull
+    private final Map<Term, Term> originals;
+
+    /**
+     * The domain, built on the first request
+     */
+    @Nullable
+    private Map<Term, Term> domain = null;
+
+    /**
+     * Creates a new substitution from the substitution of the
+     * original variables and a one-to-one renaming of them.
+     *
+     * @param substitution a substitution of the original variables
+     * @param renaming the renamed variables of the original ones
+     */
+    RenamedSubstitution(
+            @NotNull final Substitution substitution,
+            @NotNull final Map<Term, Term> renaming) {
+        this.substitution = Objects.requireNonNull(substitution);
+        this.renaming = Substitution.of(Map.copyOf(renaming));
+        this.renamer = new SharingInstantiator(this.renaming, null);
+        this.originals = new HashMap<>();
+        for (Map.Entry<Term, Term> entry : renaming.entrySet()) {
+            originals.put(entry.getValue(), entry.getKey());
+        }
+    }
+
+    @Override
+    public synchronized Term getBinding(Term variable) {
+        Term binding = bindings.get(variable);
+        if (binding == null) {
+            Term original = originals.get(variable);
+            if (original == null) {
+                return variable;
+            }
+            binding = renamer.instantiate(substitution.getBinding(original));
+            bindings.put(variable, binding);
+        }
+        return binding;
+    }
+
+    @Override
+    public synchronized @NotNull Map<Term, Term> domain() {
+        if (domain == null) {
+            Map<Term, Term> renamedDomain = new LinkedHashMap<>();
+            for (Map.Entry<Term, Term> binding : substitution.domain().entrySet()) {
+                renamedDomain.put(
+                        renaming.getBinding(binding.getKey()),
+                        renamer.instantiate(binding.getValue()));
+            }
+            domain = renamedDomain;
+        }
+        return domain;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        return obj instanceof Substitution other
+                && domain().equals(other.domain());
+    }
+
+    @Override
+    public int hashCode() {
+        return domain().hashCode();
+    }
+}
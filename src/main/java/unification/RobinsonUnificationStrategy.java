@@ -1,7 +1,9 @@
 package unification;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import syntax.Constant;
+import syntax.TermStore;
 import syntax.TermWithArgs;
 import syntax.Term;
 import syntax.TermPair;
@@ -10,20 +12,98 @@ import syntax.Variable;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * An implementation of Robinson's unification algorithm
+ * <p>
+ * This class is thread-safe if it does not use a {@link TermStore}.
  */
 public class RobinsonUnificationStrategy implements UnificationStrategy {
+    /**
+     * A way the substitution is kept while the unifier is searched
+     */
+    public enum Mode {
+        /**
+         * Every new binding is applied to all the previous bindings,
+         * so the substitution is always idempotent. This is the
+         * textbook algorithm; it may copy the bound terms for every
+         * new binding.
+         */
+        EAGER,
+        /**
+         * Bindings are only added, so the substitution is kept in the
+         * triangular form and is resolved once, when the unifier
+         * is found. Variables are dereferenced when they are reached,
+         * and the occurs check visits every shared subterm once and
+         * remembers the subterms that are already known to be ground.
+         */
+        TRIANGULAR
+    }
+
+    /**
+     * A way the substitution is kept
+     */
+    @NotNull
+    private final Mode mode;
+
+    /**
+     * A store that is used to build terms of the unifier
+     */
+    @Nullable
+    private final TermStore termStore;
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * without sharing.
+     */
+    public RobinsonUnificationStrategy() {
+        this(null);
+    }
+
+    /**
+     * Creates a new strategy that builds terms of the unifier
+     * through the provided store.
+     *
+     * @param termStore a store of unique terms or {@code null}
+     */
+    public RobinsonUnificationStrategy(@Nullable final TermStore termStore) {
+        this(Mode.EAGER, termStore);
+    }
+
+    /**
+     * Creates a new strategy that keeps the substitution
+     * in the provided mode and builds terms of the unifier
+     * through the provided store.
+     *
+     * @param mode a way the substitution is kept
+     * @param termStore a store of unique terms or {@code null}
+     */
+    public RobinsonUnificationStrategy(
+            @NotNull final Mode mode,
+            @Nullable final TermStore termStore) {
+        this.mode = Objects.requireNonNull(mode);
+        this.termStore = termStore;
+    }
+
     @Override
     public @NotNull UnificationResult findUnifier(
-            @NotNull final TermPair termPair) {
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
         Objects.requireNonNull(termPair);
+        context.clear();
+        if (mode == Mode.TRIANGULAR) {
+            if (!unifyTriangular(termPair, context)) {
+                return UnificationResult.notUnifiable();
+            }
+            return UnificationResult.unifiable(
+                    Substitution.fromTriangularForm(context.bindingList, termStore));
+        }
         Map<Term, Term> substitutionDomain = new HashMap<>();
-        Deque<Term> termStack = new ArrayDeque<>();
+        Deque<Term> termStack = context.termStack;
         termStack.push(termPair.term1());
         termStack.push(termPair.term2());
         while (!termStack.isEmpty()) {
@@ -35,18 +115,23 @@ public class RobinsonUnificationStrategy implements UnificationStrategy {
             }
             if (currentTerm2 instanceof Variable) {
                 currentTerm2 = substitutionDomain
-                        .getOrDefault(currentTerm1, currentTerm2);
+                        .getOrDefault(currentTerm2, currentTerm2);
             }
             if (currentTerm1 instanceof Variable
-                    && currentTerm1.getName().equals(currentTerm2.getName())) {
+                    && currentTerm1.nameEquals(currentTerm2)) {
                 // Do nothing
             } else if (currentTerm1 instanceof TermWithArgs currentTerm1WithArgs
                     && currentTerm2 instanceof TermWithArgs currentTerm2WithArgs) {
-                String name1 = currentTerm1.getName();
-                String name2 = currentTerm2.getName();
+                if (currentTerm1.isGround() && currentTerm2.isGround()) {
+                    // Ground terms bind nothing, they are unifiable only if equal
+                    if (!currentTerm1.equals(currentTerm2)) {
+                        return UnificationResult.notUnifiable();
+                    }
+                    continue;
+                }
                 List<Term> children1 = currentTerm1WithArgs.getArgs();
                 List<Term> children2 = currentTerm2WithArgs.getArgs();
-                if (!name1.equals(name2)
+                if (!currentTerm1.nameEquals(currentTerm2)
                         || children1.size() != children2.size()) {
                     return UnificationResult.notUnifiable();
                 }
@@ -56,19 +141,28 @@ public class RobinsonUnificationStrategy implements UnificationStrategy {
                 }
             } else if (currentTerm1 instanceof Constant
                     && currentTerm2 instanceof Constant) {
-                if (!currentTerm1.getName().equals(currentTerm2.getName())) {
+                if (!currentTerm1.nameEquals(currentTerm2)) {
                     return UnificationResult.notUnifiable();
                 }
             } else if (!(currentTerm1 instanceof Variable)) {
+                if (!(currentTerm2 instanceof Variable)) {
+                    return UnificationResult.notUnifiable();
+                }
                 termStack.push(currentTerm2);
                 termStack.push(currentTerm1);
-            } else if (currentTerm2.contains(currentTerm1)) {
-                return UnificationResult.notUnifiable();
             } else {
+                // The pending term may contain variables that are
+                // bound after it was pushed
+                Term replacementTerm = termStore == null
+                        ? Substitution.of(substitutionDomain).instantiateVariables(currentTerm2)
+                        : Substitution.of(substitutionDomain).instantiateVariables(currentTerm2, termStore);
+                if (replacementTerm.contains(currentTerm1)) {
+                    return UnificationResult.notUnifiable();
+                }
                 composition(
                         substitutionDomain,
                         currentTerm1,
-                        currentTerm2);
+                        replacementTerm);
             }
         }
         return UnificationResult.unifiable(Substitution.of(substitutionDomain));
@@ -88,9 +182,221 @@ public class RobinsonUnificationStrategy implements UnificationStrategy {
         Substitution singleSubstitution = Substitution.of(variable, replacementTerm);
 
         for (var entry: substitutionDomain.entrySet()) {
-            Term newReplacement = singleSubstitution.instantiateVariables(entry.getValue());
+            Term newReplacement = termStore == null
+                    ? singleSubstitution.instantiateVariables(entry.getValue())
+                    : singleSubstitution.instantiateVariables(entry.getValue(), termStore);
             substitutionDomain.put(entry.getKey(), newReplacement);
         }
         substitutionDomain.put(variable, replacementTerm);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The answer does not depend on the way the substitution is kept,
+     * so the terms are unified in the triangular form in both modes.
+     */
+    @Override
+    public boolean isUnifiable(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        Objects.requireNonNull(termPair);
+        context.clear();
+        return unifyTriangular(termPair, context);
+    }
+
+    /**
+     * Unifies the terms keeping the substitution in the triangular
+     * form in the binding list of the context.
+     *
+     * @return false if the terms are not unifiable
+     */
+    private boolean unifyTriangular(
+            TermPair termPair, UnificationContext context) {
+        Map<Term, Term> bindingList = context.bindingList;
+        Deque<Term> termStack = context.termStack;
+        OccursCheck occursCheck = new OccursCheck(bindingList);
+        termStack.push(termPair.term1());
+        termStack.push(termPair.term2());
+        while (!termStack.isEmpty()) {
+            Term currentTerm2 = dereference(termStack.pop(), bindingList);
+            Term currentTerm1 = dereference(termStack.pop(), bindingList);
+            if (currentTerm1 == currentTerm2) {
+                continue;
+            }
+            if (!(currentTerm1 instanceof Variable) && currentTerm2 instanceof Variable) {
+                Term swap = currentTerm1;
+                currentTerm1 = currentTerm2;
+                currentTerm2 = swap;
+            }
+            if (currentTerm1 instanceof Variable) {
+                if (currentTerm1.equals(currentTerm2)) {
+                    continue;
+                }
+                if (occursCheck.occurs(currentTerm1, currentTerm2)) {
+                    return false;
+                }
+                bindingList.put(currentTerm1, currentTerm2);
+                occursCheck.bound(currentTerm1);
+            } else if (currentTerm1 instanceof TermWithArgs currentTerm1WithArgs
+                    && currentTerm2 instanceof TermWithArgs currentTerm2WithArgs) {
+                if (currentTerm1.isGround() && currentTerm2.isGround()) {
+                    if (!currentTerm1.equals(currentTerm2)) {
+                        return false;
+                    }
+                    continue;
+                }
+                List<Term> children1 = currentTerm1WithArgs.getArgs();
+                List<Term> children2 = currentTerm2WithArgs.getArgs();
+                if (!currentTerm1.nameEquals(currentTerm2)
+                        || children1.size() != children2.size()) {
+                    return false;
+                }
+                for (int i = children1.size() - 1; i >= 0; i--) {
+                    termStack.push(children1.get(i));
+                    termStack.push(children2.get(i));
+                }
+            } else if (!(currentTerm1 instanceof Constant)
+                    || !(currentTerm2 instanceof Constant)
+                    || !currentTerm1.nameEquals(currentTerm2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Follows the bindings of the variable until a non-variable
+     * term or an unbound variable is reached.
+     */
+    private static Term dereference(Term term, Map<Term, Term> bindingList) {
+        while (term instanceof Variable) {
+            Term binding = bindingList.get(term);
+            if (binding == null) {
+                return term;
+            }
+            term = binding;
+        }
+        return term;
+    }
+
+    /**
+     * An occurs check that is shared by all the bindings of one call.
+     * Every node is visited at most once per check. Nodes that contain
+     * no unbound variables are marked as ground: bindings are never
+     * removed, so they stay ground and are skipped by all the
+     * following checks.
+     * <p>
+     * The check also keeps the union of the variable masks of the bound
+     * variables. A node whose mask has no bit of the checked variable and
+     * of the bound variables contains neither of them, so it is skipped
+     * without visiting its children. While few variables are bound,
+     * most checks are answered by the mask of the term alone.
+     */
+    private static final class OccursCheck {
+        /**
+         * A mark of a ground node
+         */
+        private static final int GROUND = -1;
+        /**
+         * A binding list
+         */
+        private final Map<Term, Term> bindingList;
+        /**
+         * Marks of the visited nodes: the number of the check
+         * that entered the node, the number of the check that
+         * left it, or {@link #GROUND}
+         */
+        private final Map<Term, int[]> marks = new IdentityHashMap<>();
+        /**
+         * Nodes to be visited
+         */
+        private final Deque<Term> stack = new ArrayDeque<>();
+        /**
+         * A number of the current check
+         */
+        private int check = 0;
+        /**
+         * A union of the variable masks of the bound variables
+         */
+        private long boundVariables = 0;
+
+        private OccursCheck(final Map<Term, Term> bindingList) {
+            this.bindingList = bindingList;
+        }
+
+        /**
+         * Checks if the unbound variable occurs in the term
+         * under the current bindings.
+         */
+        private boolean occurs(Term variable, Term term) {
+            long mask = variable.variableMask() | boundVariables;
+            if ((term.variableMask() & mask) == 0) {
+                return false;
+            }
+            if (!(term instanceof TermWithArgs)) {
+                return variable.equals(term);
+            }
+            check++;
+            stack.clear();
+            stack.push(term);
+            while (!stack.isEmpty()) {
+                Term current = stack.peek();
+                if (current instanceof Variable) {
+                    stack.pop();
+                    if (variable.equals(current)) {
+                        return true;
+                    }
+                    continue;
+                }
+                if (!(current instanceof TermWithArgs currentWithArgs)
+                        || (current.variableMask() & mask) == 0) {
+                    stack.pop();
+                    continue;
+                }
+                int[] mark = marks.computeIfAbsent(current, node -> new int[2]);
+                if (mark[0] == GROUND || mark[1] == check) {
+                    stack.pop();
+                    continue;
+                }
+                List<Term> args = currentWithArgs.getArgs();
+                if (mark[0] != check) {
+                    mark[0] = check;
+                    for (Term arg : args) {
+                        stack.push(dereference(arg, bindingList));
+                    }
+                    continue;
+                }
+                stack.pop();
+                mark[1] = check;
+                if (isGround(args)) {
+                    mark[0] = GROUND;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Records that the variable is bound.
+         */
+        private void bound(Term variable) {
+            boundVariables |= variable.variableMask();
+        }
+
+        private boolean isGround(List<Term> args) {
+            for (Term arg : args) {
+                Term child = dereference(arg, bindingList);
+                if (child instanceof Variable) {
+                    return false;
+                }
+                if (child instanceof TermWithArgs && !child.isGround()) {
+                    int[] mark = marks.get(child);
+                    if (mark == null || mark[0] != GROUND) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
 }
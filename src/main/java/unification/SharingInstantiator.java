@@ -0,0 +1,164 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Term;
+import syntax.TermStore;
+import syntax.TermWithArgs;
+import syntax.Variable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a substitution to a term preserving the sharing of its subterms.
+ * <p>
+ * Every node of the term is processed once: the result of a node is
+ * memoized by identity, so a node that is shared by several parents
+ * is replaced by one shared result, and the result of a DAG is a DAG
+ * of the same size, not a tree. A ground node is returned as is unless
+ * the result is built through a store. Nodes are processed in post-order
+ * with an explicit stack, so deep terms do not overflow the call stack.
+ * <p>
+ * An instantiator keeps the results between calls, so the terms that
+ * share nodes with a term it has processed reuse their results.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class SharingInstantiator {
+    /**
+     * A substitution to apply
+     */
+    @NotNull
+    private final Substitution substitution;
+
+    /**
+     * A store that is used to build the results or {@code null}
+     */
+    @Nullable
+    private final TermStore termStore;
+
+    /**
+     * Results of the processed nodes
+     */
+    private final Map<Term, Term> results = new IdentityHashMap<>();
+
+    /**
+     * Creates a new instantiator.
+     *
+     * @param substitution a substitution to apply
+     * @param termStore a store of unique terms that is used to build
+     *                  the results or {@code null} if the results should
+     *                  reuse the nodes of the terms
+     */
+    SharingInstantiator(
+            @NotNull final Substitution substitution,
+            @Nullable final TermStore termStore) {
+        this.substitution = substitution;
+        this.termStore = termStore;
+    }
+
+    /**
+     * Applies the substitution to the term.
+     *
+     * @param substitution a substitution
+     * @param term a term
+     * @param termStore a store of unique terms that is used to build
+     *                  the result or {@code null} if the result should
+     *                  reuse the nodes of the term
+     * @return the term with bound variables replaced
+     */
+    @NotNull
+    static Term instantiate(
+            @NotNull final Substitution substitution,
+            @NotNull final Term term,
+            @Nullable final TermStore termStore) {
+        return new SharingInstantiator(substitution, termStore).instantiate(term);
+    }
+
+    /**
+     * Applies the substitution to the term, reusing the results
+     * of the nodes that are already processed.
+     *
+     * @param term a term
+     * @return the term with bound variables replaced
+     */
+    @NotNull
+    Term instantiate(@NotNull final Term term) {
+        if (!(term instanceof TermWithArgs) || isReused(term)) {
+            return leaf(term);
+        }
+        Deque<TermWithArgs> stack = new ArrayDeque<>();
+        stack.push((TermWithArgs) term);
+        while (!stack.isEmpty()) {
+            TermWithArgs node = stack.peek();
+            if (results.containsKey(node)) {
+                stack.pop();
+                continue;
+            }
+            boolean ready = true;
+            for (Term arg : node.getArgs()) {
+                if (arg instanceof TermWithArgs argWithArgs && !isReused(arg) && !results.containsKey(arg)) {
+                    stack.push(argWithArgs);
+                    ready = false;
+                }
+            }
+            if (!ready) {
+                continue;
+            }
+            stack.pop();
+            results.put(node, build(node));
+        }
+        return results.get(term);
+    }
+
+    /**
+     * Builds the result of the node whose arguments are processed.
+     */
+    private Term build(TermWithArgs node) {
+        List<Term> args = node.getArgs();
+        List<Term> newArgs = new ArrayList<>(args.size());
+        boolean changed = false;
+        for (Term arg : args) {
+            Term newArg = arg instanceof TermWithArgs && !isReused(arg) ? results.get(arg) : leaf(arg);
+            changed |= newArg != arg;
+            newArgs.add(newArg);
+        }
+        if (termStore != null) {
+            return termStore.function(node.getName(), newArgs);
+        }
+        return changed ? new TermWithArgs(node.getName(), newArgs) : node;
+    }
+
+    /**
+     * Returns true if the node is its own result: it has no
+     * variables and the result is not built through a store.
+     */
+    private boolean isReused(Term term) {
+        return termStore == null && term.isGround();
+    }
+
+    /**
+     * Returns the result of a leaf: a constant, a variable or a
+     * reused ground node. The results of the variables are memoized,
+     * so a variable that occurs many times is looked up once.
+     */
+    private Term leaf(Term term) {
+        if (termStore == null && !(term instanceof Variable)) {
+            return term;
+        }
+        Term result = results.get(term);
+        if (result == null) {
+            result = term instanceof Variable ? substitution.getBinding(term) : term;
+            if (termStore != null) {
+                result = termStore.intern(result);
+            }
+            results.put(term, result);
+        }
+        return result;
+    }
+}
@@ -1,13 +1,11 @@
 package unification;
 
 import org.jetbrains.annotations.NotNull;
-import syntax.TermWithArgs;
+import org.jetbrains.annotations.Nullable;
+import syntax.TermStore;
 import syntax.Term;
-import syntax.Variable;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -28,7 +26,28 @@ public interface Substitution {
      */
     @NotNull
     static Substitution fromTriangularForm(final @NotNull Map<Term, Term> bindingList) {
-        return new TriangularFormConverter(bindingList).convert();
+        return fromTriangularForm(bindingList, null);
+    }
+
+    /**
+     * Constructs a new substitution from provided substitution in
+     * the triangular (ordered) form. Replacement terms are built
+     * through the provided store.
+     * <p>
+     * The binding list is copied, and the bindings are resolved
+     * lazily: a replacement term is built only when it is requested,
+     * and every resolved subterm is shared between the requests.
+     *
+     * @param bindingList list of bindings
+     * @param termStore a store of unique terms or {@code null}
+     *                  if replacement terms should not be shared
+     * @return a new substitution from provided binding list
+     */
+    @NotNull
+    static Substitution fromTriangularForm(
+            final @NotNull Map<Term, Term> bindingList,
+            final @Nullable TermStore termStore) {
+        return new TriangularSubstitution(bindingList, termStore);
     }
 
     /**
@@ -75,10 +94,16 @@ public interface Substitution {
     Term getBinding(Term variable);
 
     /**
-     * Applies substitution to the copy of the provided term.
+     * Applies substitution to the provided term.
      * Returned term will have all instances of variables
      * contained in the domain of substitution replaced by
      * corresponding terms
+     * <p>
+     * Sharing of the subterms is preserved: every node of the term
+     * is processed once, a shared node is replaced by a shared result,
+     * and a node without bound variables is reused as is. So the
+     * result of a DAG is a DAG of at most the same number of nodes
+     * plus the nodes of the replacement terms.
      *
      * @param term A term to substitute variables in
      * @return Term with variables in the domain of this substitution
@@ -86,19 +111,26 @@ public interface Substitution {
      */
     @NotNull
     default Term instantiateVariables(@NotNull final Term term) {
-        Objects.requireNonNull(term);
-
-        if (term instanceof TermWithArgs termWithArgs) {
-            List<Term> newChildren = new ArrayList<>(termWithArgs.getArgs().size());
-            for (var child : termWithArgs.getArgs())
-                newChildren.add(instantiateVariables(child));
+        return SharingInstantiator.instantiate(this, Objects.requireNonNull(term), null);
+    }
 
-            return new TermWithArgs(term.getName(), newChildren);
-        }
-        if (term instanceof Variable) {
-            return getBinding(term);
-        }
-        return term;
+    /**
+     * Applies substitution to the provided term. Returned term
+     * is built through the provided store, so it is the unique
+     * term of this store.
+     *
+     * @param term A term to substitute variables in
+     * @param termStore a store of unique terms
+     * @return Term with variables in the domain of this substitution
+     *         replaced by corresponding terms.
+     * @see #instantiateVariables(Term)
+     */
+    @NotNull
+    default Term instantiateVariables(
+            @NotNull final Term term,
+            @NotNull final TermStore termStore) {
+        return SharingInstantiator.instantiate(
+                this, Objects.requireNonNull(term), Objects.requireNonNull(termStore));
     }
 
     /**
@@ -0,0 +1,95 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Constant;
+import syntax.Term;
+import syntax.TermWithArgs;
+import syntax.Variable;
+import util.IntObjectMap;
+
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An implementation of syntactic matching.
+ * <p>
+ * The pattern and the subject are traversed simultaneously with
+ * an explicit stack. A variable of the pattern is bound to the
+ * subterm of the subject at the same position on its first
+ * occurrence, and every other occurrence must be equal to that
+ * subterm. Nothing is ever bound in the subject, so there is no
+ * occurs check, and the time is linear in the size of the pattern
+ * plus the cost of comparing the subterms of the repeated variables.
+ * <p>
+ * The stack and the bindings are kept in the context, and the
+ * bindings are keyed by the symbols of the variables, so a miss
+ * allocates nothing. A variable that is bound to another term is
+ * also recorded on its first occurrence, so on a match the
+ * substitution is built from these records without walking the
+ * pattern again.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class SyntacticMatchingStrategy implements MatchingStrategy {
+    @Override
+    public @Nullable Substitution match(
+            @NotNull final Term pattern,
+            @NotNull final Term subject,
+            @NotNull final UnificationContext context) {
+        Objects.requireNonNull(pattern);
+        Objects.requireNonNull(subject);
+        context.clear();
+        IntObjectMap<Term> bindings = context.symbolBindings;
+        Map<Term, Term> domain = context.bindingList;
+        Deque<Term> termStack = context.termStack;
+        termStack.push(subject);
+        termStack.push(pattern);
+        while (!termStack.isEmpty()) {
+            Term currentPattern = termStack.pop();
+            Term currentSubject = termStack.pop();
+            if (currentPattern instanceof Variable) {
+                Term binding = bindings.putIfAbsent(currentPattern.getSymbol(), currentSubject);
+                if (binding == null) {
+                    if (!currentPattern.equals(currentSubject)) {
+                        domain.put(currentPattern, currentSubject);
+                    }
+                } else if (binding != currentSubject && !binding.equals(currentSubject)) {
+                    return null;
+                }
+            } else if (currentPattern instanceof TermWithArgs patternWithArgs) {
+                if (currentPattern.isGround()) {
+                    // A ground pattern binds nothing, it matches only an equal subject
+                    if (!currentPattern.equals(currentSubject)) {
+                        return null;
+                    }
+                    continue;
+                }
+                if (!(currentSubject instanceof TermWithArgs subjectWithArgs)
+                        || !currentPattern.nameEquals(currentSubject)
+                        || patternWithArgs.getArgs().size() != subjectWithArgs.getArgs().size()) {
+                    return null;
+                }
+                for (int i = patternWithArgs.getArgs().size() - 1; i >= 0; i--) {
+                    termStack.push(subjectWithArgs.getArgs().get(i));
+                    termStack.push(patternWithArgs.getArgs().get(i));
+                }
+            } else if (!(currentPattern instanceof Constant)
+                    || !(currentSubject instanceof Constant)
+                    || !currentPattern.nameEquals(currentSubject)) {
+                return null;
+            }
+        }
+        return toSubstitution(domain);
+    }
+
+    /**
+     * Builds the substitution of the recorded bindings. The map
+     * of the context is reused, so it is copied.
+     */
+    private static Substitution toSubstitution(Map<Term, Term> domain) {
+        return domain.isEmpty() ? Substitution.identity() : Substitution.of(new HashMap<>(domain));
+    }
+}
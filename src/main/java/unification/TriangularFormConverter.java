@@ -1,12 +1,15 @@
 package unification;
 
 import org.jetbrains.annotations.NotNull;
-import syntax.Constant;
+import org.jetbrains.annotations.Nullable;
+import syntax.TermStore;
 import syntax.TermWithArgs;
 import syntax.Term;
 import syntax.Variable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -23,6 +26,14 @@ class TriangularFormConverter {
     @NotNull
     final Map<Term, Term> bindingList;
 
+    /**
+     * A store of unique terms that is used to build
+     * replacement terms. If it is {@code null}, then
+     * new terms are not shared.
+     */
+    @Nullable
+    private final TermStore termStore;
+
     /**
      * A list of terms that are already processed.
      */
@@ -36,9 +47,13 @@ class TriangularFormConverter {
      * Constructs a new converter from provided binding list.
      *
      * @param bindingList a binding list.
+     * @param termStore a store of unique terms or {@code null}.
      */
-    TriangularFormConverter(@NotNull Map<Term, Term> bindingList) {
+    TriangularFormConverter(
+            @NotNull Map<Term, Term> bindingList,
+            @Nullable TermStore termStore) {
         this.bindingList = bindingList;
+        this.termStore = termStore;
     }
 
     /**
@@ -50,76 +65,100 @@ class TriangularFormConverter {
         for (Map.Entry<Term, Term> entry : bindingList.entrySet()) {
             domain.put(
                     entry.getKey(),
-                    exploreVariable(entry.getKey()));
+                    resolve(entry.getKey()));
         }
         return Substitution.of(domain);
     }
 
     /**
-     * Processes a term that is associated to the
-     * provided variable.
+     * Returns the term that is associated with the provided
+     * variable in the non-ordered form. Only the bindings that
+     * are reachable from this variable are resolved.
      *
      * @param variable a variable
-     * @return a new term that will be associated
-     *         with this variable in a non-ordered
-     *         substitution.
+     * @return the replacement term or the variable itself
+     *         if it is not bound
      */
-    private Term exploreVariable(
-            Term variable) {
-        if (ready.containsKey(variable)) {
-            return ready.get(variable);
+    Term resolve(Term variable) {
+        Term result = ready.get(variable);
+        if (result != null) {
+            return result;
         }
-        Term result = descend(bindingList.get(variable));
-        if (result == null) {
-            result = variable;
+        Deque<Term> stack = new ArrayDeque<>();
+        stack.push(variable);
+        while (!stack.isEmpty()) {
+            Term term = stack.peek();
+            if (ready.containsKey(term)) {
+                stack.pop();
+            } else if (term instanceof Variable) {
+                Term binding = bindingList.get(term);
+                if (binding == null) {
+                    ready.put(term, share(term));
+                    stack.pop();
+                } else if (ready.containsKey(binding)) {
+                    ready.put(term, ready.get(binding));
+                    stack.pop();
+                } else {
+                    stack.push(binding);
+                }
+            } else if (term instanceof TermWithArgs termWithArgs) {
+                if (pushArgs(termWithArgs.getArgs(), stack)) {
+                    ready.put(term, build(termWithArgs));
+                    stack.pop();
+                }
+            } else {
+                ready.put(term, share(term));
+                stack.pop();
+            }
         }
-        ready.put(variable, result);
-        return result;
+        return ready.get(variable);
     }
 
     /**
-     * Recursively processes a provided term.
+     * Pushes the arguments that are not processed yet.
      *
-     * @param term a term.
-     * @return modified term.
+     * @return true if all the arguments are processed
      */
-    private Term descend(Term term) {
-        if (term == null) {
-            return null;
-        }
-        if (term instanceof Variable) {
-            return exploreVariable(term);
-        }
-        if (term instanceof Constant) {
-            return term;
-        }
-        if (ready.containsKey(term)) {
-            return ready.get(term);
-        }
-        if (term instanceof TermWithArgs termWithArgs) {
-            List<Term> result = exploreArgs(termWithArgs.getArgs());
-            if (result.equals(termWithArgs.getArgs())) {
-                ready.put(termWithArgs, termWithArgs);
-            } else {
-                ready.put(termWithArgs, new TermWithArgs(termWithArgs.getName(), result));
+    private boolean pushArgs(List<Term> args, Deque<Term> stack) {
+        boolean processed = true;
+        for (Term arg : args) {
+            if (!ready.containsKey(arg)) {
+                stack.push(arg);
+                processed = false;
             }
         }
-        return ready.get(term);
-
+        return processed;
     }
 
     /**
-     * Processes a list of terms
-     *
-     * @param args list of terms
-     * @return a new list that contains
-     *         modified arguments.
+     * Builds the replacement of a term whose arguments
+     * are processed. If there is no store and no argument
+     * is changed, the term itself is used.
      */
-    private List<Term> exploreArgs(List<Term> args) {
-        List<Term> newArgs = new ArrayList<>();
+    private Term build(TermWithArgs termWithArgs) {
+        List<Term> args = termWithArgs.getArgs();
+        List<Term> newArgs = new ArrayList<>(args.size());
+        boolean changed = false;
         for (Term arg : args) {
-            newArgs.add(descend(arg));
+            Term newArg = ready.get(arg);
+            changed |= newArg != arg;
+            newArgs.add(newArg);
         }
-        return newArgs;
+        if (termStore != null) {
+            return termStore.function(termWithArgs.getName(), newArgs);
+        }
+        return changed ? new TermWithArgs(termWithArgs.getName(), newArgs) : termWithArgs;
+    }
+
+    /**
+     * Returns the unique term of the store that is equal
+     * to the provided leaf term. If there is no store,
+     * the provided term is returned as is.
+     *
+     * @param term a leaf term
+     * @return the term to be used in the resulting substitution
+     */
+    private Term share(Term term) {
+        return termStore == null ? term : termStore.intern(term);
     }
 }
@@ -0,0 +1,82 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.Term;
+import syntax.TermStore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A substitution in the triangular form that is resolved on demand.
+ * <p>
+ * A replacement term of a variable may contain other variables of
+ * the domain, and the fully applied terms may be exponentially larger
+ * than the bindings, e.g. for {@code x1=f(x0,x0), x2=f(x1,x1), ...}.
+ * This substitution keeps the bindings as they are and resolves
+ * a binding only when it is requested by {@link #getBinding(Term)},
+ * {@link #instantiateVariables(Term)} or {@link #domain()}. Resolved
+ * terms are memoized, so they are built as DAGs: every binding and
+ * every subterm is resolved at most once.
+ * <p>
+ * This class is thread-safe.
+ */
+final class TriangularSubstitution implements Substitution {
+    /**
+     * A converter that resolves the bindings and memoizes the results
+     */
+    @NotNull
+    private final TriangularFormConverter converter;
+
+    /**
+     * The domain in the non-ordered form, built on the first request
+     */
+    @Nullable
+    private Map<Term, Term> domain = null;
+
+    /**
+     * Creates a new substitution from a copy of the binding list.
+     *
+     * @param bindingList list of bindings
+     * @param termStore a store of unique terms or {@code null}
+     */
+    TriangularSubstitution(
+            @NotNull final Map<Term, Term> bindingList,
+            @Nullable final TermStore termStore) {
+        this.converter = new TriangularFormConverter(
+                new HashMap<>(Objects.requireNonNull(bindingList)), termStore);
+    }
+
+    @Override
+    public synchronized Term getBinding(Term variable) {
+        return converter.resolve(variable);
+    }
+
+    @Override
+    public synchronized @NotNull Map<Term, Term> domain() {
+        if (domain == null) {
+            domain = converter.convert().domain();
+        }
+        return domain;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        return obj instanceof Substitution substitution
+                && domain().equals(substitution.domain());
+    }
+
+    @Override
+    public int hashCode() {
+        return domain().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TriangularSubstitution[bindings=" + converter.bindingList + "]";
+    }
+}
@@ -0,0 +1,227 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import syntax.Term;
+import util.IntObjectMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Working tables of a single unification call.
+ * <p>
+ * Strategies keep no per-call state in their fields. Instead, every
+ * call of {@link UnificationStrategy#findUnifier(syntax.TermPair)}
+ * borrows a context from a per-thread pool and returns it when the
+ * call is finished. The tables of a context are cleared, not
+ * reallocated, between calls, so they keep their capacity and
+ * a workload of many small pairs does not allocate and regrow them
+ * for each pair. Tables that grew over {@link #MAX_RETAINED_SIZE}
+ * entries are dropped instead, so that a single large problem does
+ * not make clearing expensive for all the following small ones.
+ * <p>
+ * A context may also be created explicitly and passed to
+ * {@link UnificationStrategy#findUnifier(syntax.TermPair, UnificationContext)}.
+ * Contexts are not thread-safe: a context must be used by one thread
+ * at a time.
+ */
+public final class UnificationContext implements AutoCloseable {
+    /**
+     * A number of entries above which a table is dropped
+     * instead of being cleared
+     */
+    static final int MAX_RETAINED_SIZE = 1 << 12;
+
+    /**
+     * Contexts of the threads
+     */
+    private static final ThreadLocal<UnificationContext> POOL =
+            ThreadLocal.withInitial(UnificationContext::new);
+
+    /**
+     * True if this context is borrowed from the pool and not returned yet
+     */
+    private boolean inUse = false;
+
+    /**
+     * Pointers of the nodes
+     */
+    Map<Term, Term> pointers = new IdentityHashMap<>();
+    /**
+     * A set of already processed nodes
+     */
+    Set<Term> finished = newIdentitySet();
+    /**
+     * Undirected edges between nodes
+     */
+    Map<Term, List<Term>> links = new IdentityHashMap<>();
+    /**
+     * Parents of the nodes of the unified terms
+     */
+    Map<Term, List<Term>> parents = new IdentityHashMap<>();
+    /**
+     * A unifier in the triangular form
+     */
+    Map<Term, Term> bindingList = new HashMap<>();
+    /**
+     * Terms that are already unified with other terms
+     */
+    Map<Term, Term> instantiations = new IdentityHashMap<>();
+    /**
+     * A union of the variable masks of the bound variables
+     */
+    long boundVariables = 0;
+    /**
+     * Bindings of the variables keyed by their symbols
+     */
+    IntObjectMap<Term> symbolBindings = new IntObjectMap<>();
+    /**
+     * A stack of terms
+     */
+    final Deque<Term> termStack = new ArrayDeque<>();
+    /**
+     * A stack of frames of the terms that are being finished
+     */
+    final FrameStack frames = new FrameStack();
+    /**
+     * Link and parent lists that are no longer used and may be reused
+     */
+    private final List<List<Term>> freeLists = new ArrayList<>();
+
+    /**
+     * Creates a new empty context.
+     */
+    public UnificationContext() {
+    }
+
+    /**
+     * Borrows a context of the current thread. If the context
+     * of the current thread is already in use (for example, a strategy
+     * is called from another strategy), a new context is returned.
+     * The context should be returned by {@link #close()}.
+     *
+     * @return a cleared context
+     */
+    @NotNull
+    public static UnificationContext acquire() {
+        UnificationContext context = POOL.get();
+        if (context.inUse) {
+            return new UnificationContext();
+        }
+        context.inUse = true;
+        return context;
+    }
+
+    /**
+     * Clears all the tables of this context.
+     */
+    public void clear() {
+        pointers = clear(pointers);
+        finished = clear(finished);
+        links = clearLists(links);
+        parents = clearLists(parents);
+        bindingList = clear(bindingList);
+        instantiations = clear(instantiations);
+        if (symbolBindings.size() > MAX_RETAINED_SIZE) {
+            symbolBindings = new IntObjectMap<>();
+        } else if (!symbolBindings.isEmpty()) {
+            symbolBindings.clear();
+        }
+        boundVariables = 0;
+        termStack.clear();
+        frames.clear(MAX_RETAINED_SIZE);
+    }
+
+    /**
+     * Clears this context and returns it to the pool.
+     */
+    @Override
+    public void close() {
+        clear();
+        inUse = false;
+    }
+
+    /**
+     * Returns the list of links of the provided node.
+     *
+     * @param term a node
+     * @return a mutable list of the links
+     */
+    @NotNull
+    List<Term> linksOf(@NotNull final Term term) {
+        return listOf(links, term);
+    }
+
+    /**
+     * Returns the list of parents of the provided node.
+     *
+     * @param term a node
+     * @return a mutable list of the parents
+     */
+    @NotNull
+    List<Term> parentsOf(@NotNull final Term term) {
+        return listOf(parents, term);
+    }
+
+    private List<Term> listOf(Map<Term, List<Term>> lists, Term term) {
+        List<Term> list = lists.get(term);
+        if (list == null) {
+            list = freeLists.isEmpty()
+                    ? new ArrayList<>(2)
+                    : freeLists.remove(freeLists.size() - 1);
+            lists.put(term, list);
+        }
+        return list;
+    }
+
+    /**
+     * Clears the map of lists. Small lists are kept
+     * for reuse, a large map is dropped.
+     */
+    private Map<Term, List<Term>> clearLists(Map<Term, List<Term>> lists) {
+        if (lists.size() > MAX_RETAINED_SIZE) {
+            return new IdentityHashMap<>();
+        }
+        if (!lists.isEmpty()) {
+            for (List<Term> list : lists.values()) {
+                if (freeLists.size() < MAX_RETAINED_SIZE && list.size() <= 16) {
+                    list.clear();
+                    freeLists.add(list);
+                }
+            }
+            lists.clear();
+        }
+        return lists;
+    }
+
+    private static Set<Term> clear(Set<Term> set) {
+        if (set.size() > MAX_RETAINED_SIZE) {
+            return newIdentitySet();
+        }
+        if (!set.isEmpty()) {
+            set.clear();
+        }
+        return set;
+    }
+
+    private static Map<Term, Term> clear(Map<Term, Term> map) {
+        if (map.size() > MAX_RETAINED_SIZE) {
+            return map instanceof IdentityHashMap ? new IdentityHashMap<>() : new HashMap<>();
+        }
+        if (!map.isEmpty()) {
+            map.clear();
+        }
+        return map;
+    }
+
+    private static Set<Term> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
@@ -12,7 +12,9 @@ import java.util.Objects;
  * @param isUnifiable true if input set is unifiable.
  * @param unifier     unifier of the input set if unifier is found.
  *                    It returns identity substitution
- *                    if input set is not unifiable.
+ *                    if input set is not unifiable. Unifiers found
+ *                    by the strategies of this library are kept in
+ *                    the triangular form and resolved on demand.
  */
 public record UnificationResult(
         boolean isUnifiable,
@@ -7,15 +7,69 @@ import syntax.TermPair;
  * This interface describes a unification strategy
  * i.e. an algorithm for unification of two first-order
  * terms
+ * <p>
+ * Strategies keep no state between calls, so an instance may be
+ * reused for any number of pairs. Working tables of a call are kept
+ * in a {@link UnificationContext}.
  */
 public interface UnificationStrategy {
     /**
      * Finds a unifier of set of two terms.
+     * Working tables are borrowed from the context pool
+     * of the current thread.
      *
      * @param termPair a term pair
      * @return Result of unification of two terms.
      */
     @NotNull
+    default UnificationResult findUnifier(
+            @NotNull final TermPair termPair) {
+        try (UnificationContext context = UnificationContext.acquire()) {
+            return findUnifier(termPair, context);
+        }
+    }
+
+    /**
+     * Finds a unifier of set of two terms using the working
+     * tables of the provided context. The context is cleared
+     * before it is used.
+     *
+     * @param termPair a term pair
+     * @param context a context of the call
+     * @return Result of unification of two terms.
+     */
+    @NotNull
     UnificationResult findUnifier(
-            @NotNull final TermPair termPair);
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context);
+
+    /**
+     * Checks if two terms are unifiable. No unifier is built,
+     * so this is cheaper than {@link #findUnifier(TermPair)}
+     * when only the answer is needed. Working tables are borrowed
+     * from the context pool of the current thread.
+     *
+     * @param termPair a term pair
+     * @return true if the terms are unifiable
+     */
+    default boolean isUnifiable(@NotNull final TermPair termPair) {
+        try (UnificationContext context = UnificationContext.acquire()) {
+            return isUnifiable(termPair, context);
+        }
+    }
+
+    /**
+     * Checks if two terms are unifiable using the working tables
+     * of the provided context. The context is cleared before
+     * it is used.
+     *
+     * @param termPair a term pair
+     * @param context a context of the call
+     * @return true if the terms are unifiable
+     */
+    default boolean isUnifiable(
+            @NotNull final TermPair termPair,
+            @NotNull final UnificationContext context) {
+        return findUnifier(termPair, context).isUnifiable();
+    }
 }
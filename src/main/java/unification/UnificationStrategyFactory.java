@@ -1,11 +1,13 @@
 package unification;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import syntax.TermStore;
 
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 /**
  * A class that creates unification strategies
@@ -18,21 +20,39 @@ public final class UnificationStrategyFactory {
         throw new AssertionError("Do not instantiate this class");
     }
 
+    /**
+     * A prefix of the name of an algorithm whose results
+     * are cached by {@link CachingUnificationStrategy}
+     */
+    public static final String CACHED_PREFIX = "cached-";
+
     /**
      * A map that contains all the unification algorithms
      * used in this library
      */
-    private static final Map<String, Supplier<UnificationStrategy>> algorithms = Map.of(
+    private static final Map<String, Function<TermStore, UnificationStrategy>> algorithms = Map.of(
             "robinson", RobinsonUnificationStrategy::new,
+            "robinson-triangular", termStore -> new RobinsonUnificationStrategy(
+                    RobinsonUnificationStrategy.Mode.TRIANGULAR, termStore),
             "robinson-poly", PolynomialRobinsonUnificationStrategy::new,
-            "paterson-wegman", PatersonWegmanUnificationStrategy::new
+            "paterson-wegman", PatersonWegmanUnificationStrategy::new,
+            "martelli-montanari", MartelliMontanariUnificationStrategy::new,
+            "huet", HuetUnificationStrategy::new
     );
 
     /**
      * Creates a new instance of {@link UnificationStrategy} from
      * provided name of the unification algorithm.
-     * Valid names are: {@code robinson}, {@code robinson-poly}
-     * and {@code paterson-wegman}
+     * Valid names are: {@code robinson}, {@code robinson-triangular},
+     * {@code robinson-poly}, {@code paterson-wegman},
+     * {@code martelli-montanari} and {@code huet}. Any of these
+     * names may be prefixed with {@code cached-}, e.g.
+     * {@code cached-huet}, to cache the results of the algorithm
+     * with a {@link CachingUnificationStrategy} of the default size.
+     *
+     * <p>
+     * The returned strategy keeps no state between calls, so it may
+     * be reused for any number of pairs and shared between threads.
      *
      * @param algorithm name of the unification algorithm
      * @return a new {@link UnificationStrategy} instance
@@ -42,10 +62,35 @@ public final class UnificationStrategyFactory {
      *                                algorithm name.
      */
     public static UnificationStrategy createInstance(@NotNull final String algorithm) {
+        return createInstance(algorithm, null);
+    }
+
+    /**
+     * Creates a new instance of {@link UnificationStrategy} from
+     * provided name of the unification algorithm. Terms of the
+     * unifiers found by the created strategy are built through
+     * the provided store.
+     *
+     * @param algorithm name of the unification algorithm
+     * @param termStore a store of unique terms or {@code null}
+     * @return a new {@link UnificationStrategy} instance
+     * @throws NullPointerException if {@code algorithm} is null
+     * @throws NoSuchElementException if there is no such unification
+     *                                strategy associated with provided
+     *                                algorithm name.
+     * @see #createInstance(String)
+     */
+    public static UnificationStrategy createInstance(
+            @NotNull final String algorithm,
+            @Nullable final TermStore termStore) {
         Objects.requireNonNull(algorithm);
+        if (algorithm.startsWith(CACHED_PREFIX)) {
+            return new CachingUnificationStrategy(createInstance(
+                    algorithm.substring(CACHED_PREFIX.length()), termStore));
+        }
         if (!algorithms.containsKey(algorithm)) {
             throw new NoSuchElementException(String.format("Invalid key %s provided", algorithm));
         }
-        return algorithms.get(algorithm).get();
+        return algorithms.get(algorithm).apply(termStore);
     }
 }
@@ -0,0 +1,216 @@
+package unification;
+
+import org.jetbrains.annotations.NotNull;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermStore;
+import syntax.Traversal;
+import syntax.Variable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Renamings of the variables of terms.
+ * <p>
+ * Variables are equal if their names are equal, so terms that differ
+ * only in the names of their variables are different keys of hash maps.
+ * {@link #canonicalize(Term)} renames the variables to {@code _0, _1, ...}
+ * in the order of their first occurrence, so such terms get equal
+ * canonical forms. {@link #renameApart(Term, Predicate)} renames the
+ * variables of a term, so they differ from the variables in use, e.g.
+ * the variables of the other clause.
+ * <p>
+ * Every node of a term is visited once, even if it is shared by several
+ * parents, and subterms without variables are shared with the original
+ * term, so a renaming takes time linear in the size of the term DAG.
+ */
+public final class VariableRenaming {
+    /**
+     * A prefix of the names of canonical variables
+     */
+    public static final String CANONICAL_PREFIX = "_";
+
+    /**
+     * A suffix that is appended to the name of a variable
+     * until it differs from the names in use
+     */
+    private static final String PRIME = "'";
+
+    private VariableRenaming() {
+    }
+
+    /**
+     * A renamed value and the renaming that was applied to it.
+     *
+     * @param value the value with the renamed variables
+     * @param renaming the renamed variables of the original ones
+     *                 in the order of their first occurrence
+     * @param <T> the type of the value
+     */
+    public record Renamed<T>(
+            @NotNull T value,
+            @NotNull Map<Term, Term> renaming
+    ) {
+        /**
+         * Returns the original variables of the renamed ones.
+         *
+         * @return the inverse of the renaming
+         */
+        @NotNull
+        public Map<Term, Term> inverse() {
+            Map<Term, Term> inverse = new LinkedHashMap<>();
+            for (Map.Entry<Term, Term> entry : renaming.entrySet()) {
+                inverse.put(entry.getValue(), entry.getKey());
+            }
+            return inverse;
+        }
+    }
+
+    /**
+     * Renames the variables of the term to {@code _0, _1, ...}
+     * in the order of their first occurrence in pre-order.
+     * Terms that differ only in the names of their variables
+     * have equal canonical forms.
+     *
+     * @param term a term
+     * @return the canonical form of the term and the renaming
+     */
+    @NotNull
+    public static Renamed<Term> canonicalize(@NotNull final Term term) {
+        return canonicalize(term, CANONICAL_PREFIX);
+    }
+
+    /**
+     * Renames the variables of the term to the provided prefix followed
+     * by the number of the variable, the variables are numbered in the
+     * order of their first occurrence in pre-order.
+     *
+     * @param term a term
+     * @param prefix a prefix of the names of the renamed variables
+     * @return the canonical form of the term and the renaming
+     */
+    @NotNull
+    public static Renamed<Term> canonicalize(
+            @NotNull final Term term,
+            @NotNull final String prefix) {
+        Map<Term, Term> renaming = new LinkedHashMap<>();
+        collectCanonical(Objects.requireNonNull(term), prefix, renaming, new TermStore());
+        return new Renamed<>(apply(renaming, term), Collections.unmodifiableMap(renaming));
+    }
+
+    /**
+     * Renames the variables of the pair to {@code _0, _1, ...} in the
+     * order of their first occurrence in the first term and then in the
+     * second one. A variable of both terms gets the same name in both.
+     *
+     * @param termPair a pair of terms
+     * @return the canonical form of the pair and the renaming
+     */
+    @NotNull
+    public static Renamed<TermPair> canonicalize(@NotNull final TermPair termPair) {
+        Map<Term, Term> renaming = new LinkedHashMap<>();
+        TermStore store = new TermStore();
+        collectCanonical(termPair.term1(), CANONICAL_PREFIX, renaming, store);
+        collectCanonical(termPair.term2(), CANONICAL_PREFIX, renaming, store);
+        return new Renamed<>(
+                new TermPair(apply(renaming, termPair.term1()), apply(renaming, termPair.term2())),
+                Collections.unmodifiableMap(renaming));
+    }
+
+    /**
+     * Renames the variables of the term, so they differ from the
+     * variables in use. A variable gets the name of the original one
+     * followed by as many primes as needed, and different variables
+     * get different names.
+     *
+     * @param term a term
+     * @param isUsed a predicate that tells if a variable is in use
+     * @return the renamed term and the renaming
+     */
+    @NotNull
+    public static Renamed<Term> renameApart(
+            @NotNull final Term term,
+            @NotNull final Predicate<? super Term> isUsed) {
+        Map<Term, Term> renaming = new LinkedHashMap<>();
+        collectApart(Objects.requireNonNull(term), isUsed, renaming, new TermStore());
+        return new Renamed<>(apply(renaming, term), Collections.unmodifiableMap(renaming));
+    }
+
+    /**
+     * Renames the variables of the second term of the pair, so
+     * they differ from the variables of the first term.
+     *
+     * @param termPair a pair of terms
+     * @return the pair with the renamed second term and the renaming
+     * @see #renameApart(Term, Predicate)
+     */
+    @NotNull
+    public static Renamed<TermPair> renameApart(@NotNull final TermPair termPair) {
+        Set<Term> used = new HashSet<>();
+        forEachVariable(termPair.term1(), used::add);
+        Renamed<Term> renamed = renameApart(termPair.term2(), used::contains);
+        return new Renamed<>(
+                new TermPair(termPair.term1(), renamed.value()),
+                renamed.renaming());
+    }
+
+    private static void collectCanonical(
+            Term term,
+            String prefix,
+            Map<Term, Term> renaming,
+            TermStore store) {
+        forEachVariable(term, variable -> {
+            if (!renaming.containsKey(variable)) {
+                renaming.put(variable, store.variable(prefix + renaming.size()));
+            }
+        });
+    }
+
+    private static void collectApart(
+            Term term,
+            Predicate<? super Term> isUsed,
+            Map<Term, Term> renaming,
+            TermStore store) {
+        Set<Term> taken = new HashSet<>();
+        forEachVariable(term, variable -> {
+            if (renaming.containsKey(variable)) {
+                return;
+            }
+            String name = variable.getName();
+            Term renamed;
+            do {
+                name += PRIME;
+                renamed = store.variable(name);
+            } while (isUsed.test(renamed) || taken.contains(renamed));
+            taken.add(renamed);
+            renaming.put(variable, renamed);
+        });
+    }
+
+    private static Term apply(Map<Term, Term> renaming, Term term) {
+        return renaming.isEmpty() ? term : Substitution.of(renaming).instantiateVariables(term);
+    }
+
+    /**
+     * Visits the variables of the term in pre-order. A node that is
+     * shared by several parents is visited once: its variables
+     * have already occurred when the node is reached again.
+     */
+    private static void forEachVariable(Term term, Consumer<Term> action) {
+        Iterator<Term> iterator = term.iterator(Traversal.DAG);
+        while (iterator.hasNext()) {
+            Term current = iterator.next();
+            if (current instanceof Variable) {
+                action.accept(current);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A map from non-negative {@code int} keys to objects.
+ * Unlike {@code Map<Integer, V>} this class does not box the keys
+ * and does not allocate an entry per mapping: entries are kept in
+ * arrays in the order of insertion, and the hash index is an open
+ * addressing table of entry numbers. Once the map has grown, adding
+ * mappings after {@link #clear()} allocates nothing.
+ *
+ * @param <V> type of the values
+ */
+public final class IntObjectMap<V> {
+    /**
+     * Keys of the entries in the order of insertion
+     */
+    private int[] keys;
+
+    /**
+     * Values of the entries in the order of insertion
+     */
+    private Object[] values;
+
+    /**
+     * Open addressing table of entry numbers plus one,
+     * zero is an empty slot
+     */
+    private int[] table;
+
+    /**
+     * A number of entries
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty map.
+     */
+    public IntObjectMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map with provided initial capacity.
+     *
+     * @param capacity initial capacity of the map
+     */
+    public IntObjectMap(int capacity) {
+        capacity = Math.max(capacity, 1);
+        keys = new int[capacity];
+        values = new Object[capacity];
+        table = new int[tableSize(capacity)];
+    }
+
+    /**
+     * Returns the value of the key.
+     *
+     * @param key a non-negative key
+     * @return the value of the key or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int entry = table[slot(key)];
+        return entry == 0 ? null : (V) values[entry - 1];
+    }
+
+    /**
+     * Associates the value with the key if the key
+     * has no value yet.
+     *
+     * @param key a non-negative key
+     * @param value a value
+     * @return the previous value of the key or {@code null}
+     *         if the value is added
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(int key, V value) {
+        Assertions.require(key >= 0, "Key must be non-negative");
+        int slot = slot(key);
+        int entry = table[slot];
+        if (entry != 0) {
+            return (V) values[entry - 1];
+        }
+        if (size == keys.length) {
+            grow();
+            slot = slot(key);
+        }
+        keys[size] = key;
+        values[size] = value;
+        table[slot] = ++size;
+        return null;
+    }
+
+    /**
+     * Returns the key of the entry with provided number.
+     * Entries are numbered in the order of insertion.
+     *
+     * @param index number of the entry
+     * @return the key of the entry
+     */
+    public int keyAt(int index) {
+        Assertions.require(index >= 0 && index < size, "Index out of bounds");
+        return keys[index];
+    }
+
+    /**
+     * Returns the value of the entry with provided number.
+     * Entries are numbered in the order of insertion.
+     *
+     * @param index number of the entry
+     * @return the value of the entry
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        Assertions.require(index >= 0 && index < size, "Index out of bounds");
+        return (V) values[index];
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return the number of entries in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the map contains no entries.
+     *
+     * @return true if the map contains no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries. Capacity of the map is retained,
+     * and only the slots of the removed entries are visited.
+     */
+    public void clear() {
+        // Entries are removed in the reverse order of insertion,
+        // so the probe sequences of the remaining entries stay intact
+        for (int i = size - 1; i >= 0; i--) {
+            table[slot(keys[i])] = 0;
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the slot of the key or the empty slot
+     * where the key should be inserted.
+     */
+    private int slot(int key) {
+        int mask = table.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0 || keys[entry - 1] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        int capacity = 2 * keys.length;
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        table = new int[tableSize(capacity)];
+        for (int i = 0; i < size; i++) {
+            table[slot(keys[i])] = i + 1;
+        }
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(2 * capacity - 1) << 1;
+    }
+}
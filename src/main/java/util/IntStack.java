@@ -0,0 +1,101 @@
+package util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable stack of primitive {@code int} values.
+ * Unlike {@code Deque<Integer>} this class does not
+ * box the values.
+ */
+public final class IntStack {
+    /**
+     * Elements of the stack
+     */
+    private int[] elements;
+
+    /**
+     * A number of elements in the stack
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty stack.
+     */
+    public IntStack() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty stack with provided initial capacity.
+     *
+     * @param capacity initial capacity of the stack
+     */
+    public IntStack(int capacity) {
+        elements = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Pushes a value onto the top of the stack.
+     *
+     * @param value a value
+     */
+    public void push(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, 2 * size);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * Removes and returns the value at the top of the stack.
+     *
+     * @return the value at the top of the stack
+     * @throws NoSuchElementException if the stack is empty
+     */
+    public int pop() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[--size];
+    }
+
+    /**
+     * Returns the value at the top of the stack.
+     *
+     * @return the value at the top of the stack
+     * @throws NoSuchElementException if the stack is empty
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[size - 1];
+    }
+
+    /**
+     * Returns the number of elements in the stack.
+     *
+     * @return the number of elements in the stack
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the stack contains no elements.
+     *
+     * @return true if the stack contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the elements. Capacity of the stack
+     * is retained.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,97 @@
+package index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.Term;
+import syntax.TermPair;
+import unification.HuetUnificationStrategy;
+import unification.UnificationResult;
+import unification.UnificationStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch insertion into a substitution tree and retrieval of the
+ * unifiers of a query, compared with a naive scan over a list that
+ * finds the unifier of the query and every stored term. Stored terms
+ * are {@code f1(ci,f2(x1,cj),ck)} with random constants.
+ * <p>
+ * The insertion benchmarks build the whole index from scratch, so
+ * running them with {@code -prof gc} reports the bytes allocated
+ * per index in {@code gc.alloc.rate.norm}, an upper bound of the
+ * memory the index retains.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubstitutionTreeComplexityTest {
+
+    private final UnificationStrategy strategy = new HuetUnificationStrategy();
+
+    private final List<Term> terms = new ArrayList<>();
+
+    private SubstitutionTree tree;
+
+    private Term query;
+
+    @Param({"1000", "10000", "100000"})
+    private int termCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(termCount);
+        terms.clear();
+        for (int i = 0; i < termCount; i++) {
+            terms.add(Term.fromString(String.format("f1(c%d,f2(x1,c%d),c%d)",
+                    random.nextInt(100), random.nextInt(100), random.nextInt(100))));
+        }
+        tree = new SubstitutionTree();
+        tree.insertAll(terms);
+        query = Term.fromString("f1(c1,x2,c2)");
+    }
+
+    @Benchmark
+    public SubstitutionTree benchmarkBatchInsertion() {
+        SubstitutionTree result = new SubstitutionTree();
+        result.insertAll(terms);
+        return result;
+    }
+
+    @Benchmark
+    public List<Term> benchmarkNaiveInsertion() {
+        return new ArrayList<>(terms);
+    }
+
+    @Benchmark
+    public List<SubstitutionTree.Answer> benchmarkRetrieval() {
+        return tree.unifiable(query);
+    }
+
+    @Benchmark
+    public List<UnificationResult> benchmarkNaiveScan() {
+        List<UnificationResult> result = new ArrayList<>();
+        for (Term term : terms) {
+            UnificationResult unificationResult = strategy.findUnifier(new TermPair(query, term));
+            if (unificationResult.isUnifiable()) {
+                result.add(unificationResult);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,149 @@
+package index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import syntax.SymbolTable;
+import syntax.Term;
+import syntax.TermPair;
+import unification.HuetUnificationStrategy;
+import unification.SyntacticMatchingStrategy;
+import unification.UnificationResult;
+import unification.UnificationStrategy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubstitutionTreeTest {
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f1(c1,x1);f1(x2,c2);x2;c1",
+            "f1(x1,x1);f1(x2,f2(x3));x2;f2(x3)",
+            "f1(x1,f2(x1));f1(c1,x1);x1;f2(c1)",
+            "f2(x1,x1);f2(f1(x2),f1(c1));x2;c1"
+    }, delimiter = ';')
+    public void testSubstitutionTree_unifierIsComputed(
+            String stored, String query, String variable, String binding) {
+        SubstitutionTree tree = new SubstitutionTree();
+        tree.insert(Term.fromString(stored));
+        tree.insert(Term.fromString("f3(c1)"));
+
+        List<SubstitutionTree.Answer> answers = tree.unifiable(Term.fromString(query));
+
+        assertEquals(1, answers.size());
+        assertEquals(Term.fromString(stored), answers.get(0).term());
+        assertEquals(
+                Map.of(Term.fromString(variable), Term.fromString(binding)),
+                answers.get(0).unifier().domain());
+    }
+
+    @Test
+    public void testSubstitutionTree_insert() {
+        SubstitutionTree tree = new SubstitutionTree();
+
+        assertTrue(tree.insert(Term.fromString("f1(x1,c1)")));
+        assertTrue(tree.insert(Term.fromString("f1(x2,c1)")));
+        assertFalse(tree.insert(Term.fromString("f1(x1,c1)")));
+        assertEquals(1, tree.insertAll(List.of(Term.fromString("f1(x2,c1)"), Term.fromString("f1(c1,c1)"))));
+        assertEquals(3, tree.size());
+        assertEquals(3, tree.unifiable(Term.fromString("f1(c1,x1)")).size());
+        assertTrue(tree.unifiable(Term.fromString("f1(x1,c2)")).isEmpty());
+    }
+
+    @Test
+    public void testSubstitutionTree_groundQuery() {
+        SubstitutionTree tree = new SubstitutionTree();
+        tree.insert(Term.fromString("f1(x1,c1)"));
+
+        List<SubstitutionTree.Answer> answers = tree.unifiable(Term.fromString("f1(c2,c1)"));
+
+        assertEquals(1, answers.size());
+        assertTrue(answers.get(0).unifier().domain().isEmpty());
+        assertTrue(new SubstitutionTree().unifiable(Term.fromString("c1")).isEmpty());
+    }
+
+    @Test
+    public void testSubstitutionTree_agreesWithLinearScan() {
+        UnificationStrategy strategy = new HuetUnificationStrategy();
+        SyntacticMatchingStrategy matchingStrategy = new SyntacticMatchingStrategy();
+        Random random = new Random(18);
+        SubstitutionTree tree = new SubstitutionTree();
+        List<String> stored = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String termString = randomTerm(random, 4, 4);
+            if (tree.insert(Term.fromString(termString))) {
+                stored.add(termString);
+            }
+        }
+        assertEquals(stored.size(), tree.size());
+        for (int i = 0; i < 200; i++) {
+            String query = randomTerm(random, 1, 4);
+            Term queryTerm = Term.fromString(query);
+            Set<Term> expected = new HashSet<>();
+            for (String termString : stored) {
+                if (strategy.isUnifiable(TermPair.fromStrings(query, termString))) {
+                    expected.add(Term.fromString(termString));
+                }
+            }
+            Set<Term> actual = new HashSet<>();
+            for (SubstitutionTree.Answer answer : tree.unifiable(queryTerm)) {
+                actual.add(answer.term());
+                // The common instance must be a variant of the one of the most general unifier
+                TermPair termPair = TermPair.fromStrings(query, answer.term().toString());
+                UnificationResult result = strategy.findUnifier(termPair);
+                Term mostGeneral = result.unifier().instantiateVariables(termPair.term1());
+                Term instance = answer.unifier().instantiateVariables(queryTerm);
+                assertNotNull(matchingStrategy.match(mostGeneral, instance), query);
+                assertNotNull(matchingStrategy.match(instance, mostGeneral), query);
+            }
+            assertEquals(expected, actual, query);
+        }
+    }
+
+    /**
+     * Generates a random term whose variables are numbered
+     * from the provided one, so stored terms and queries
+     * have distinct variables.
+     */
+    private static String randomTerm(Random random, int firstVariable, int depth) {
+        int kind = random.nextInt(depth == 0 ? 2 : 4);
+        if (kind == 0) {
+            return "x" + (firstVariable + random.nextInt(3));
+        }
+        if (kind == 1) {
+            return "c" + (1 + random.nextInt(2));
+        }
+        StringBuilder builder = new StringBuilder("f").append(kind - 1).append('(');
+        for (int i = 0; i < kind - 1; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(randomTerm(random, firstVariable, depth - 1));
+        }
+        return builder.append(')').toString();
+    }
+
+    @Test
+    public void testSubstitutionTree_newTreesDoNotAddSymbols() {
+        List<Term> terms = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            terms.add(Term.fromString(String.format("f1(f2(c%d,x1),c%d)", i % 10, i)));
+        }
+        new SubstitutionTree().insertAll(terms);
+        int symbolCount = SymbolTable.global().size();
+
+        for (int i = 0; i < 10; i++) {
+            SubstitutionTree tree = new SubstitutionTree();
+            assertEquals(terms.size(), tree.insertAll(terms));
+            assertEquals(1, tree.unifiable(terms.get(i)).size());
+        }
+
+        assertEquals(symbolCount, SymbolTable.global().size());
+    }
+}
@@ -0,0 +1,81 @@
+package index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.Term;
+import syntax.TermPair;
+import unification.HuetUnificationStrategy;
+import unification.UnificationStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrieval of the stored terms that are unifiable with a query,
+ * compared with a linear scan that unifies the query with every
+ * stored term. Stored terms are {@code f1(ci,f2(x1,cj),ck)} with
+ * random constants, and the query {@code f1(c1,x2,c2)} is unifiable
+ * with about one term in ten thousand.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TermIndexComplexityTest {
+
+    private final UnificationStrategy strategy = new HuetUnificationStrategy();
+
+    private final List<Term> terms = new ArrayList<>();
+
+    private TermIndex index;
+
+    private Term query;
+
+    @Param({"1000", "10000", "100000"})
+    private int termCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(termCount);
+        index = new TermIndex(strategy);
+        terms.clear();
+        for (int i = 0; i < termCount; i++) {
+            Term term = Term.fromString(String.format("f1(c%d,f2(x1,c%d),c%d)",
+                    random.nextInt(100), random.nextInt(100), random.nextInt(100)));
+            if (index.insert(term)) {
+                terms.add(term);
+            }
+        }
+        query = Term.fromString("f1(c1,x2,c2)");
+    }
+
+    @Benchmark
+    public List<Term> benchmarkIndex() {
+        return index.unifiable(query);
+    }
+
+    @Benchmark
+    public List<Term> benchmarkLinearScan() {
+        List<Term> result = new ArrayList<>();
+        for (Term term : terms) {
+            if (strategy.isUnifiable(new TermPair(query, term))) {
+                result.add(term);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermStore;
+import unification.SyntacticMatchingStrategy;
+import unification.UnificationStrategy;
+import unification.UnificationStrategyFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermIndexTest {
+    @Test
+    public void testTermIndex_queries() {
+        TermIndex index = new TermIndex();
+        for (String termString : List.of("f1(c1,x1)", "f1(c1,c2)", "f1(x1,x1)", "f1(f2(c1),c2)", "f2(c1)", "x1")) {
+            assertTrue(index.insert(Term.fromString(termString)));
+        }
+
+        assertEquals(
+                terms("f1(c1,x1)", "f1(c1,c2)", "f1(x1,x1)", "x1"),
+                new HashSet<>(index.unifiable(Term.fromString("f1(c1,x2)"))));
+        assertEquals(
+                terms("f1(c1,x1)", "f1(c1,c2)", "f1(x1,x1)", "f1(f2(c1),c2)"),
+                new HashSet<>(index.instances(Term.fromString("f1(x2,x3)"))));
+        assertEquals(
+                terms("f1(c1,x1)", "f1(c1,c2)", "x1"),
+                new HashSet<>(index.generalizations(Term.fromString("f1(c1,c2)"))));
+    }
+
+    @Test
+    public void testTermIndex_queryVariablesAreRenamedApart() {
+        TermStore store = new TermStore();
+        Term primed = store.function("f1", List.of(store.variable("x1'"), store.constant("c1")));
+        TermIndex index = new TermIndex();
+        index.insert(Term.fromString("f1(x1,c1)"));
+        index.insert(primed);
+
+        assertEquals(
+                Set.of(Term.fromString("f1(x1,c1)"), primed),
+                new HashSet<>(index.unifiable(Term.fromString("f1(f2(x1),x1)"))));
+    }
+
+    @Test
+    public void testTermIndex_insertAndRemove() {
+        TermIndex index = new TermIndex();
+
+        assertTrue(index.insert(Term.fromString("f1(x1,c1)")));
+        assertTrue(index.insert(Term.fromString("f1(x2,c1)")));
+        assertFalse(index.insert(Term.fromString("f1(x1,c1)")));
+        assertEquals(2, index.size());
+
+        assertTrue(index.remove(Term.fromString("f1(x1,c1)")));
+        assertFalse(index.remove(Term.fromString("f1(x1,c1)")));
+        assertFalse(index.remove(Term.fromString("f1(c1,c1)")));
+        assertEquals(terms("f1(x2,c1)"), new HashSet<>(index.unifiable(Term.fromString("x1"))));
+
+        assertTrue(index.remove(Term.fromString("f1(x2,c1)")));
+        assertEquals(0, index.size());
+        assertTrue(index.unifiable(Term.fromString("x1")).isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"robinson", "robinson-triangular", "robinson-poly",
+            "paterson-wegman", "martelli-montanari", "huet"})
+    public void testTermIndex_agreesWithLinearScan(String algorithm) {
+        UnificationStrategy strategy = UnificationStrategyFactory.createInstance(algorithm);
+        SyntacticMatchingStrategy matchingStrategy = new SyntacticMatchingStrategy();
+        Random random = new Random(17);
+        TermIndex index = new TermIndex(strategy);
+        List<String> stored = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String termString = randomTerm(random, 4, 4);
+            if (index.insert(Term.fromString(termString))) {
+                stored.add(termString);
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = randomTerm(random, 1, 4);
+            Set<Term> unifiable = new HashSet<>();
+            Set<Term> instances = new HashSet<>();
+            Set<Term> generalizations = new HashSet<>();
+            for (String termString : stored) {
+                TermPair termPair = TermPair.fromStrings(query, termString);
+                if (strategy.isUnifiable(termPair)) {
+                    unifiable.add(termPair.term2());
+                }
+                if (matchingStrategy.matches(termPair.term1(), termPair.term2())) {
+                    instances.add(termPair.term2());
+                }
+                if (matchingStrategy.matches(termPair.term2(), termPair.term1())) {
+                    generalizations.add(termPair.term2());
+                }
+            }
+            Term queryTerm = Term.fromString(query);
+            assertEquals(unifiable, new HashSet<>(index.unifiable(queryTerm)), query);
+            assertEquals(instances, new HashSet<>(index.instances(queryTerm)), query);
+            assertEquals(generalizations, new HashSet<>(index.generalizations(queryTerm)), query);
+        }
+    }
+
+    private static Set<Term> terms(String... termStrings) {
+        Set<Term> terms = new HashSet<>();
+        for (String termString : termStrings) {
+            terms.add(Term.fromString(termString));
+        }
+        return terms;
+    }
+
+    /**
+     * Generates a random term whose variables are numbered
+     * from the provided one, so stored terms and queries
+     * have distinct variables.
+     */
+    private static String randomTerm(Random random, int firstVariable, int depth) {
+        int kind = random.nextInt(depth == 0 ? 2 : 4);
+        if (kind == 0) {
+            return "x" + (firstVariable + random.nextInt(3));
+        }
+        if (kind == 1) {
+            return "c" + (1 + random.nextInt(2));
+        }
+        StringBuilder builder = new StringBuilder("f").append(kind - 1).append('(');
+        for (int i = 0; i < kind - 1; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(randomTerm(random, firstVariable, depth - 1));
+        }
+        return builder.append(')').toString();
+    }
+}
@@ -56,4 +56,73 @@ class TermIteratorTest {
 
         Assertions.assertArrayEquals(expectedTermNodes, actualTermNodes);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDagTermIterator_sharedNodesAreVisitedOnce() {
+        TermPair termPair = TermPair.fromStrings("f3(f2(x1),x1,f1(f2(x1)))", "f2(x1)");
+        List<String> expectedTermNodes = List.of("f3", "f2", "x1", "f1");
+
+        List<String> actualTermNodes = new ArrayList<>();
+        termPair.term1().iterator(Traversal.DAG).forEachRemaining(t -> actualTermNodes.add(t.getName()));
+        List<String> functionFirstNodes = new ArrayList<>();
+        new FunctionalSymbolFirstTermIterator(termPair, Traversal.DAG)
+                .forEachRemaining(t -> functionFirstNodes.add(t.getName()));
+
+        Assertions.assertEquals(expectedTermNodes, actualTermNodes);
+        Assertions.assertEquals(List.of("f3", "f2", "f1", "x1"), functionFirstNodes);
+    }
+
+    @Test
+    public void testPostOrderTermIterator() {
+        TermPair termPair = TermPair.fromStrings("f3(f2(x1),x1,f1(f2(x2)))", "f1(x2)");
+
+        List<String> actualTermNodes = new ArrayList<>();
+        new PostOrderTermIterator(termPair).forEachRemaining(t -> actualTermNodes.add(t.toString()));
+
+        Assertions.assertEquals(
+                List.of("x1", "f2(x1)", "x2", "f2(x2)", "f1(f2(x2))",
+                        "f3(f2(x1),x1,f1(f2(x2)))", "f1(x2)"),
+                actualTermNodes);
+    }
+
+    @Test
+    public void testTopologicalTermIterator_parentsAreVisitedFirst() {
+        TermStore store = new TermStore();
+        Term term = Term.fromString("f3(f2(x1),f1(f2(x1),x1),f1(f2(x1),x1))", store);
+
+        List<Term> order = new ArrayList<>();
+        new TopologicalTermIterator(term).forEachRemaining(order::add);
+
+        Assertions.assertEquals(4, order.size());
+        Assertions.assertSame(term, order.get(0));
+        for (int i = 0; i < order.size(); i++) {
+            if (order.get(i) instanceof TermWithArgs termWithArgs) {
+                for (Term arg : termWithArgs.getArgs()) {
+                    Assertions.assertTrue(order.indexOf(arg) > i, arg.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDagTermIterator_exponentialTree() {
+        int depth = 200;
+        TermStore store = new TermStore();
+        Term leaf = store.variable("x1");
+        Term term = leaf;
+        for (int i = 0; i < depth; i++) {
+            term = store.function("f1", List.of(term, term));
+        }
+
+        List<Term> preOrder = new ArrayList<>();
+        term.iterator(Traversal.DAG).forEachRemaining(preOrder::add);
+        List<Term> postOrder = new ArrayList<>();
+        new PostOrderTermIterator(term).forEachRemaining(postOrder::add);
+
+        Assertions.assertEquals(depth + 1, preOrder.size());
+        Assertions.assertEquals(depth + 1, postOrder.size());
+        Assertions.assertSame(leaf, postOrder.get(0));
+        Assertions.assertTrue(term.contains(leaf));
+        Assertions.assertFalse(term.contains(store.variable("x2")));
+    }
+}
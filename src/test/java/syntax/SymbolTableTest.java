@@ -0,0 +1,55 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+    @Test
+    public void intern_equalNamesShouldHaveSameId() {
+        SymbolTable table = new SymbolTable();
+
+        int id = table.intern("f1");
+
+        assertEquals(id, table.intern(new StringBuilder("f1")));
+        assertEquals(id, table.intern("af1b".toCharArray(), 1, 2));
+        assertEquals(id, table.intern("af1b", 1, 3));
+        assertNotEquals(id, table.intern("f2"));
+        assertEquals(2, table.size());
+        assertEquals("f1", table.name(id));
+    }
+
+    @Test
+    public void intern_shouldKeepIdsAfterGrowing() {
+        SymbolTable table = new SymbolTable();
+        int[] ids = new int[1000];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = table.intern("x" + i);
+        }
+
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], table.intern("x" + i));
+            assertEquals("x" + i, table.name(ids[i]));
+        }
+        assertEquals(ids.length, table.size());
+    }
+
+    @Test
+    public void name_unknownIdShouldThrow() {
+        SymbolTable table = new SymbolTable();
+
+        assertThrows(IllegalArgumentException.class, () -> table.name(0));
+        assertThrows(IllegalArgumentException.class, () -> table.name(-1));
+    }
+
+    @Test
+    public void terms_equalNamesShouldHaveSameSymbol() {
+        Term term1 = Term.fromString("f1(x1,c1)");
+        Term term2 = Term.fromString("f1(c1,x1)");
+
+        assertEquals(term1.getSymbol(), term2.getSymbol());
+        assertTrue(term1.nameEquals(term2));
+        assertSame(term1.getName(), term2.getName());
+    }
+}
@@ -0,0 +1,58 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermArenaTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "c1",
+            "x1",
+            "f1(x1,c1)",
+            "f1(x1,f2(c1))",
+            "f3(f2(x1),x1,f1(f2(x2)))"
+    })
+    public void toTerm_shouldRestoreTerm(String termString) {
+        Term term = Term.fromString(termString);
+
+        TermArena arena = TermArena.of(term);
+
+        assertEquals(term, arena.toTerm(arena.root(0)));
+    }
+
+    @Test
+    public void fromTermPair_sharedNodesShouldBeStoredOnce() {
+        TermPair termPair = TermPair.fromStrings("f3(f2(x1),x1,f1(f2(x1)))", "f2(x1)");
+
+        TermArena arena = TermArena.fromTermPair(termPair);
+
+        assertEquals(4, arena.size());
+        assertEquals(2, arena.rootCount());
+        int sharedNode = arena.root(1);
+        assertEquals("f2", arena.name(sharedNode));
+        assertEquals(TermArena.FUNCTION, arena.kind(sharedNode));
+        assertEquals(2, arena.parentCount(sharedNode));
+        assertEquals(arena.root(0), arena.parent(sharedNode, 1));
+        TermPair restored = arena.toTermPair();
+        assertEquals(termPair, restored);
+        assertSame(((TermWithArgs) restored.term1()).getArgs().get(0), restored.term2());
+    }
+
+    @Test
+    public void of_variablesWithEqualNamesShouldBeSameNode() {
+        TermArena arena = TermArena.of(
+                Term.fromString("f1(x1,c1)"),
+                Term.fromString("f2(c1,x1)"));
+
+        int node1 = arena.root(0);
+        int node2 = arena.root(1);
+
+        assertEquals(arena.child(node1, 0), arena.child(node2, 1));
+        assertEquals(arena.child(node1, 1), arena.child(node2, 0));
+        assertTrue(arena.isVariable(arena.child(node1, 0)));
+        assertTrue(arena.child(node1, 0) < node1);
+    }
+}
@@ -0,0 +1,70 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermLexerTest {
+    @Test
+    public void next_shouldReportTypesAndOffsets() {
+        TermLexer lexer = TermLexer.of(" f1( xNamed1, c1 ) ");
+        Token.Type[] expectedTypes = {
+                Token.Type.FUNCTIONAL_SYMBOL,
+                Token.Type.LEFT_PARENTHESIS,
+                Token.Type.VARIABLE,
+                Token.Type.COMMA,
+                Token.Type.CONSTANT,
+                Token.Type.RIGHT_PARENTHESIS
+        };
+        int[] expectedStarts = {1, 3, 5, 12, 14, 17};
+        int[] expectedEnds = {3, 4, 12, 13, 16, 18};
+
+        for (int i = 0; i < expectedTypes.length; i++) {
+            assertTrue(lexer.hasNext());
+            assertEquals(expectedTypes[i], lexer.next());
+            assertEquals(expectedStarts[i], lexer.tokenStart());
+            assertEquals(expectedEnds[i], lexer.tokenEnd());
+        }
+        assertFalse(lexer.hasNext());
+        assertThrows(NoSuchElementException.class, lexer::next);
+    }
+
+    @Test
+    public void next_shouldInternNames() {
+        TermLexer lexer = TermLexer.of("xNamed1(");
+
+        lexer.next();
+        int symbol = lexer.symbol();
+        lexer.next();
+
+        assertEquals("xNamed1", SymbolTable.global().name(symbol));
+        assertEquals(Token.NO_SYMBOL, lexer.symbol());
+    }
+
+    @Test
+    public void next_invalidCharacterShouldThrow() {
+        TermLexer lexer = TermLexer.of("f1[x1]");
+
+        lexer.next();
+
+        assertThrows(IllegalArgumentException.class, lexer::next);
+    }
+
+    @Test
+    public void of_charArrayAndByteBufferShouldProduceSameTerm() {
+        String termString = "f1(x1,f2(c1))";
+        char[] chars = ("##" + termString + "##").toCharArray();
+        ByteBuffer bytes = ByteBuffer.wrap(("##" + termString).getBytes(StandardCharsets.US_ASCII));
+        bytes.position(2);
+
+        Term expected = Term.fromString(termString);
+
+        assertEquals(expected, new TermParser(TermLexer.of(chars, 2, termString.length())).parseTerm());
+        assertEquals(expected, Term.fromAscii(bytes, new TermStore()));
+        assertEquals(2, bytes.position());
+    }
+}
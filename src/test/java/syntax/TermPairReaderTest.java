@@ -0,0 +1,85 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermPairReaderTest {
+    private static final String INPUT = "f1(x1,c1);f1(c2,x2)\r\n\n  \nf1(x1,x1);x1\nc1 ; c2";
+
+    @Test
+    public void testRead_streamAndFileAgree(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("pairs.txt");
+        Files.writeString(file, INPUT);
+
+        List<TermPair> fromStream;
+        try (TermPairReader reader = TermPairReader.of(stream(INPUT))) {
+            fromStream = readAll(reader);
+        }
+        List<TermPair> fromFile;
+        try (TermPairReader reader = TermPairReader.open(file)) {
+            fromFile = readAll(reader);
+        }
+
+        assertEquals(List.of(
+                TermPair.fromStrings("f1(x1,c1)", "f1(c2,x2)"),
+                TermPair.fromStrings("f1(x1,x1)", "x1"),
+                TermPair.fromStrings("c1", "c2")), fromStream);
+        assertEquals(fromStream, fromFile);
+        // Terms of a pair share their variables
+        TermPair pair = fromFile.get(1);
+        assertSame(((TermWithArgs) pair.term1()).getArgs().get(0), pair.term2());
+    }
+
+    @Test
+    public void testRead_linesLongerThanBuffer() throws IOException {
+        int depth = 100_000;
+        String term = "f1(".repeat(depth) + "x1" + ")".repeat(depth);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            input.append(term).append(';').append("c").append(i).append('\n');
+        }
+
+        try (TermPairReader reader = TermPairReader.of(stream(input.toString()))) {
+            List<TermPair> pairs = readAll(reader);
+
+            assertEquals(3, pairs.size());
+            assertEquals(depth + 1, pairs.get(2).term1().depth());
+            assertEquals("c2", pairs.get(2).term2().toString());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"f1(x1,c1)", "f1(x1;c1", "f1(x1);c1 c2", "f1(x1);c1;c2", "f1(x1);"})
+    public void testRead_invalidLineIsReported(String line) throws IOException {
+        try (TermPairReader reader = TermPairReader.of(stream("c1;c1\n" + line + "\n"))) {
+            reader.next();
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, reader::next);
+            assertTrue(exception.getMessage().contains("line 2"), exception.getMessage());
+        }
+    }
+
+    private static List<TermPair> readAll(TermPairReader reader) {
+        List<TermPair> pairs = new ArrayList<>();
+        reader.forEachRemaining(pairs::add);
+        assertFalse(reader.hasNext());
+        return pairs;
+    }
+
+    private static InputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII));
+    }
+}
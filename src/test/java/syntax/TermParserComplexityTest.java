@@ -0,0 +1,122 @@
+package syntax;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing throughput on deep ({@code f1(f1(...x1...))})
+ * and wide ({@code f1(x1,x2,...)}) terms. The {@code Recursive}
+ * benchmarks run a recursive descent parser over the same lexer,
+ * the baseline that the parsers with an explicit stack replaced.
+ * The forks get a large thread stack, so the baseline does not
+ * overflow on the deepest terms.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 3, jvmArgsAppend = "-Xss64m")
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(
+        iterations = 3,
+        time = 1,
+        timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(
+        iterations = 5,
+        time = 1, timeUnit =
+        TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TermParserComplexityTest {
+
+    private String deepTerm;
+
+    private String wideTerm;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int termLength;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        deepTerm = "f1(".repeat(termLength) + "x1" + ")".repeat(termLength);
+        StringJoiner joiner = new StringJoiner(",", "f1(", ")");
+        for (int i = 1; i <= termLength; i++)
+            joiner.add(String.format("x%d", i));
+        wideTerm = joiner.toString();
+    }
+
+    @Benchmark
+    public Term benchmarkDeepTree() {
+        return Term.fromString(deepTerm);
+    }
+
+    @Benchmark
+    public Term benchmarkDeepDag() {
+        return Term.fromString(deepTerm, new TermStore());
+    }
+
+    @Benchmark
+    public Term benchmarkWideTree() {
+        return Term.fromString(wideTerm);
+    }
+
+    @Benchmark
+    public Term benchmarkWideDag() {
+        return Term.fromString(wideTerm, new TermStore());
+    }
+
+    @Benchmark
+    public Term benchmarkDeepTreeRecursive() {
+        return parseRecursively(TermLexer.of(deepTerm), null);
+    }
+
+    @Benchmark
+    public Term benchmarkDeepDagRecursive() {
+        return parseRecursively(TermLexer.of(deepTerm), new TermStore());
+    }
+
+    @Benchmark
+    public Term benchmarkWideTreeRecursive() {
+        return parseRecursively(TermLexer.of(wideTerm), null);
+    }
+
+    @Benchmark
+    public Term benchmarkWideDagRecursive() {
+        return parseRecursively(TermLexer.of(wideTerm), new TermStore());
+    }
+
+    /**
+     * Parses a valid term with one call per functional symbol.
+     *
+     * @param termStore a store of unique terms or {@code null}
+     *                  to build a tree
+     */
+    private static Term parseRecursively(TermLexer lexer, TermStore termStore) {
+        Token.Type tokenType = lexer.next();
+        if (tokenType != Token.Type.FUNCTIONAL_SYMBOL) {
+            return termStore == null
+                    ? Term.fromToken(tokenType, lexer.symbol())
+                    : termStore.fromToken(tokenType, lexer.symbol());
+        }
+        int symbol = lexer.symbol();
+        lexer.next();
+        List<Term> args = new ArrayList<>();
+        do {
+            args.add(parseRecursively(lexer, termStore));
+        } while (lexer.next() == Token.Type.COMMA);
+        return termStore == null
+                ? new TermWithArgs(symbol, args)
+                : termStore.function(symbol, args);
+    }
+}
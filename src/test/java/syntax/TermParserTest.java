@@ -2,6 +2,7 @@ package syntax;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,7 +31,40 @@ class TermParserTest {
         assertEquals(termString1, actualPair.term1().toString());
         assertEquals(termString2, actualPair.term2().toString());
         Term child = ((TermWithArgs) actualPair.term1()).getArgs().get(0);
-        assertSame(child.getParents().get(0), actualPair.term1());
         assertSame(child, actualPair.term2());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDeepTermParsing() {
+        int depth = 100_000;
+        String termString = "f1(".repeat(depth) + "x1" + ")".repeat(depth);
+
+        Term term = Term.fromString(termString);
+        Term dag = Term.fromString(termString, new TermStore());
+
+        assertEquals(depth + 1, term.depth());
+        assertEquals(depth + 1, dag.depth());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "'';Unexpected EOF while reading tokens",
+            "' ';Unexpected EOF while reading tokens",
+            "f1(;Unexpected EOF while reading arguments",
+            "f1(x1,;Unexpected EOF while reading arguments",
+            "f1(x1;Unexpected EOF while reading arguments",
+            "f1;Unexpected EOF while reading arguments",
+            "f1(x1 c1);expected a comma or right parenthesis after an argument",
+            "f1 x1);expected a left parenthesis after functional symbol",
+            "f1();illegal token type"
+    }, delimiter = ';')
+    public void testInvalidTermParsing(String termString, String message) {
+        IllegalArgumentException treeException =
+                assertThrows(IllegalArgumentException.class, () -> Term.fromString(termString));
+        IllegalArgumentException dagException =
+                assertThrows(IllegalArgumentException.class, () -> Term.fromString(termString, new TermStore()));
+
+        assertEquals(message, treeException.getMessage());
+        assertEquals(message, dagException.getMessage());
+    }
+}
@@ -0,0 +1,107 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermPrinterTest {
+    @ParameterizedTest
+    @ValueSource(strings = {"x1", "c1", "f1(x1,c1)", "f1(f2(x1),f2(x1))", "f1(x1,f2(c1,f3(x2)))"})
+    public void testPrint_treeIsPrintedAsToString(String termString) throws IOException {
+        Term term = Term.fromString(termString);
+
+        assertEquals(term.toString(), print(term, false));
+        assertEquals(term.toString(), print(Term.fromString(termString), true));
+    }
+
+    @Test
+    public void testPrint_sharedSubtermsAreLabeled() throws IOException {
+        TermStore store = new TermStore();
+        Term term = Term.fromString("f1(f2(x1),f3(f2(x1),f2(x1)))", store);
+
+        assertEquals("f1(#1=f2(x1),f3(#1#,#1#))", print(term, true));
+        assertEquals("f1(f2(x1),f3(f2(x1),f2(x1)))", print(term, false));
+    }
+
+    @Test
+    public void testPrint_sharedDagRoundTrips() throws IOException {
+        TermStore store = new TermStore();
+        Term term = store.variable("x1");
+        for (int i = 0; i < 100; i++) {
+            term = store.function("f1", List.of(term, store.function("f2", List.of(term))));
+        }
+
+        String printed = print(term, true);
+
+        assertTrue(printed.length() < 2000, printed);
+        assertSame(term, Term.fromString(printed, store));
+        assertEquals(printed, print(Term.fromString(printed), true));
+    }
+
+    @Test
+    public void testPrint_parsedTermIsEqual() throws IOException {
+        Term term = Term.fromString("f1(f2(f3(x1,c1),f3(x1,c1)),f2(f3(x1,c1),f3(x1,c1)),x1)");
+
+        String printed = print(Term.fromString(term.toString(), new TermStore()), true);
+
+        assertEquals("f1(#1=f2(#2=f3(x1,c1),#2#),#1#,x1)", printed);
+        assertEquals(term, Term.fromString(printed));
+        assertEquals(term, Term.fromString(printed, new TermStore()));
+    }
+
+    @Test
+    public void testPrint_termWithoutArgs() throws IOException {
+        Term empty = new TermWithArgs("f1", List.of());
+        Term term = new TermWithArgs("f2", List.of(empty, Term.fromString("c1"), empty));
+
+        assertEquals("f1()", print(empty, false));
+        assertEquals("f1()", print(empty, true));
+        assertEquals(empty.toString(), print(empty, true));
+        assertEquals(term.toString(), print(term, false));
+    }
+
+    @Test
+    public void testPrint_deepTerm() throws IOException {
+        int depth = 100_000;
+        String termString = "f1(".repeat(depth) + "x1" + ")".repeat(depth);
+
+        assertEquals(termString, print(Term.fromString(termString), true));
+    }
+
+    @Test
+    public void testPrint_substitution() throws IOException {
+        TermStore store = new TermStore();
+        Map<Term, Term> substitution = new LinkedHashMap<>();
+        substitution.put(store.variable("x1"), Term.fromString("f1(f2(c1),f2(c1))", store));
+        substitution.put(store.variable("x2"), store.constant("c1"));
+        StringWriter writer = new StringWriter();
+
+        new TermPrinter(writer, true).print(substitution).flush();
+
+        assertEquals("{x1=f1(#1=f2(c1),#1#), x2=c1}", writer.toString());
+        writer.getBuffer().setLength(0);
+        new TermPrinter(writer).print(substitution).flush();
+        assertEquals(substitution.toString(), writer.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"#1#", "f1(#1#,#1=c1)", "f1(#1=#2=c1)", "f1(#1=c1,#1=c2)", "#=c1", "#1", "#1x1"})
+    public void testPrint_invalidLabels(String termString) {
+        assertThrows(IllegalArgumentException.class, () -> Term.fromString(termString));
+        assertThrows(IllegalArgumentException.class, () -> Term.fromString(termString, new TermStore()));
+    }
+
+    private static String print(Term term, boolean shareSubterms) throws IOException {
+        StringWriter writer = new StringWriter();
+        new TermPrinter(writer, shareSubterms).print(term).flush();
+        return writer.toString();
+    }
+}
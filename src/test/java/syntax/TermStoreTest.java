@@ -0,0 +1,79 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermStoreTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "c1",
+            "x1",
+            "f1(x1,c1)",
+            "f1(x1,f2(c1))",
+            "f3(f2(x1),x1,f1(f2(x2)))"
+    })
+    public void fromString_equalTermsShouldBeSame(String termString) {
+        TermStore termStore = new TermStore();
+
+        Term term1 = Term.fromString(termString, termStore);
+        Term term2 = Term.fromString(termString, termStore);
+
+        assertSame(term1, term2);
+        assertEquals(termString, term1.toString());
+    }
+
+    @Test
+    public void fromStrings_subtermsShouldBeSharedBetweenPairs() {
+        TermStore termStore = new TermStore();
+
+        TermPair pair1 = TermPair.fromStrings("f1(f2(x1),c1)", "x2", termStore);
+        TermPair pair2 = TermPair.fromStrings("f3(x2)", "f2(x1)", termStore);
+
+        assertSame(((TermWithArgs) pair1.term1()).getArgs().get(0), pair2.term2());
+        assertSame(pair1.term2(), ((TermWithArgs) pair2.term1()).getArgs().get(0));
+    }
+
+    @Test
+    public void intern_shouldReturnUniqueTerm() {
+        TermStore termStore = new TermStore();
+        Term unique = Term.fromString("f1(f2(x1),f2(x1),c1)", termStore);
+
+        Term interned = termStore.intern(Term.fromString("f1(f2(x1),f2(x1),c1)"));
+
+        assertSame(unique, interned);
+        List<Term> args = ((TermWithArgs) interned).getArgs();
+        assertSame(args.get(0), args.get(1));
+        assertEquals(4, termStore.size());
+    }
+
+    @Test
+    public void intern_deepTerm() {
+        int depth = 100_000;
+        String termString = "f1(".repeat(depth) + "x1" + ")".repeat(depth);
+        TermStore termStore = new TermStore();
+
+        Term interned = termStore.intern(Term.fromString(termString));
+
+        assertEquals(depth + 1, interned.depth());
+        assertSame(Term.fromString(termString, termStore), interned);
+    }
+
+    @Test
+    public void function_shouldReuseExistingTerm() {
+        TermStore termStore = new TermStore();
+        Variable variable = termStore.variable("x1");
+        Constant constant = termStore.constant("c1");
+
+        TermWithArgs term1 = termStore.function("f1", List.of(variable, constant));
+        TermWithArgs term2 = termStore.function("f1", List.of(variable, constant));
+        TermWithArgs term3 = termStore.function("f1", List.of(constant, variable));
+
+        assertSame(term1, term2);
+        assertNotSame(term1, term3);
+    }
+}
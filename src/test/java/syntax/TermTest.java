@@ -86,4 +86,45 @@ class TermTest {
     public void ctor_nullArgs_shouldThrow() {
         assertThrows(NullPointerException.class, () -> new TermPair(null, null));
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "c1",
+            "x1",
+            "f1(x1,c1)",
+            "f1(x1,f2(c1))",
+            "f3(f2(x1),x1,f1(f2(x2)))"
+    })
+    public void hashCode_ShouldBeEqualForEqualTerms(String termString) {
+        Term term1 = Term.fromString(termString);
+        Term term2 = TermPair.fromStrings(termString, termString).term1();
+
+        assertEquals(term1.hashCode(), term2.hashCode());
+    }
+
+    @Test
+    public void sizeAndDepth_ShouldCountSharedSubtermsPerOccurrence() {
+        Term term = TermPair.fromStrings("f3(f2(x1),x1,f1(f2(x1)))", "x1").term1();
+
+        assertEquals(7, term.size());
+        assertEquals(4, term.depth());
+        assertEquals(1, Term.fromString("c1").size());
+        assertEquals(1, Term.fromString("c1").depth());
+    }
+
+    @Test
+    public void variableMask_ShouldContainBitsOfAllVariables() {
+        TermPair termPair = TermPair.fromStrings("f3(f2(x1),c1,f1(f2(x2)))", "f1(c1,f2(c2))");
+        Term term = termPair.term1();
+        Term x1 = ((TermWithArgs) ((TermWithArgs) term).getArgs().get(0)).getArgs().get(0);
+
+        assertEquals(x1.variableMask(), Term.fromString("x1").variableMask());
+        assertEquals(1, Long.bitCount(x1.variableMask()));
+        assertEquals(x1.variableMask(), term.variableMask() & x1.variableMask());
+        assertFalse(term.isGround());
+        assertTrue(termPair.term2().isGround());
+        assertTrue(Term.fromString("c1").isGround());
+        assertTrue(term.contains(x1));
+        assertFalse(termPair.term2().contains(x1));
+    }
+}
@@ -0,0 +1,67 @@
+package unification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.TermPair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares unification of many small independent pairs
+ * one by one with the {@link BatchUnifier}.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchUnifierComplexityTest {
+
+    private List<TermPair> termPairs;
+
+    private UnificationStrategy strategy;
+
+    @Param({"10000", "100000"})
+    private int pairCount;
+
+    @Param({"robinson-poly", "paterson-wegman"})
+    private String algorithm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        strategy = UnificationStrategyFactory.createInstance(algorithm);
+        termPairs = new ArrayList<>(pairCount);
+        for (int i = 0; i < pairCount; i++) {
+            termPairs.add(TermPair.fromStrings(
+                    "f1(x1,f2(x2,c1),x3)",
+                    String.format("f1(f3(c%d),f2(c2,c1),x1)", i)));
+        }
+    }
+
+    @Benchmark
+    public List<UnificationResult> benchmarkSequential() {
+        List<UnificationResult> results = new ArrayList<>(termPairs.size());
+        for (TermPair termPair : termPairs) {
+            results.add(strategy.findUnifier(termPair));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<UnificationResult> benchmarkBatch() {
+        return new BatchUnifier(strategy).unifyAll(termPairs);
+    }
+}
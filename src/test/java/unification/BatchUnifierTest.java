@@ -0,0 +1,159 @@
+package unification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import syntax.TermPair;
+import syntax.TermStore;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchUnifierTest {
+    private static List<TermPair> preparePairs(int count) {
+        List<TermPair> pairs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pairs.add(i % 3 == 0
+                    ? TermPair.fromStrings("f1(x1,x1)", String.format("f1(c%d,c%d)", i, i + 1))
+                    : TermPair.fromStrings("f1(x1,f2(x2))", String.format("f1(c%d,f2(x3))", i)));
+        }
+        return pairs;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"robinson", "robinson-triangular", "robinson-poly", "paterson-wegman", "martelli-montanari", "huet"})
+    public void unifyAll_resultsShouldBeInOrder(String algorithm) {
+        UnificationStrategy strategy = UnificationStrategyFactory.createInstance(algorithm);
+        List<TermPair> pairs = preparePairs(1000);
+
+        List<UnificationResult> results = new BatchUnifier(strategy, ForkJoinPool.commonPool(), 7)
+                .unifyAll(pairs);
+
+        assertEquals(pairs.size(), results.size());
+        for (int i = 0; i < pairs.size(); i++) {
+            assertEquals(i % 3 != 0, results.get(i).isUnifiable());
+            assertEquals(strategy.findUnifier(pairs.get(i)).unifier().domain(), results.get(i).unifier().domain());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"paterson-wegman", "huet"})
+    public void unifyAll_pairsMayShareTerms(String algorithm) {
+        UnificationStrategy strategy = UnificationStrategyFactory.createInstance(algorithm);
+        TermStore termStore = new TermStore();
+        List<TermPair> pairs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pairs.add(TermPair.fromStrings(
+                    "f1(x1,f2(x2,c1))",
+                    String.format("f1(f2(c%d,c1),x1)", i % 10),
+                    termStore));
+        }
+
+        List<UnificationResult> results = new BatchUnifier(strategy, ForkJoinPool.commonPool(), 7)
+                .unifyAll(pairs);
+
+        for (int i = 0; i < pairs.size(); i++) {
+            assertTrue(results.get(i).isUnifiable());
+            assertEquals(strategy.findUnifier(pairs.get(i)).unifier().domain(), results.get(i).unifier().domain());
+        }
+    }
+
+    @Test
+    public void unifyAsCompleted_shouldReturnEveryPairOnce() throws InterruptedException {
+        List<TermPair> pairs = preparePairs(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<BatchUnifier.IndexedResult> results =
+                    new BatchUnifier(new PatersonWegmanUnificationStrategy(), executor, 10)
+                            .unifyAsCompleted(pairs.stream())
+                            .collect(Collectors.toList());
+
+            assertEquals(
+                    IntStream.range(0, pairs.size()).boxed().collect(Collectors.toSet()),
+                    results.stream().map(r -> (int) r.index()).collect(Collectors.toSet()));
+            for (BatchUnifier.IndexedResult result : results) {
+                assertSame(pairs.get((int) result.index()), result.termPair());
+                assertEquals(result.index() % 3 != 0, result.result().isUnifiable());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void unifyInOrder_resultsShouldBeInOrder() {
+        List<TermPair> pairs = preparePairs(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<BatchUnifier.IndexedResult> results =
+                    new BatchUnifier(new HuetUnificationStrategy(), executor, 10)
+                            .unifyInOrder(pairs.iterator())
+                            .collect(Collectors.toList());
+
+            assertEquals(pairs.size(), results.size());
+            for (int i = 0; i < pairs.size(); i++) {
+                assertEquals(i, results.get(i).index());
+                assertSame(pairs.get(i), results.get(i).termPair());
+                assertEquals(i % 3 != 0, results.get(i).result().isUnifiable());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void unifyInOrder_mapperShouldRunOnWorkers() {
+        List<TermPair> pairs = preparePairs(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Thread caller = Thread.currentThread();
+        try {
+            List<String> lines =
+                    new BatchUnifier(new HuetUnificationStrategy(), executor, 10)
+                            .unifyInOrder(pairs.iterator(), indexedResult -> {
+                                assertNotSame(caller, Thread.currentThread());
+                                UnificationResult result = indexedResult.result();
+                                return indexedResult.index() + ":"
+                                        + (result.isUnifiable() ? result.unifier().domain() : "not unifiable");
+                            })
+                            .collect(Collectors.toList());
+
+            assertEquals(pairs.size(), lines.size());
+            for (int i = 0; i < pairs.size(); i++) {
+                assertEquals(i % 3 != 0, !lines.get(i).endsWith("not unifiable"));
+                assertTrue(lines.get(i).startsWith(i + ":"), lines.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void unifyAll_emptyInputShouldReturnEmptyList() {
+        BatchUnifier batchUnifier = new BatchUnifier(new RobinsonUnificationStrategy());
+
+        assertTrue(batchUnifier.unifyAll(List.of()).isEmpty());
+        assertFalse(batchUnifier.unifyAsCompleted(List.<TermPair>of().iterator()).iterator().hasNext());
+        assertFalse(batchUnifier.unifyInOrder(List.<TermPair>of().iterator()).iterator().hasNext());
+    }
+
+    @Test
+    public void unifyAll_failedTaskShouldRethrowException() {
+        UnificationStrategy failing = new UnificationStrategy() {
+            @Override
+            public UnificationResult findUnifier(TermPair termPair, UnificationContext context) {
+                throw new IllegalStateException("failed");
+            }
+        };
+        Iterator<TermPair> pairs = preparePairs(10).iterator();
+
+        assertThrows(IllegalStateException.class, () -> new BatchUnifier(failing).unifyAll(pairs));
+    }
+}
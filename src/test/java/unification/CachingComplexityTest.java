@@ -0,0 +1,97 @@
+package unification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.TermPair;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unification of the pair {@code f1(f(x1,x1),...,f(xn,xn))} and
+ * {@code f1(x2,...,x(n+1))} that is asked again, directly and renamed,
+ * with and without the cache. The cache is filled before the
+ * measurement, so every cached lookup is a hit.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CachingComplexityTest {
+
+    private final UnificationStrategy strategy = new HuetUnificationStrategy();
+
+    private final CachingUnificationStrategy cachingStrategy =
+            new CachingUnificationStrategy(strategy);
+
+    private TermPair termPair;
+
+    private TermPair renamedPair;
+
+    @Param({"10", "100", "1000"})
+    private int termLength;
+
+    private String prepareTerm1(int termLength, int offset) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 1; i <= termLength; i++)
+            joiner.add(String.format("f(x%d,x%d)", i + offset, i + offset));
+        return joiner.toString();
+    }
+
+    private String prepareTerm2(int termLength, int offset) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 2; i <= termLength + 1; i++)
+            joiner.add(String.format("x%d", i + offset));
+        return joiner.toString();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        termPair = TermPair.fromStrings(
+                prepareTerm1(termLength, 0),
+                prepareTerm2(termLength, 0));
+        renamedPair = TermPair.fromStrings(
+                prepareTerm1(termLength, termLength),
+                prepareTerm2(termLength, termLength));
+        cachingStrategy.findUnifier(termPair);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkUncached() {
+        return strategy.findUnifier(termPair);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkCachedHit() {
+        return cachingStrategy.findUnifier(termPair);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkCachedRenamedHit() {
+        return cachingStrategy.findUnifier(renamedPair);
+    }
+
+    @Benchmark
+    public boolean benchmarkUncachedCheck() {
+        return strategy.isUnifiable(termPair);
+    }
+
+    @Benchmark
+    public boolean benchmarkCachedCheck() {
+        return cachingStrategy.isUnifiable(termPair);
+    }
+}
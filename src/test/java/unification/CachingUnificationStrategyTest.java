@@ -0,0 +1,147 @@
+package unification;
+
+import org.junit.jupiter.api.Test;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermWithArgs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingUnificationStrategyTest {
+    @Test
+    public void testCaching_alphaEquivalentPairsHit() {
+        CachingUnificationStrategy strategy = new CachingUnificationStrategy(new HuetUnificationStrategy());
+        TermPair termPair = TermPair.fromStrings("f1(x1,f2(x2))", "f1(f2(c1),x1)");
+        TermPair renamed = TermPair.fromStrings("f1(x7,f2(x3))", "f1(f2(c1),x7)");
+
+        UnificationResult result = strategy.findUnifier(termPair);
+        UnificationResult renamedResult = strategy.findUnifier(renamed);
+
+        assertTrue(renamedResult.isUnifiable());
+        assertEquals(
+                result.unifier().instantiateVariables(termPair.term1()).toString()
+                        .replace("x2", "x3"),
+                renamedResult.unifier().instantiateVariables(renamed.term1()).toString());
+        assertEquals(
+                renamedResult.unifier().instantiateVariables(renamed.term1()),
+                renamedResult.unifier().instantiateVariables(renamed.term2()));
+        assertEquals(
+                result.unifier().domain().keySet().stream().map(Term::toString).sorted().toList(),
+                renamedResult.unifier().domain().keySet().stream()
+                        .map(variable -> variable.toString().replace("x7", "x1").replace("x3", "x2"))
+                        .sorted().toList());
+        assertEquals(new CachingUnificationStrategy.Stats(1, 1, 0, 1), strategy.stats());
+        assertSame(result, strategy.findUnifier(TermPair.fromStrings("f1(x1,f2(x2))", "f1(f2(c1),x1)")));
+    }
+
+    @Test
+    public void testCaching_renamedBindingsAreShared() {
+        Term shared = Term.fromString("f2(x3,c1)");
+        Substitution substitution = Substitution.of(Map.of(
+                Term.fromString("x1"), shared,
+                Term.fromString("x2"), new TermWithArgs("f3", List.of(shared))));
+        Term variable1 = Term.fromString("x11");
+        Term variable2 = Term.fromString("x12");
+        RenamedSubstitution renamed = new RenamedSubstitution(substitution, Map.of(
+                Term.fromString("x1"), variable1,
+                Term.fromString("x2"), variable2,
+                Term.fromString("x3"), Term.fromString("x13")));
+
+        Term binding = renamed.getBinding(variable1);
+
+        assertEquals(Term.fromString("f2(x13,c1)"), binding);
+        assertSame(binding, renamed.getBinding(variable1));
+        assertSame(binding, ((TermWithArgs) renamed.getBinding(variable2)).getArgs().get(0));
+        assertSame(binding, renamed.domain().get(variable1));
+    }
+
+    @Test
+    public void testCaching_differentPairsMiss() {
+        CachingUnificationStrategy strategy = new CachingUnificationStrategy(new HuetUnificationStrategy());
+
+        assertTrue(strategy.isUnifiable(TermPair.fromStrings("f1(x1,x2)", "f1(c1,c2)")));
+        assertFalse(strategy.isUnifiable(TermPair.fromStrings("f1(x1,x1)", "f1(c1,c2)")));
+        assertTrue(strategy.isUnifiable(TermPair.fromStrings("f1(x2,x1)", "f1(c1,c2)")));
+        assertFalse(strategy.findUnifier(TermPair.fromStrings("f1(x2,x2)", "f1(c1,c2)")).isUnifiable());
+
+        CachingUnificationStrategy.Stats stats = strategy.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    public void testCaching_unifierIsFoundAfterIsUnifiable() {
+        CachingUnificationStrategy strategy = new CachingUnificationStrategy(new HuetUnificationStrategy());
+        TermPair termPair = TermPair.fromStrings("f1(x1,x2)", "f1(c1,c2)");
+
+        assertTrue(strategy.isUnifiable(termPair));
+        UnificationResult result = strategy.findUnifier(termPair);
+
+        assertTrue(result.isUnifiable());
+        assertEquals(2, result.unifier().domain().size());
+        assertSame(result, strategy.findUnifier(termPair));
+    }
+
+    @Test
+    public void testCaching_sizeIsBounded() {
+        CachingUnificationStrategy strategy = new CachingUnificationStrategy(new HuetUnificationStrategy(), 4);
+
+        for (int i = 0; i < 10; i++) {
+            strategy.isUnifiable(TermPair.fromStrings("f1(x1,c" + i + ")", "f1(c1,x2)"));
+        }
+
+        CachingUnificationStrategy.Stats stats = strategy.stats();
+        assertTrue(stats.size() <= 4);
+        assertEquals(10, stats.misses());
+        assertEquals(10 - stats.size(), stats.evictions());
+        strategy.clear();
+        assertEquals(0, strategy.size());
+    }
+
+    @Test
+    public void testCaching_factoryPrefix() {
+        UnificationStrategy strategy = UnificationStrategyFactory.createInstance("cached-robinson");
+
+        assertInstanceOf(CachingUnificationStrategy.class, strategy);
+        assertTrue(strategy.findUnifier(TermPair.fromStrings("f1(x1)", "f1(c1)")).isUnifiable());
+        assertThrows(Exception.class, () -> UnificationStrategyFactory.createInstance("cached-unknown"));
+    }
+
+    @Test
+    public void testCaching_concurrentLookups() throws Exception {
+        CachingUnificationStrategy strategy = new CachingUnificationStrategy(new HuetUnificationStrategy(), 64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        int n = i % 100;
+                        Term term1 = Term.fromString("f1(x" + n + ",f2(c" + n + "))");
+                        Term term2 = Term.fromString("f1(c1,x" + (n + 1) + ")");
+                        UnificationResult result = strategy.findUnifier(new TermPair(term1, term2));
+                        assertEquals(
+                                result.unifier().instantiateVariables(term1),
+                                result.unifier().instantiateVariables(term2));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        CachingUnificationStrategy.Stats stats = strategy.stats();
+        assertEquals(4000, stats.hits() + stats.misses());
+        assertTrue(stats.size() <= 64);
+    }
+}
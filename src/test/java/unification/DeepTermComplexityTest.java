@@ -0,0 +1,68 @@
+package unification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.TermArena;
+import syntax.TermPair;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paterson-Wegman unification of terms
+ * {@code f3(f1(x1),f2(f2(...f1(x1)...)))} and
+ * {@code f3(f1(c1),f2(f2(...f1(c1)...)))}. The shared subterm
+ * {@code f1(x1)} is finished before its deep parents, so a
+ * recursive implementation needs a stack frame per level.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DeepTermComplexityTest {
+
+    private TermPair termPair;
+
+    private TermArena arena;
+
+    @Param({"100000", "300000", "1000000"})
+    private int termDepth;
+
+    private String prepareTerm(int termDepth, String leaf) {
+        return "f3(f1(" + leaf + "),"
+                + "f2(".repeat(termDepth) + "f1(" + leaf + ")" + ")".repeat(termDepth)
+                + ")";
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        termPair =
+                TermPair.fromStrings(
+                        prepareTerm(termDepth, "x1"),
+                        prepareTerm(termDepth, "c1"));
+        arena = TermArena.fromTermPair(termPair);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkPatersonWegman() {
+        return new PatersonWegmanUnificationStrategy()
+                .findUnifier(termPair);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkPatersonWegmanArena() {
+        return new PatersonWegmanUnificationStrategy()
+                .findUnifier(arena);
+    }
+}
@@ -0,0 +1,88 @@
+package unification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.Term;
+import syntax.TermPair;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching of the pattern {@code f1(f(x1,x2),f(x2,x3),...,f(xn,x(n+1)))}
+ * against a ground subject, compared with unification of the same terms.
+ * In the miss case the last argument of the subject does not match,
+ * so the mismatch is found at the end.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatchingComplexityTest {
+
+    private final MatchingStrategy matchingStrategy = new SyntacticMatchingStrategy();
+
+    private final UnificationStrategy unificationStrategy = new HuetUnificationStrategy();
+
+    private Term pattern;
+
+    private Term subject;
+
+    private TermPair termPair;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int termLength;
+
+    @Param({"true", "false"})
+    private boolean matches;
+
+    private String preparePattern(int termLength) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 1; i <= termLength; i++)
+            joiner.add(String.format("f(x%d,x%d)", i, i + 1));
+        return joiner.toString();
+    }
+
+    private String prepareSubject(int termLength, boolean matches) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 1; i < termLength; i++)
+            joiner.add(String.format("f(c%d,c%d)", i, i + 1));
+        joiner.add(matches
+                ? String.format("f(c%d,c%d)", termLength, termLength + 1)
+                : String.format("f(c0,c%d)", termLength + 1));
+        return joiner.toString();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        termPair = TermPair.fromStrings(
+                preparePattern(termLength),
+                prepareSubject(termLength, matches));
+        pattern = termPair.term1();
+        subject = termPair.term2();
+    }
+
+    @Benchmark
+    public Substitution benchmarkMatching() {
+        return matchingStrategy.match(pattern, subject);
+    }
+
+    @Benchmark
+    public boolean benchmarkUnification() {
+        return unificationStrategy.isUnifiable(termPair);
+    }
+}
@@ -0,0 +1,73 @@
+package unification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import syntax.Term;
+import syntax.TermPair;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingTest {
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f1(x1,x2);f1(c1,f2(c2))",
+            "f1(x1,x1);f1(f2(c1),f2(c1))",
+            "f3(f2(x1),x1,x2);f3(f2(c1),c1,x3)",
+            "x1;f1(x1,c1)",
+            "f1(x1,x2);f1(x2,x1)"
+
+    }, delimiter = ';')
+    public void testMatching_patternMatches(String patternString, String subjectString) {
+        TermPair termPair = TermPair.fromStrings(patternString, subjectString);
+
+        Substitution matcher = new SyntacticMatchingStrategy().match(termPair.term1(), termPair.term2());
+
+        assertNotNull(matcher);
+        assertEquals(termPair.term2(), matcher.instantiateVariables(termPair.term1()));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f1(x1,x1);f1(c1,c2)",
+            "f1(c1);f1(x1)",
+            "f1(x1);f2(c1)",
+            "f1(x1);f1(c1,c2)",
+            "f1(x1,c1);f1(f2(x1),f2(c1))",
+            "c1;c2",
+            "f1(x1,x1);f1(x2,x3)"
+
+    }, delimiter = ';')
+    public void testMatching_patternDoesNotMatch(String patternString, String subjectString) {
+        TermPair termPair = TermPair.fromStrings(patternString, subjectString);
+
+        assertNull(new SyntacticMatchingStrategy().match(termPair.term1(), termPair.term2()));
+        assertFalse(new SyntacticMatchingStrategy().matches(termPair.term1(), termPair.term2()));
+    }
+
+    @Test
+    public void testMatching_subjectVariablesAreNotBound() {
+        Term pattern = Term.fromString("f1(x1,c1)");
+        Term subject = Term.fromString("f1(x2,x3)");
+
+        assertNull(new SyntacticMatchingStrategy().match(pattern, subject));
+        assertTrue(UnificationStrategyFactory.createInstance("huet").isUnifiable(new TermPair(pattern, subject)));
+    }
+
+    @Test
+    public void testMatching_domainHasNonTrivialBindingsOnly() {
+        TermPair termPair = TermPair.fromStrings("f1(x1,x2,f2(x1,x3))", "f1(c1,x2,f2(c1,c2))");
+        UnificationContext context = new UnificationContext();
+        SyntacticMatchingStrategy strategy = new SyntacticMatchingStrategy();
+
+        Substitution matcher = strategy.match(termPair.term1(), termPair.term2(), context);
+        assertNull(strategy.match(Term.fromString("f1(x4)"), Term.fromString("f2(c1)"), context));
+
+        assertNotNull(matcher);
+        assertEquals(
+                Map.of(Term.fromString("x1"), Term.fromString("c1"), Term.fromString("x3"), Term.fromString("c2")),
+                matcher.domain());
+    }
+}
@@ -4,8 +4,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import syntax.Term;
+import syntax.TermPair;
+import syntax.TermStore;
+import syntax.TermWithArgs;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,4 +40,88 @@ class SubstitutionTest {
         assertEquals("x1", actualSubstitution3.toString());
         assertEquals("f2(c2,x2,x3)", actualSubstitution4.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTriangularSubstitution_bindingsAreShared() {
+        int length = 100;
+        Map<Term, Term> bindingList = new HashMap<>();
+        for (int i = 1; i <= length; i++) {
+            bindingList.put(
+                    Term.fromString("x" + i),
+                    Term.fromString(String.format("f1(x%d,x%d)", i - 1, i - 1)));
+        }
+        Substitution substitution = Substitution.fromTriangularForm(bindingList);
+        bindingList.clear();
+
+        Term binding = substitution.getBinding(Term.fromString("x" + length));
+
+        for (int i = length; i > 1; i--) {
+            TermWithArgs termWithArgs = assertInstanceOf(TermWithArgs.class, binding);
+            assertSame(termWithArgs.getArgs().get(0), termWithArgs.getArgs().get(1));
+            binding = termWithArgs.getArgs().get(0);
+        }
+        assertEquals("f1(x0,x0)", binding.toString());
+        assertSame(
+                substitution.getBinding(Term.fromString("x" + (length - 1))),
+                ((TermWithArgs) substitution.getBinding(Term.fromString("x" + length))).getArgs().get(0));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "x2;f1(x3,c1);f2(x1,x2,x3)",
+            "x3;x4;f2(x1,x2,x3)",
+            "x3;c1;f3(x3)"
+    }, delimiter = ';')
+    public void testTriangularSubstitution_matchesEagerForm(
+            String variable, String replacement, String term) {
+        Map<Term, Term> bindingList = new HashMap<>(Map.of(
+                Term.fromString("x1"), Term.fromString("f1(x2,x3)"),
+                Term.fromString(variable), Term.fromString(replacement)));
+        Substitution eager = new TriangularFormConverter(bindingList, null).convert();
+
+        Substitution lazy = Substitution.fromTriangularForm(bindingList);
+
+        assertEquals(
+                eager.instantiateVariables(Term.fromString(term)),
+                lazy.instantiateVariables(Term.fromString(term)));
+        assertEquals(eager.domain(), lazy.domain());
+    }
+
+    @Test
+    public void testVariableSubstitution_sharingIsPreserved() {
+        Term term = TermPair.fromStrings("f1(f2(x1,c1),f2(x1,c1),f3(x2))", "x3").term1();
+        Substitution substitution = Substitution.of(Term.fromString("x1"), Term.fromString("f4(c2)"));
+
+        TermWithArgs result = assertInstanceOf(TermWithArgs.class, substitution.instantiateVariables(term));
+
+        assertEquals("f1(f2(f4(c2),c1),f2(f4(c2),c1),f3(x2))", result.toString());
+        assertSame(result.getArgs().get(0), result.getArgs().get(1));
+        assertSame(((TermWithArgs) term).getArgs().get(2), result.getArgs().get(2));
+    }
+
+    @Test
+    public void testVariableSubstitution_deepTerm() {
+        int depth = 100_000;
+        Term term = Term.fromString("f1(".repeat(depth) + "x1" + ")".repeat(depth));
+        Substitution substitution = Substitution.of(Term.fromString("x1"), Term.fromString("c1"));
+
+        Term result = substitution.instantiateVariables(term);
+
+        assertEquals(depth + 1, result.depth());
+    }
+
+    @Test
+    public void testVariableSubstitution_deepBindingThroughStore() {
+        int depth = 100_000;
+        Term binding = Term.fromString("f1(".repeat(depth) + "c1" + ")".repeat(depth));
+        Substitution substitution = Substitution.of(Term.fromString("x1"), binding);
+        TermStore termStore = new TermStore();
+
+        Term result = substitution.instantiateVariables(Term.fromString("f2(x1,x1)"), termStore);
+
+        assertEquals(depth + 2, result.depth());
+        List<Term> args = ((TermWithArgs) result).getArgs();
+        assertSame(args.get(0), args.get(1));
+        assertSame(result, termStore.intern(result));
+    }
+}
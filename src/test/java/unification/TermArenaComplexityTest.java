@@ -0,0 +1,153 @@
+package unification;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.TermArena;
+import syntax.TermPair;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the object graph representation of terms with
+ * the {@link TermArena}. Run with {@code -prof gc} to compare
+ * allocation: {@code gc.alloc.rate.norm} of the build benchmarks
+ * is the number of bytes allocated per representation, including
+ * the garbage of the builders. {@link #benchmarkRetainedSize}
+ * reports the retained heap of both representations, the used
+ * heap after GC divided by the number of kept copies, in the
+ * {@code arenaBytes} and {@code termBytes} counters.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 3)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(
+        iterations = 3,
+        time = 1,
+        timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(
+        iterations = 5,
+        time = 1, timeUnit =
+        TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TermArenaComplexityTest {
+
+    /**
+     * A number of copies kept by the retained size benchmark
+     */
+    private static final int COPIES = 100;
+
+    private TermPair termPair;
+
+    private TermArena arena;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int termLength;
+
+    private String prepareTerm1(int termLength) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 1; i <= termLength; i++)
+            joiner.add(String.format("f(x%d,x%d)", i, i));
+        return joiner.toString();
+    }
+
+    private String prepareTerm2(int termLength) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 2; i <= termLength + 1; i++)
+            joiner.add(String.format("x%d", i));
+        return joiner.toString();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        termPair =
+                TermPair.fromStrings(
+                        prepareTerm1(termLength),
+                        prepareTerm2(termLength));
+        arena = TermArena.fromTermPair(termPair);
+    }
+
+    @Benchmark
+    public TermArena benchmarkArenaBuilding() {
+        return TermArena.fromTermPair(termPair);
+    }
+
+    @Benchmark
+    public TermPair benchmarkTermBuilding() {
+        return arena.toTermPair();
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkPolyRobinson() {
+        return new PolynomialRobinsonUnificationStrategy()
+                .findUnifier(termPair);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkPolyRobinsonArena() {
+        return new PolynomialRobinsonUnificationStrategy()
+                .findUnifier(arena);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkPatersonWegman() {
+        return new PatersonWegmanUnificationStrategy()
+                .findUnifier(termPair);
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkPatersonWegmanArena() {
+        return new PatersonWegmanUnificationStrategy()
+                .findUnifier(arena);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Object[] benchmarkRetainedSize(RetainedSize retainedSize) {
+        long before = usedHeapAfterGc();
+        TermArena[] arenas = new TermArena[COPIES];
+        for (int i = 0; i < COPIES; i++) {
+            arenas[i] = TermArena.fromTermPair(termPair);
+        }
+        long afterArenas = usedHeapAfterGc();
+        TermPair[] termPairs = new TermPair[COPIES];
+        for (int i = 0; i < COPIES; i++) {
+            termPairs[i] = arena.toTermPair();
+        }
+        long afterTerms = usedHeapAfterGc();
+        retainedSize.arenaBytes = (afterArenas - before) / COPIES;
+        retainedSize.termBytes = (afterTerms - afterArenas) / COPIES;
+        return new Object[]{arenas, termPairs};
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Bytes retained by one representation of the pair
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedSize {
+        public long arenaBytes;
+        public long termBytes;
+    }
+}
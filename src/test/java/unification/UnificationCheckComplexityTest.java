@@ -0,0 +1,83 @@
+package unification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import syntax.TermPair;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UnificationStrategy#findUnifier(TermPair)} with
+ * {@link UnificationStrategy#isUnifiable(TermPair)} on terms
+ * {@code f1(f(x1,x1),...,f(xn,xn))} and {@code f1(x2,...,x(n+1))}.
+ * In the non-unifiable case the last argument of the second term
+ * is a constant, so the clash is found at the end.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnificationCheckComplexityTest {
+
+    private TermPair termPair;
+
+    private UnificationStrategy strategy;
+
+    @Param({"robinson-triangular", "robinson-poly", "paterson-wegman",
+            "martelli-montanari", "huet"})
+    private String algorithm;
+
+    @Param({"10", "100", "1000"})
+    private int termLength;
+
+    @Param({"true", "false"})
+    private boolean unifiable;
+
+    private String prepareTerm1(int termLength) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 1; i <= termLength; i++)
+            joiner.add(String.format("f(x%d,x%d)", i, i));
+        return joiner.toString();
+    }
+
+    private String prepareTerm2(int termLength, boolean unifiable) {
+        StringJoiner joiner =
+                new StringJoiner(",", "f1(", ")");
+        for (int i = 2; i <= termLength; i++)
+            joiner.add(String.format("x%d", i));
+        joiner.add(unifiable ? String.format("x%d", termLength + 1) : "c1");
+        return joiner.toString();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        strategy = UnificationStrategyFactory.createInstance(algorithm);
+        termPair = TermPair.fromStrings(
+                prepareTerm1(termLength),
+                prepareTerm2(termLength, unifiable));
+    }
+
+    @Benchmark
+    public boolean benchmarkFindUnifier() {
+        return strategy.findUnifier(termPair).isUnifiable();
+    }
+
+    @Benchmark
+    public boolean benchmarkIsUnifiable() {
+        return strategy.isUnifiable(termPair);
+    }
+}
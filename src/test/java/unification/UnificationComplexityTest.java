@@ -33,6 +33,10 @@ public class UnificationComplexityTest {
 
     private TermPair termPair;
 
+    private String termString1;
+
+    private String termString2;
+
     @Param({"2", "3", "4", "5",
             "6", "7", "8", "9", "10",
             "20", "30", "40", "50",
@@ -61,10 +65,17 @@ public class UnificationComplexityTest {
 
     @Setup(Level.Iteration)
     public void setUp() {
+        termString1 = prepareTerm1(termLength);
+        termString2 = prepareTerm2(termLength);
         termPair =
                 TermPair.fromStrings(
-                        prepareTerm1(termLength),
-                        prepareTerm2(termLength));
+                        termString1,
+                        termString2);
+    }
+
+    @Benchmark
+    public TermPair benchmarkParsing() {
+        return TermPair.fromStrings(termString1, termString2);
     }
 
     private UnificationResult benchmarkUnification(
@@ -78,6 +89,13 @@ public class UnificationComplexityTest {
                 new RobinsonUnificationStrategy());
     }
 
+    @Benchmark
+    public UnificationResult benchmarkTriangularRobinson() {
+        return benchmarkUnification(
+                new RobinsonUnificationStrategy(
+                        RobinsonUnificationStrategy.Mode.TRIANGULAR, null));
+    }
+
     @Benchmark
     public UnificationResult benchmarkPolyRobinson() {
         return benchmarkUnification(
@@ -89,4 +107,16 @@ public class UnificationComplexityTest {
         return benchmarkUnification(
                 new PatersonWegmanUnificationStrategy());
     }
+
+    @Benchmark
+    public UnificationResult benchmarkMartelliMontanari() {
+        return benchmarkUnification(
+                new MartelliMontanariUnificationStrategy());
+    }
+
+    @Benchmark
+    public UnificationResult benchmarkHuet() {
+        return benchmarkUnification(
+                new HuetUnificationStrategy());
+    }
 }
@@ -0,0 +1,59 @@
+package unification;
+
+import org.junit.jupiter.api.Test;
+import syntax.Term;
+import syntax.TermPair;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnificationContextTest {
+    @Test
+    public void acquire_shouldReuseContextOfThread() {
+        UnificationContext context = UnificationContext.acquire();
+        UnificationContext nested = UnificationContext.acquire();
+        nested.close();
+        context.close();
+
+        assertNotSame(context, nested);
+        try (UnificationContext reused = UnificationContext.acquire()) {
+            assertSame(context, reused);
+        }
+    }
+
+    @Test
+    public void clear_shouldKeepSmallTablesAndDropLargeOnes() {
+        UnificationContext context = new UnificationContext();
+        Map<Term, Term> bindingList = context.bindingList;
+        Map<Term, Term> pointers = context.pointers;
+        bindingList.put(Term.fromString("x1"), Term.fromString("c1"));
+        for (int i = 0; i <= UnificationContext.MAX_RETAINED_SIZE; i++) {
+            Term term = Term.fromString("x" + i);
+            pointers.put(term, term);
+        }
+
+        context.clear();
+
+        assertSame(bindingList, context.bindingList);
+        assertTrue(context.bindingList.isEmpty());
+        assertNotSame(pointers, context.pointers);
+        assertTrue(context.pointers.isEmpty());
+    }
+
+    @Test
+    public void patersonWegman_shouldReuseFramesOfContext() {
+        UnificationContext context = new UnificationContext();
+        PatersonWegmanUnificationStrategy strategy = new PatersonWegmanUnificationStrategy();
+        FrameStack frames = context.frames;
+
+        assertFalse(strategy.findUnifier(TermPair.fromStrings("f1(x1,x1)", "f1(c1,c2)"), context).isUnifiable());
+        UnificationResult result = strategy.findUnifier(TermPair.fromStrings("f1(x1,x2)", "f1(c1,c2)"), context);
+        context.clear();
+
+        assertTrue(result.isUnifiable());
+        assertEquals(2, result.unifier().domain().size());
+        assertSame(frames, context.frames);
+        assertTrue(context.frames.isEmpty());
+    }
+}
@@ -2,8 +2,13 @@ package unification;
 
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import syntax.Term;
+import syntax.TermArena;
 import syntax.TermPair;
+import syntax.TermStore;
+
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +33,64 @@ class UnificationTest {
                 unifier.instantiateVariables(termPair.term2()).toString());
     }
 
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f1(x1,x2);f1(f2(x2),f2(x1))",
+            "f1(x1);f1(f2(x1))",
+            "c1;f1(c1)",
+            "f1(c1);c1",
+            "f1(x1,c1);f1(c1,f1(c1))",
+            "f1(x1);f1(x1,x2)"
+    }, delimiter = ';')
+    public void testRobinsonUnification_termsAreNotUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        // Eager Robinson used to loop forever on a constant against a compound term
+        assertFalse(assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> new RobinsonUnificationStrategy().findUnifier(termPair).isUnifiable()));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f1(x1))",
+            "f3(f2(x1),x1,f2(x2));f3(x3,c1,x3)",
+            "f3(f2(x1),x1,f1(f2(x2)));f3(x3,c1,f1(x3))",
+            "f1(x1,x2,x3);f1(f2(x2,x2),f2(x3,x3),c1)",
+            "f1(x1,x2,x3);f1(x2,x3,x1)"
+
+    }, delimiter = ';')
+    public void testTriangularRobinsonUnification_termsAreUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        UnificationResult unificationResult = new RobinsonUnificationStrategy(
+                RobinsonUnificationStrategy.Mode.TRIANGULAR, null).findUnifier(termPair);
+
+        assertTrue(unificationResult.isUnifiable());
+        Substitution unifier = unificationResult.unifier();
+        assertFalse(unifier.domain().isEmpty());
+        assertEquals(
+                unifier.instantiateVariables(termPair.term1()).toString(),
+                unifier.instantiateVariables(termPair.term2()).toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f2(x1))",
+            "f1(x1);f1(f2(x1))",
+            "x1;f1(x2,f2(x1))",
+            "f1(x1,x2);f1(f2(x2),f2(x1))",
+            "f1(c1);f1(f2(x1))",
+            "f1(x1,x1);f1(c1,c2)",
+            "f1(x1);f1(x1,x2)"
+
+    }, delimiter = ';')
+    public void testTriangularRobinsonUnification_termsAreNotUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        assertFalse(new RobinsonUnificationStrategy(RobinsonUnificationStrategy.Mode.TRIANGULAR, null)
+                .findUnifier(termPair).isUnifiable());
+    }
+
     @ParameterizedTest
     @CsvSource(value = {
             "f(x,f1(c));f(f1(c),f1(x1))",
@@ -47,6 +110,21 @@ class UnificationTest {
         assertEquals(unifier.instantiateVariables(termPair.term1()).toString(), unifier.instantiateVariables(termPair.term2()).toString());
     }
 
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f1(x1,x2);f1(f2(x2),f2(x1))",
+            "f1(x1);f1(f2(x1))",
+            "c1;f1(c1)",
+            "f1(c1);c1",
+            "f1(x1,c1);f1(c1,f1(c1))",
+            "f1(x1);f1(x1,x2)"
+    }, delimiter = ';')
+    public void testPolynomialRobinsonUnification_termsAreNotUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        assertFalse(new PolynomialRobinsonUnificationStrategy().findUnifier(termPair).isUnifiable());
+    }
+
     @ParameterizedTest
     @CsvSource(value = {
             "f(x,f1(c));f(f1(c),f1(x1))",
@@ -65,4 +143,256 @@ class UnificationTest {
         System.out.println(unifier.domain());
         assertEquals(unifier.instantiateVariables(termPair.term1()).toString(), unifier.instantiateVariables(termPair.term2()).toString());
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f1(x1,x2);f1(f2(x2),f2(x1))",
+            "f1(x1);f1(f2(x1))",
+            "c1;f1(c1)",
+            "f1(c1);c1",
+            "f1(x1,c1);f1(c1,f1(c1))",
+            "f1(x1);f1(x1,x2)"
+    }, delimiter = ';')
+    public void testPatersonWegmanUnification_termsAreNotUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        assertFalse(new PatersonWegmanUnificationStrategy().findUnifier(termPair).isUnifiable());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f1(x1))",
+            "f3(f2(x1),x1,f2(x2));f3(x3,c1,x3)",
+            "f3(f2(x1),x1,f1(f2(x2)));f3(x3,c1,f1(x3))",
+            "x1;f1(x2,c1)",
+            "f1(x1,x2,x3);f1(f2(x2,x2),f2(x3,x3),c1)",
+            "f1(x1,x1);f1(x2,x2)"
+
+    }, delimiter = ';')
+    public void testMartelliMontanariUnification_termsAreUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        UnificationResult unificationResult = new MartelliMontanariUnificationStrategy().findUnifier(termPair);
+
+        assertTrue(unificationResult.isUnifiable());
+        Substitution unifier = unificationResult.unifier();
+        assertFalse(unifier.domain().isEmpty());
+        assertEquals(unifier.instantiateVariables(termPair.term1()).toString(), unifier.instantiateVariables(termPair.term2()).toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f2(x1))",
+            "f3(f2(x1),x1,f2(x2));f3(x3,c1,c2)",
+            "f1(x1);f1(f2(x1))",
+            "x1;f1(x2,f2(x1))",
+            "f1(x1,x2);f1(f2(x2),f2(x1))",
+            "f1(c1);f1(f2(x1))",
+            "f1(x1,x1);f1(c1,c2)",
+            "f1(x1);f1(x1,x2)"
+
+    }, delimiter = ';')
+    public void testMartelliMontanariUnification_termsAreNotUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        assertFalse(new MartelliMontanariUnificationStrategy().findUnifier(termPair).isUnifiable());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f1(x1))",
+            "f3(f2(x1),x1,f2(x2));f3(x3,c1,x3)",
+            "f3(f2(x1),x1,f1(f2(x2)));f3(x3,c1,f1(x3))",
+            "x1;f1(x2,c1)",
+            "f1(x1,x2,x3);f1(f2(x2,x2),f2(x3,x3),c1)",
+            "f1(x1,x1);f1(x2,x2)",
+            "f1(x1,x2,x3);f1(x2,x3,x1)"
+
+    }, delimiter = ';')
+    public void testHuetUnification_termsAreUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        UnificationResult unificationResult = new HuetUnificationStrategy().findUnifier(termPair);
+
+        assertTrue(unificationResult.isUnifiable());
+        Substitution unifier = unificationResult.unifier();
+        assertFalse(unifier.domain().isEmpty());
+        assertEquals(unifier.instantiateVariables(termPair.term1()).toString(), unifier.instantiateVariables(termPair.term2()).toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f2(x1))",
+            "f3(f2(x1),x1,f2(x2));f3(x3,c1,c2)",
+            "f1(x1);f1(f2(x1))",
+            "x1;f1(x2,f2(x1))",
+            "f1(x1,x2);f1(f2(x2),f2(x1))",
+            "f1(c1);f1(f2(x1))",
+            "f1(x1,x1);f1(c1,c2)",
+            "f1(x1);f1(x1,x2)"
+
+    }, delimiter = ';')
+    public void testHuetUnification_termsAreNotUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+
+        assertFalse(new HuetUnificationStrategy().findUnifier(termPair).isUnifiable());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"robinson", "robinson-triangular", "robinson-poly", "paterson-wegman", "martelli-montanari", "huet", "cached-huet"})
+    public void testUnificationWithTermStore_instancesAreSame(String algorithm) {
+        TermStore termStore = new TermStore();
+        TermPair termPair = TermPair.fromStrings(
+                "f3(f2(x1),x1,f1(f2(x2)))", "f3(x3,c1,f1(x3))", termStore);
+
+        UnificationResult unificationResult = UnificationStrategyFactory
+                .createInstance(algorithm, termStore)
+                .findUnifier(termPair);
+
+        assertTrue(unificationResult.isUnifiable());
+        Substitution unifier = unificationResult.unifier();
+        assertSame(
+                unifier.instantiateVariables(termPair.term1(), termStore),
+                unifier.instantiateVariables(termPair.term2(), termStore));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f1(x1))",
+            "f3(f2(x1),x1,f2(x2));f3(x3,c1,x3)",
+            "f3(f2(x1),x1,f1(f2(x2)));f3(x3,c1,f1(x3))"
+
+    }, delimiter = ';')
+    public void testArenaUnification_termsAreUnifiable(String termString1, String termString2) {
+        TermPair termPair = TermPair.fromStrings(termString1, termString2);
+        TermArena arena = TermArena.fromTermPair(termPair);
+
+        for (ArenaUnificationStrategy strategy : new ArenaUnificationStrategy[]{
+                new PolynomialRobinsonUnificationStrategy(),
+                new PatersonWegmanUnificationStrategy()}) {
+            UnificationResult unificationResult = strategy.findUnifier(arena);
+
+            assertTrue(unificationResult.isUnifiable());
+            Substitution unifier = unificationResult.unifier();
+            assertFalse(unifier.domain().isEmpty());
+            assertEquals(
+                    unifier.instantiateVariables(termPair.term1()).toString(),
+                    unifier.instantiateVariables(termPair.term2()).toString());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f(x,f1(c));f(f1(c),f2(x1))",
+            "f3(f2(x1),x1,f2(x2));f3(x3,c1,c2)",
+            "f1(x1);f1(f2(x1))",
+            "f1(c1);f1(f2(x1))",
+            "f1(x1,x1);f1(c1,c2)"
+
+    }, delimiter = ';')
+    public void testArenaUnification_termsAreNotUnifiable(String termString1, String termString2) {
+        TermArena arena = TermArena.fromTermPair(TermPair.fromStrings(termString1, termString2));
+
+        assertFalse(new PolynomialRobinsonUnificationStrategy().findUnifier(arena).isUnifiable());
+        assertFalse(new PatersonWegmanUnificationStrategy().findUnifier(arena).isUnifiable());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "x1;c1;true",
+            "c1;c2;false"
+    }, delimiter = ';')
+    public void testPatersonWegmanUnification_deepTerms(
+            String leaf1, String leaf2, boolean expected) {
+        int depth = 100_000;
+        TermPair termPair = TermPair.fromStrings(
+                deepTerm(depth, leaf1),
+                deepTerm(depth, leaf2));
+        PatersonWegmanUnificationStrategy strategy = new PatersonWegmanUnificationStrategy();
+
+        assertEquals(expected, strategy.findUnifier(termPair).isUnifiable());
+        assertEquals(expected, new PatersonWegmanUnificationStrategy()
+                .findUnifier(TermArena.fromTermPair(termPair)).isUnifiable());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "x1;c1;true",
+            "c1;c2;false"
+    }, delimiter = ';')
+    public void testArenaUnification_deepTerms(String leaf1, String leaf2, boolean expected) {
+        int depth = 100_000;
+        TermArena arena = TermArena.fromTermPair(TermPair.fromStrings(
+                "f1(".repeat(depth) + leaf1 + ")".repeat(depth),
+                "f1(".repeat(depth) + leaf2 + ")".repeat(depth)));
+
+        for (ArenaUnificationStrategy strategy : new ArenaUnificationStrategy[]{
+                new PolynomialRobinsonUnificationStrategy(),
+                new PatersonWegmanUnificationStrategy()}) {
+            assertEquals(expected, strategy.findUnifier(arena).isUnifiable());
+        }
+    }
+
+    /**
+     * Returns {@code f3(f1(leaf),f2(f2(...f1(leaf)...)))}. The shared
+     * subterm {@code f1(leaf)} is reached before its deep parents.
+     */
+    private static String deepTerm(int depth, String leaf) {
+        return "f3(f1(" + leaf + ")," + "f2(".repeat(depth) + "f1(" + leaf + ")" + ")".repeat(depth) + ")";
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"robinson", "robinson-triangular", "robinson-poly", "paterson-wegman", "martelli-montanari", "huet", "cached-huet"})
+    public void testStrategyReuse_resultsAreIndependent(String algorithm) {
+        UnificationStrategy strategy = UnificationStrategyFactory.createInstance(algorithm);
+        TermPair notUnifiable = TermPair.fromStrings("f1(x1,x1)", "f1(c1,c2)");
+        TermPair unifiable = TermPair.fromStrings("f1(x1,x2)", "f1(c1,c2)");
+
+        assertFalse(strategy.findUnifier(notUnifiable).isUnifiable());
+        UnificationResult result = strategy.findUnifier(unifiable);
+        assertTrue(result.isUnifiable());
+        assertEquals(2, result.unifier().domain().size());
+        assertEquals(
+                result.unifier().instantiateVariables(unifiable.term1()),
+                result.unifier().instantiateVariables(unifiable.term2()));
+        assertFalse(strategy.findUnifier(notUnifiable).isUnifiable());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"robinson", "robinson-triangular", "robinson-poly", "paterson-wegman", "martelli-montanari", "huet", "cached-huet"})
+    public void testIsUnifiable_agreesWithFindUnifier(String algorithm) {
+        UnificationStrategy strategy = UnificationStrategyFactory.createInstance(algorithm);
+        // Expected answers, checked against the Huet strategy below
+        Object[][] pairs = {
+                {"f3(f2(x1),x1,f1(f2(x2)))", "f3(x3,c1,f1(x3))", true},
+                {"f1(x1,x2,x3)", "f1(f2(x2,x2),f2(x3,x3),c1)", true},
+                {"f1(x1,x1)", "f1(c1,c2)", false},
+                {"f1(x1)", "f1(f2(x1))", false},
+                {"f1(x1,x2)", "f1(f2(x2),f2(x1))", false},
+                {"x1", "x1", true},
+                {"f2(x1,x1)", "f2(x2,x2)", true},
+                {"f1(x1,c1)", "f1(x1,f2(c1))", false},
+                {"f1(f2(x1,x1),x2)", "f1(x2,f2(x1))", false},
+                {"f1(f2(c1,f3(c2)),x1)", "f1(f2(c1,f3(c2)),f2(x1))", false},
+                {"f1(f2(c1,f3(c2)),x1)", "f1(f2(c1,f3(c1)),x2)", false},
+                {"f1(x1,f2(c1,f3(c2)))", "f1(f2(c1,f3(c2)),x1)", true}
+        };
+        UnificationStrategy reference = UnificationStrategyFactory.createInstance("huet");
+
+        for (Object[] pair : pairs) {
+            TermPair termPair = TermPair.fromStrings((String) pair[0], (String) pair[1]);
+            String message = pair[0] + " = " + pair[1];
+            boolean expected = (boolean) pair[2];
+            assertEquals(expected, reference.findUnifier(termPair).isUnifiable(), message);
+            assertEquals(expected, strategy.isUnifiable(termPair), message);
+            UnificationResult result = strategy.findUnifier(termPair);
+            assertEquals(expected, result.isUnifiable(), message);
+            if (expected) {
+                assertEquals(
+                        result.unifier().instantiateVariables(termPair.term1()),
+                        result.unifier().instantiateVariables(termPair.term2()),
+                        message);
+            }
+        }
+    }
+}
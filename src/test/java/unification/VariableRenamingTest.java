@@ -0,0 +1,101 @@
+package unification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import syntax.Term;
+import syntax.TermPair;
+import syntax.TermStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariableRenamingTest {
+    @ParameterizedTest
+    @CsvSource(value = {
+            "f1(x1,x2);f1(x7,x9)",
+            "f1(x2,f2(x1,x2),c1);f1(x1,f2(x3,x1),c1)",
+            "c1;c1"
+    }, delimiter = ';')
+    public void testCanonicalize_alphaEquivalentTermsAreEqual(String termString1, String termString2) {
+        Term canonical1 = VariableRenaming.canonicalize(Term.fromString(termString1)).value();
+        Term canonical2 = VariableRenaming.canonicalize(Term.fromString(termString2)).value();
+
+        assertEquals(canonical1, canonical2);
+    }
+
+    @Test
+    public void testCanonicalize_identifiedVariablesDiffer() {
+        assertNotEquals(
+                VariableRenaming.canonicalize(Term.fromString("f1(x1,x2)")).value(),
+                VariableRenaming.canonicalize(Term.fromString("f1(x1,x1)")).value());
+    }
+
+    @Test
+    public void testCanonicalize_renamingIsInFirstOccurrenceOrder() {
+        Term term = Term.fromString("f1(x3,f2(x1,c1),x3)");
+
+        VariableRenaming.Renamed<Term> renamed = VariableRenaming.canonicalize(term);
+
+        assertEquals("f1(_0,f2(_1,c1),_0)", renamed.value().toString());
+        assertEquals(
+                List.of(Term.fromString("x3"), Term.fromString("x1")),
+                List.copyOf(renamed.renaming().keySet()));
+        assertEquals(term, Substitution.of(renamed.inverse()).instantiateVariables(renamed.value()));
+    }
+
+    @Test
+    public void testCanonicalize_termPairSharesVariables() {
+        TermPair termPair = TermPair.fromStrings("f1(x5,x2)", "f1(x2,f2(x7))");
+
+        TermPair canonical = VariableRenaming.canonicalize(termPair).value();
+
+        assertEquals("f1(_0,_1)", canonical.term1().toString());
+        assertEquals("f1(_1,f2(_2))", canonical.term2().toString());
+    }
+
+    @Test
+    public void testCanonicalize_sharedNodesAreVisitedOnce() {
+        TermStore store = new TermStore();
+        Term term = store.variable("x1");
+        for (int i = 0; i < 200; i++) {
+            term = store.function("f1", List.of(term, term));
+        }
+
+        VariableRenaming.Renamed<Term> renamed = VariableRenaming.canonicalize(term);
+
+        assertEquals(Map.of(store.variable("x1"), store.variable("_0")), renamed.renaming());
+        assertEquals(201, renamed.value().depth());
+    }
+
+    @Test
+    public void testRenameApart_variablesDiffer() {
+        TermPair termPair = TermPair.fromStrings("f1(x1,x2)", "f1(x2,f2(x3))");
+
+        TermPair renamed = VariableRenaming.renameApart(termPair).value();
+
+        assertSame(termPair.term1(), renamed.term1());
+        Set<Term> variables1 = Set.of(Term.fromString("x1"), Term.fromString("x2"));
+        for (Term term : renamed.term2()) {
+            assertFalse(variables1.contains(term), term.toString());
+        }
+        assertEquals(
+                "f1(x2',f2(x3'))",
+                renamed.term2().toString());
+    }
+
+    @Test
+    public void testRenameApart_primesAreAddedUntilUnused() {
+        TermStore store = new TermStore();
+        Set<Term> used = Set.of(store.variable("x1'"), store.variable("x1''"));
+
+        VariableRenaming.Renamed<Term> renamed =
+                VariableRenaming.renameApart(Term.fromString("f1(x1,c1)"), used::contains);
+
+        assertEquals("f1(x1''',c1)", renamed.value().toString());
+        assertTrue(VariableRenaming.renameApart(Term.fromString("c1"), used::contains).renaming().isEmpty());
+    }
+}
@@ -0,0 +1,41 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+    @Test
+    public void putIfAbsent_shouldKeepFirstValue() {
+        IntObjectMap<String> map = new IntObjectMap<>(1);
+        for (int i = 0; i < 1000; i++) {
+            assertNull(map.putIfAbsent(i * 64, "v" + i));
+        }
+
+        assertEquals("v7", map.putIfAbsent(7 * 64, "other"));
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("v" + i, map.get(i * 64));
+            assertEquals(i * 64, map.keyAt(i));
+            assertEquals("v" + i, map.valueAt(i));
+        }
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void clear_shouldRemoveAllEntries() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                map.putIfAbsent(i * 16 + round, "v" + i);
+            }
+
+            map.clear();
+
+            assertTrue(map.isEmpty());
+            for (int i = 0; i < 100; i++) {
+                assertNull(map.get(i * 16 + round));
+            }
+        }
+    }
+}